@@ -0,0 +1,58 @@
+-- Latencia de las consultas por IdSolicitud con 100M de pagarés, particionado frente a tabla única.
+-- Uso (base de pruebas, tarda y ocupa ~15 GB):
+--   psql -d bench -f src/main/resources/db/particionamiento/V1__funciones_particionamiento.sql
+--   psql -d bench -v filas=100000000 -f scripts/bench-particiones.sql
+\set ON_ERROR_STOP on
+\if :{?filas}
+\else
+\set filas 100000000
+\endif
+\timing on
+
+CREATE SCHEMA IF NOT EXISTS gestion_contratos;
+DROP TABLE IF EXISTS gestion_contratos.bench_pagares_plano;
+DROP TABLE IF EXISTS gestion_contratos.bench_pagares CASCADE;
+
+-- 36 cuotas por solicitud
+CREATE TABLE gestion_contratos.bench_pagares_plano (
+    idpagare bigint PRIMARY KEY, idsolicitud bigint NOT NULL, numerocuota integer NOT NULL,
+    rutaarchivo varchar(150) NOT NULL, fechagenerado timestamp(6) NOT NULL, activo boolean NOT NULL, version bigint);
+
+CREATE TABLE gestion_contratos.bench_pagares (
+    idpagare bigint NOT NULL, idsolicitud bigint NOT NULL, numerocuota integer NOT NULL,
+    rutaarchivo varchar(150) NOT NULL, fechagenerado timestamp(6) NOT NULL, activo boolean NOT NULL, version bigint,
+    PRIMARY KEY (idpagare, idsolicitud)) PARTITION BY RANGE (idsolicitud);
+SELECT gestion_contratos.crear_particion('bench_pagares', s * 100000, 100000)
+  FROM generate_series(0, (:filas / 36) / 100000) AS s;
+
+INSERT INTO gestion_contratos.bench_pagares_plano
+SELECT g, g / 36, g % 36 + 1, '/pagares/' || g / 36 || '/pagare_' || (g % 36 + 1) || '.pdf', now(), true, 1
+  FROM generate_series(0, :filas - 1) AS g;
+INSERT INTO gestion_contratos.bench_pagares SELECT * FROM gestion_contratos.bench_pagares_plano;
+
+CREATE INDEX ON gestion_contratos.bench_pagares_plano (idsolicitud, numerocuota);
+CREATE INDEX ON gestion_contratos.bench_pagares (idsolicitud, numerocuota);
+VACUUM ANALYZE gestion_contratos.bench_pagares_plano;
+VACUUM ANALYZE gestion_contratos.bench_pagares;
+
+SELECT pg_size_pretty(pg_total_relation_size('gestion_contratos.bench_pagares_plano')) AS plano,
+       (SELECT pg_size_pretty(sum(pg_total_relation_size(inhrelid))) FROM pg_inherits
+         WHERE inhparent = 'gestion_contratos.bench_pagares'::regclass) AS particionado;
+
+-- findByIdSolicitudOrderByNumeroCuota: debe podar a una partición (Subplans Removed / una sola rama)
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM gestion_contratos.bench_pagares_plano WHERE idsolicitud = 1234567 ORDER BY numerocuota;
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM gestion_contratos.bench_pagares WHERE idsolicitud = 1234567 ORDER BY numerocuota;
+
+-- Consulta en lote (findByIdSolicitudIn...)
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM gestion_contratos.bench_pagares_plano
+ WHERE idsolicitud IN (10, 500000, 1234567, 2000000) ORDER BY idsolicitud, numerocuota;
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM gestion_contratos.bench_pagares
+ WHERE idsolicitud IN (10, 500000, 1234567, 2000000) ORDER BY idsolicitud, numerocuota;
+
+-- Archivado: borrar un rango frente a desacoplar su partición
+BEGIN;
+DELETE FROM gestion_contratos.bench_pagares_plano WHERE idsolicitud < 100000;
+ROLLBACK;
+BEGIN;
+ALTER TABLE gestion_contratos.bench_pagares DETACH PARTITION gestion_contratos.bench_pagares_p0;
+ROLLBACK;
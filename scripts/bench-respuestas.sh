@@ -0,0 +1,36 @@
+#!/usr/bin/env bash
+# Mide bytes transferidos y latencia de las respuestas grandes con y sin compresión / HTTP/2.
+# Uso: scripts/bench-respuestas.sh [URL_BASE] [ID_SOLICITUD] [REPETICIONES]
+# El servicio debe estar levantado (idealmente con --spring.profiles.active=rendimiento).
+set -euo pipefail
+
+BASE="${1:-http://localhost:8080}"
+SOLICITUD="${2:-900360}"
+REPETICIONES="${3:-20}"
+
+# Cronograma de 360 cuotas para la solicitud de prueba (se ignora el error si ya existe)
+curl -s -o /dev/null -X POST \
+  "$BASE/api/pagares/automaticos/fallback?idSolicitud=$SOLICITUD&monto=25000&tasa=12&plazo=360" || true
+
+medir() {
+  local nombre="$1"; shift
+  local url="$1"; shift
+  local total_tiempo=0 bytes=0
+  for _ in $(seq "$REPETICIONES"); do
+    read -r bytes tiempo < <(curl -s -o /dev/null -w '%{size_download} %{time_total}\n' "$@" "$url")
+    total_tiempo=$(awk -v a="$total_tiempo" -v b="$tiempo" 'BEGIN { print a + b }')
+  done
+  printf '%-45s bytes=%-10s latencia_media=%.1f ms\n' "$nombre" "$bytes" \
+    "$(awk -v t="$total_tiempo" -v n="$REPETICIONES" 'BEGIN { print t / n * 1000 }')"
+}
+
+PAGINA="$BASE/api/contratos?size=1000"
+CRONOGRAMA="$BASE/api/pagares/solicitud/$SOLICITUD"
+
+medir "getAllContratos size=1000 (identity)"      "$PAGINA"
+medir "getAllContratos size=1000 (gzip)"          "$PAGINA" -H 'Accept-Encoding: gzip'
+medir "getAllContratos size=1000 (gzip, h2c)"     "$PAGINA" -H 'Accept-Encoding: gzip' --http2-prior-knowledge
+medir "getBySolicitud 360 cuotas (identity)"      "$CRONOGRAMA"
+medir "getBySolicitud 360 cuotas (gzip)"          "$CRONOGRAMA" -H 'Accept-Encoding: gzip'
+medir "getBySolicitud 360 cuotas (gzip, h2c)"     "$CRONOGRAMA" -H 'Accept-Encoding: gzip' --http2-prior-knowledge
+medir "getBySolicitud 360 cuotas (cbor)"          "$CRONOGRAMA" -H 'Accept: application/cbor'
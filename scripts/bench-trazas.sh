@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+# Mide el costo de las trazas en POST /api/pagares/automaticos/fallback: arranca el servicio sin trazas
+# y con el perfil trazas a distintas probabilidades de muestreo, y compara latencia media, p50 y p99.
+# Muestreo 0 mide sólo la instrumentación (observaciones y spans JDBC sin exportar).
+# Uso: scripts/bench-trazas.sh [REPETICIONES] [PLAZO]   (desde la raíz del proyecto, con la base de
+# datos accesible; para el perfil trazas, el collector de scripts/trazas/docker-compose.yml levantado)
+set -euo pipefail
+
+REPETICIONES="${1:-300}"
+PLAZO="${2:-360}"
+JAR=target/contratos-0.0.1-SNAPSHOT.jar
+PUERTO="${PUERTO:-8080}"
+BASE="http://localhost:$PUERTO"
+# Solicitudes nuevas en cada corrida para no chocar con cronogramas ya generados
+SOLICITUD=$(( $(date +%s) * 10 ))
+
+./mvnw -B -q -DskipTests package
+
+medir() {
+  local nombre="$1"; shift
+  local log tiempos
+  log=$(mktemp)
+  tiempos=$(mktemp)
+  java -jar "$JAR" --server.port="$PUERTO" "$@" > "$log" 2>&1 &
+  local pid=$!
+  until grep -q "Started ContratosApplication" "$log"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "$nombre: el proceso terminó antes de arrancar"; cat "$log"; return 1
+    fi
+    sleep 0.2
+  done
+
+  # Calentamiento (JIT, pool de conexiones) fuera de la medición
+  for _ in $(seq 50); do
+    SOLICITUD=$((SOLICITUD + 1))
+    curl -s -o /dev/null -X POST "$BASE/api/pagares/automaticos/fallback?idSolicitud=$SOLICITUD&monto=25000&tasa=12&plazo=$PLAZO"
+  done
+  for _ in $(seq "$REPETICIONES"); do
+    SOLICITUD=$((SOLICITUD + 1))
+    curl -s -o /dev/null -w '%{time_total}\n' -X POST \
+      "$BASE/api/pagares/automaticos/fallback?idSolicitud=$SOLICITUD&monto=25000&tasa=12&plazo=$PLAZO" >> "$tiempos"
+  done
+
+  sort -n "$tiempos" | awk -v nombre="$nombre" '
+    { t[NR] = $1 * 1000; suma += $1 * 1000 }
+    END {
+      p50 = t[int(NR * 0.50) > 0 ? int(NR * 0.50) : 1]
+      p99 = t[int(NR * 0.99) > 0 ? int(NR * 0.99) : 1]
+      printf "%-24s media=%7.2f ms  p50=%7.2f ms  p99=%7.2f ms\n", nombre, suma / NR, p50, p99
+    }'
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  rm -f "$log" "$tiempos"
+}
+
+medir "sin trazas"
+medir "trazas muestreo 0"    --spring.profiles.active=trazas --management.tracing.sampling.probability=0.0
+medir "trazas muestreo 0.1"  --spring.profiles.active=trazas --management.tracing.sampling.probability=0.1
+medir "trazas muestreo 1.0"  --spring.profiles.active=trazas --management.tracing.sampling.probability=1.0
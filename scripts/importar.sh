@@ -0,0 +1,21 @@
+#!/usr/bin/env bash
+# Importa contratos o pagarés heredados desde un archivo CSV (con encabezado) o NDJSON.
+# Uso: scripts/importar.sh contratos|pagares ARCHIVO [URL_BASE]
+# El formato se deduce de la extensión: .csv -> text/csv, cualquier otra -> application/x-ndjson.
+set -euo pipefail
+
+TABLA="${1:?indicar contratos o pagares}"
+ARCHIVO="${2:?indicar el archivo a importar}"
+BASE="${3:-http://localhost:8080}"
+
+case "$ARCHIVO" in
+  *.csv) TIPO="text/csv" ;;
+  *)     TIPO="application/x-ndjson" ;;
+esac
+
+# --data-binary envía el archivo tal cual (sin quitar saltos de línea) y en streaming
+curl -sS --fail-with-body -X POST \
+  -H "Content-Type: $TIPO" \
+  --data-binary "@$ARCHIVO" \
+  "$BASE/api/importaciones/$TABLA"
+echo
@@ -0,0 +1,42 @@
+#!/usr/bin/env bash
+# Compara tiempo de arranque y RSS entre el modo por defecto y el modo de arranque rápido
+# (perfil arranque-rapido + AOT de Spring + archivo CDS de clases).
+# Uso: scripts/medir-arranque.sh   (desde la raíz del proyecto, con la base de datos accesible)
+set -euo pipefail
+
+JAR=target/contratos-0.0.1-SNAPSHOT.jar
+EXTRAIDO=target/extraido
+CDS="$EXTRAIDO/contratos.jsa"
+PUERTO="${PUERTO:-8080}"
+
+./mvnw -B -q -Parranque-rapido -DskipTests package
+
+# Jar descomprimido (requisito de CDS) y corrida de entrenamiento que termina al refrescar el contexto
+rm -rf "$EXTRAIDO"
+java -Djarmode=tools -jar "$JAR" extract --destination "$EXTRAIDO"
+java -XX:ArchiveClassesAtExit="$CDS" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+  -jar "$EXTRAIDO/$(basename "$JAR")" --spring.profiles.active=arranque-rapido > /dev/null
+
+medir() {
+  local nombre="$1"; shift
+  local log
+  log=$(mktemp)
+  "$@" --server.port="$PUERTO" > "$log" 2>&1 &
+  local pid=$!
+  until grep -q "Started ContratosApplication" "$log"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "$nombre: el proceso terminó antes de arrancar"; cat "$log"; return 1
+    fi
+    sleep 0.2
+  done
+  local segundos rss
+  segundos=$(grep -o "Started ContratosApplication in [0-9.]* seconds" "$log" | grep -o "[0-9.]*" | head -1)
+  rss=$(ps -o rss= -p "$pid")
+  printf '%-28s arranque=%6ss  rss=%6d MB\n' "$nombre" "$segundos" $((rss / 1024))
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  rm -f "$log"
+}
+
+medir "por defecto"      java -jar "$JAR"
+medir "arranque rápido"  java -XX:SharedArchiveFile="$CDS" -Dspring.aot.enabled=true \
+                           -jar "$EXTRAIDO/$(basename "$JAR")" --spring.profiles.active=arranque-rapido
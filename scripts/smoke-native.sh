@@ -0,0 +1,71 @@
+#!/usr/bin/env bash
+# Prueba de humo de la imagen nativa contra un Postgres local y comparación con la JVM.
+# Uso: scripts/smoke-native.sh   (requiere GraalVM 21+ y Docker)
+# Variables: PG_PUERTO (5433), PUERTO (8080)
+set -euo pipefail
+
+PG_PUERTO="${PG_PUERTO:-5433}"
+PUERTO="${PUERTO:-8080}"
+BASE="http://localhost:$PUERTO"
+CONTENEDOR=contratos-smoke-pg
+
+docker rm -f "$CONTENEDOR" > /dev/null 2>&1 || true
+docker run -d --name "$CONTENEDOR" -p "$PG_PUERTO:5432" \
+  -e POSTGRES_PASSWORD=postgres -e POSTGRES_DB=prestamosautomotrices postgres:16 > /dev/null
+trap 'docker rm -f "$CONTENEDOR" > /dev/null' EXIT
+until docker exec "$CONTENEDOR" pg_isready -U postgres > /dev/null 2>&1; do sleep 0.5; done
+docker exec "$CONTENEDOR" psql -U postgres -d prestamosautomotrices -c "CREATE SCHEMA IF NOT EXISTS gestion_contratos" > /dev/null
+
+ARGS=(--server.port="$PUERTO"
+      --spring.datasource.url="jdbc:postgresql://localhost:$PG_PUERTO/prestamosautomotrices"
+      --spring.jpa.show-sql=false)
+
+./mvnw -B -q -DskipTests package
+./mvnw -B -q -Pnative -DskipTests native:compile
+
+esperar() {
+  until grep -q "Started ContratosApplication" "$1"; do
+    kill -0 "$2" 2>/dev/null || { cat "$1"; exit 1; }
+    sleep 0.1
+  done
+}
+
+verificar() {
+  local esperado="$1" metodo="$2" url="$3"
+  local codigo
+  codigo=$(curl -s -o /dev/null -w '%{http_code}' -X "$metodo" -H 'Content-Type: application/json' \
+    ${4:+-d "$4"} "$BASE$url")
+  [[ "$codigo" == "$esperado" ]] || { echo "FALLO $metodo $url → $codigo (esperado $esperado)"; exit 1; }
+  echo "ok   $metodo $url → $codigo"
+}
+
+smoke() {
+  local id=$((RANDOM + 1000))
+  verificar 201 POST "/api/contratos" "{\"idSolicitud\": $id, \"condicionEspecial\": \"smoke\"}"
+  verificar 200 GET  "/api/contratos/solicitud/$id"
+  verificar 200 GET  "/api/contratos?size=5"
+  verificar 201 POST "/api/pagares/automaticos/fallback?idSolicitud=$id&monto=10000&tasa=12&plazo=12"
+  verificar 200 GET  "/api/pagares/solicitud/$id"
+  verificar 200 GET  "/api/pagares/existe/solicitud/$id"
+  verificar 200 GET  "/api/solicitudes/$id/documentos"
+  verificar 200 GET  "/v3/api-docs"
+  verificar 204 DELETE "/api/pagares/solicitud/$id"
+  verificar 204 DELETE "/api/contratos/solicitud/$id"
+}
+
+medir() {
+  local nombre="$1"; shift
+  local log; log=$(mktemp)
+  "$@" "${ARGS[@]}" > "$log" 2>&1 &
+  local pid=$!
+  esperar "$log" "$pid"
+  local segundos
+  segundos=$(grep -o "Started ContratosApplication in [0-9.]* seconds" "$log" | grep -o "[0-9.]*" | head -1)
+  smoke
+  printf '%-8s arranque=%6ss  rss_tras_smoke=%6d MB\n' "$nombre" "$segundos" $(( $(ps -o rss= -p "$pid") / 1024 ))
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  rm -f "$log"
+}
+
+medir "jvm"    java -jar target/contratos-0.0.1-SNAPSHOT.jar
+medir "nativo" target/contratos
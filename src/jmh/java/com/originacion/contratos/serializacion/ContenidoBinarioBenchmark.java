@@ -0,0 +1,134 @@
+package com.originacion.contratos.serializacion;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.originacion.contratos.config.ContenidoBinarioConfig;
+import com.originacion.contratos.config.SerializacionConfig;
+import com.originacion.contratos.dto.CuotaDto;
+import com.originacion.contratos.dto.PagareDto;
+import com.originacion.contratos.service.TablaAmortizacion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON frente a CBOR compacto para un cronograma de 360 cuotas: tamaño del payload (se imprime al
+// preparar cada fork) y coste de codificar y decodificar. La decodificación es a árbol en ambos
+// formatos, que es lo que hace un cliente genérico; los DTOs no tienen deserializadores propios.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ContenidoBinarioBenchmark {
+
+    private static final short PLAZO = 360;
+
+    private ObjectMapper json;
+    private ObjectMapper cbor;
+    private List<CuotaDto> cuotas;
+    private List<PagareDto> pagares;
+    private byte[] cuotasJson;
+    private byte[] cuotasCbor;
+    private byte[] pagaresJson;
+    private byte[] pagaresCbor;
+    private ByteArrayOutputStream salida;
+
+    @Setup
+    public void preparar() throws IOException {
+        json = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(SerializacionConfig.serializadores("benchmark", false))
+                .build();
+        cbor = ContenidoBinarioConfig.cborMapper();
+
+        cuotas = new TablaAmortizacion().generar(new BigDecimal("25000"), new BigDecimal("12"), PLAZO);
+        LocalDateTime generado = LocalDateTime.of(2024, 1, 15, 10, 30);
+        pagares = new ArrayList<>(PLAZO);
+        for (int i = 1; i <= PLAZO; i++) {
+            pagares.add(PagareDto.builder()
+                    .id((long) i)
+                    .idSolicitud(900_360L)
+                    .numeroCuota(i)
+                    .rutaArchivo("sha256:" + "0".repeat(61) + String.format("%03d", i))
+                    .fechaGenerado(generado)
+                    .activo(true)
+                    .version(0L)
+                    .build());
+        }
+
+        cuotasJson = json.writeValueAsBytes(cuotas);
+        cuotasCbor = cbor.writeValueAsBytes(cuotas);
+        pagaresJson = json.writeValueAsBytes(pagares);
+        pagaresCbor = cbor.writeValueAsBytes(pagares);
+        System.out.printf("%nTamaño 360 cuotas:  JSON=%d bytes  CBOR=%d bytes (%.0f%%)%n",
+                cuotasJson.length, cuotasCbor.length, 100.0 * cuotasCbor.length / cuotasJson.length);
+        System.out.printf("Tamaño 360 pagarés: JSON=%d bytes  CBOR=%d bytes (%.0f%%)%n",
+                pagaresJson.length, pagaresCbor.length, 100.0 * pagaresCbor.length / pagaresJson.length);
+        salida = new ByteArrayOutputStream(1 << 18);
+    }
+
+    @Benchmark
+    public int codificarCuotasJson() throws IOException {
+        return escribir(json, cuotas);
+    }
+
+    @Benchmark
+    public int codificarCuotasCbor() throws IOException {
+        return escribir(cbor, cuotas);
+    }
+
+    @Benchmark
+    public int codificarPagaresJson() throws IOException {
+        return escribir(json, pagares);
+    }
+
+    @Benchmark
+    public int codificarPagaresCbor() throws IOException {
+        return escribir(cbor, pagares);
+    }
+
+    @Benchmark
+    public JsonNode decodificarCuotasJson() throws IOException {
+        return json.readTree(cuotasJson);
+    }
+
+    @Benchmark
+    public JsonNode decodificarCuotasCbor() throws IOException {
+        return cbor.readTree(cuotasCbor);
+    }
+
+    @Benchmark
+    public JsonNode decodificarPagaresJson() throws IOException {
+        return json.readTree(pagaresJson);
+    }
+
+    @Benchmark
+    public JsonNode decodificarPagaresCbor() throws IOException {
+        return cbor.readTree(pagaresCbor);
+    }
+
+    private int escribir(ObjectMapper mapper, Object valor) throws IOException {
+        salida.reset();
+        mapper.writeValue(salida, valor);
+        return salida.size();
+    }
+}
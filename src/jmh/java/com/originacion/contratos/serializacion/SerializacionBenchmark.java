@@ -0,0 +1,133 @@
+package com.originacion.contratos.serializacion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.originacion.contratos.config.SerializacionConfig;
+import com.originacion.contratos.dto.ContratoDTO;
+import com.originacion.contratos.dto.CuotaDto;
+import com.originacion.contratos.dto.PagareDto;
+import com.originacion.contratos.service.TablaAmortizacion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serializadores escritos a mano contra la serialización por reflexión de Jackson, con los mismos
+// DTOs y tamaños que devuelven getAllContratos (Page<ContratoDTO>) y los listados de pagarés/cuotas.
+// Para ver también las asignaciones: -Djmh.args="Serializacion -prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializacionBenchmark {
+
+    @Param({"100", "1000"})
+    int tamano;
+
+    private ObjectMapper reflexion;
+    private ObjectMapper escritoAMano;
+    private Page<ContratoDTO> contratos;
+    private List<PagareDto> pagares;
+    private List<CuotaDto> cuotas;
+    private ByteArrayOutputStream salida;
+
+    @Setup
+    public void preparar() {
+        // Misma configuración base que el ObjectMapper de Spring Boot
+        reflexion = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        escritoAMano = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(SerializacionConfig.serializadores("benchmark", false))
+                .build();
+
+        LocalDateTime ahora = LocalDateTime.of(2024, 1, 15, 10, 30);
+        List<ContratoDTO> filas = new ArrayList<>(tamano);
+        pagares = new ArrayList<>(tamano);
+        for (int i = 1; i <= tamano; i++) {
+            ContratoDTO contrato = new ContratoDTO();
+            contrato.setIdContrato(i);
+            contrato.setIdSolicitud(100_000 + i);
+            contrato.setRutaArchivo("sha256:" + "0".repeat(58) + String.format("%06d", i));
+            contrato.setFechaGenerado(ahora.plusMinutes(i));
+            contrato.setFechaFirma(i % 3 == 0 ? null : ahora.plusDays(1).plusMinutes(i));
+            contrato.setEstado(i % 3 == 0 ? "DRAFT" : "FIRMADO");
+            contrato.setCondicionEspecial(i % 5 == 0 ? "Seguro todo riesgo incluido" : null);
+            contrato.setVersion(1L);
+            filas.add(contrato);
+
+            pagares.add(PagareDto.builder()
+                    .id((long) i)
+                    .idSolicitud(100_000L + i / 12)
+                    .numeroCuota(i % 360 + 1)
+                    .rutaArchivo("/pagares/" + i + ".pdf")
+                    .fechaGenerado(ahora)
+                    .activo(true)
+                    .version(0L)
+                    .build());
+        }
+        contratos = new PageImpl<>(filas, PageRequest.of(0, tamano), 50L * tamano);
+        cuotas = new TablaAmortizacion().generar(new BigDecimal("25000"), new BigDecimal("12"), (short) Math.min(tamano, 360));
+        salida = new ByteArrayOutputStream(1 << 20);
+    }
+
+    @Benchmark
+    public int paginaContratosReflexion() throws IOException {
+        return escribir(reflexion, contratos);
+    }
+
+    @Benchmark
+    public int paginaContratosEscritoAMano() throws IOException {
+        return escribir(escritoAMano, contratos);
+    }
+
+    @Benchmark
+    public int pagaresReflexion() throws IOException {
+        return escribir(reflexion, pagares);
+    }
+
+    @Benchmark
+    public int pagaresEscritoAMano() throws IOException {
+        return escribir(escritoAMano, pagares);
+    }
+
+    @Benchmark
+    public int cuotasReflexion() throws IOException {
+        return escribir(reflexion, cuotas);
+    }
+
+    @Benchmark
+    public int cuotasEscritoAMano() throws IOException {
+        return escribir(escritoAMano, cuotas);
+    }
+
+    // Escritura directa a un stream, como hace el convertidor de Spring MVC con la respuesta
+    private int escribir(ObjectMapper mapper, Object valor) throws IOException {
+        salida.reset();
+        mapper.writeValue(salida, valor);
+        return salida.size();
+    }
+}
@@ -0,0 +1,42 @@
+package com.originacion.contratos.config;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+// Perfil arranque-rapido: sólo los beans de springdoc y Feign se crean perezosamente (en la primera
+// petición que los use). El resto se crea al arrancar como siempre, así las tareas @Scheduled, los
+// oyentes y las verificaciones de @PostConstruct no dependen de que alguien pida el bean.
+@Configuration
+@Profile("arranque-rapido")
+public class ArranqueRapidoConfig {
+
+    @Bean
+    static BeanFactoryPostProcessor beansPerezososArranqueRapido(Environment environment) {
+        List<String> paquetes = List.of(environment.getProperty("arranque-rapido.paquetes-perezosos", String[].class,
+                new String[]{"org.springdoc.", "org.springframework.cloud.openfeign."}));
+        return beanFactory -> {
+            for (String nombre : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definicion = beanFactory.getBeanDefinition(nombre);
+                String origen = origen(definicion);
+                if (origen != null && paquetes.stream().anyMatch(origen::startsWith)) {
+                    definicion.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    // Clase del bean o, si sale de un método @Bean, la configuración que lo declara
+    private static String origen(BeanDefinition definicion) {
+        if (definicion instanceof AnnotatedBeanDefinition anotada && anotada.getFactoryMethodMetadata() != null) {
+            return anotada.getFactoryMethodMetadata().getDeclaringClassName();
+        }
+        return definicion.getBeanClassName();
+    }
+}
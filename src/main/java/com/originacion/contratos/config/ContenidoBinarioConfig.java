@@ -0,0 +1,55 @@
+package com.originacion.contratos.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+// Respuestas en CBOR (application/cbor) para el tráfico entre servicios: fechas como valores epoch y
+// estados como ordinales. Ocupa el lugar del convertidor CBOR por defecto de Spring MVC (que se
+// registra solo por tener jackson-dataformat-cbor y, al ir antes, ganaría la negociación), así JSON
+// sigue siendo el formato por defecto y CBOR solo se usa cuando el cliente lo pide en Accept.
+// Solo escritura: los cuerpos de las peticiones siguen siendo JSON.
+@Configuration
+public class ContenidoBinarioConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        MappingJackson2CborHttpMessageConverter compacto = new MappingJackson2CborHttpMessageConverter(cborMapper()) {
+            @Override
+            public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+                return false;
+            }
+
+            @Override
+            public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+                return false;
+            }
+        };
+
+        int posicion = -1;
+        for (int i = converters.size() - 1; i >= 0; i--) {
+            if (converters.get(i) instanceof MappingJackson2CborHttpMessageConverter) {
+                converters.remove(i);
+                posicion = i;
+            }
+        }
+        converters.add(posicion >= 0 ? posicion : converters.size(), compacto);
+    }
+
+    // También lo usa el benchmark de tamaño y coste de codificación (src/jmh/java)
+    public static ObjectMapper cborMapper() {
+        return Jackson2ObjectMapperBuilder.cbor()
+                .modules(new JavaTimeModule(), SerializacionConfig.serializadores("contratos-serializadores-compactos", true))
+                .build();
+    }
+}
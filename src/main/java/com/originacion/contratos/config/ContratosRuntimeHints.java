@@ -0,0 +1,71 @@
+package com.originacion.contratos.config;
+
+import com.originacion.contratos.dto.BusquedaLoteDto;
+import com.originacion.contratos.dto.ContratoDTO;
+import com.originacion.contratos.dto.CuotaDto;
+import com.originacion.contratos.dto.OperacionDiferidaDto;
+import com.originacion.contratos.dto.PagareCreateDto;
+import com.originacion.contratos.dto.PagareDto;
+import com.originacion.contratos.dto.PagareUpdateDto;
+import com.originacion.contratos.dto.PuntoSerieContratosDto;
+import com.originacion.contratos.dto.ReamortizacionDto;
+import com.originacion.contratos.dto.RechazoImportacionDto;
+import com.originacion.contratos.dto.ResultadoImportacionDto;
+import com.originacion.contratos.dto.ResultadoLoteDto;
+import com.originacion.contratos.dto.SolicitudDocumentosDto;
+import com.originacion.contratos.dto.SolicitudReamortizacionDto;
+import com.originacion.contratos.dto.SolicitudTrabajoDto;
+import com.originacion.contratos.dto.TrabajoDto;
+import com.originacion.contratos.enums.AlmacenamientoPagares;
+import com.originacion.contratos.enums.EstadoContrato;
+import com.originacion.contratos.enums.EstadoReamortizacion;
+import com.originacion.contratos.enums.EstadoTrabajo;
+import com.originacion.contratos.model.Contrato;
+import com.originacion.contratos.model.Cronograma;
+import com.originacion.contratos.model.DocumentoAlmacenado;
+import com.originacion.contratos.model.Pagare;
+import com.originacion.contratos.model.Reamortizacion;
+import com.originacion.contratos.model.RollupContrato;
+import com.originacion.contratos.model.Trabajo;
+import com.originacion.contratos.service.GeneracionPagaresTrabajo;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+// Pistas de reflexión para la imagen nativa (perfil Maven "native"): entidades de Hibernate,
+// DTOs serializados por Jackson (accesores generados por Lombok) y la implementación de
+// PagareMapper generada por MapStruct.
+@Configuration
+@ImportRuntimeHints(ContratosRuntimeHints.Registrar.class)
+public class ContratosRuntimeHints {
+
+    static class Registrar implements RuntimeHintsRegistrar {
+
+        private static final MemberCategory[] MIEMBROS = {
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS,
+                MemberCategory.DECLARED_FIELDS
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> tipo : new Class<?>[] {
+                    Contrato.class, Pagare.class, RollupContrato.class, RollupContrato.Clave.class,
+                    DocumentoAlmacenado.class, Cronograma.class, Reamortizacion.class, Trabajo.class,
+                    EstadoContrato.class, AlmacenamientoPagares.class, EstadoReamortizacion.class, EstadoTrabajo.class,
+                    ContratoDTO.class, PagareDto.class, PagareCreateDto.class, PagareUpdateDto.class, CuotaDto.class,
+                    BusquedaLoteDto.class, ResultadoLoteDto.class, SolicitudDocumentosDto.class,
+                    PuntoSerieContratosDto.class, OperacionDiferidaDto.class,
+                    ReamortizacionDto.class, SolicitudReamortizacionDto.class, TrabajoDto.class, SolicitudTrabajoDto.class,
+                    ResultadoImportacionDto.class, RechazoImportacionDto.class, GeneracionPagaresTrabajo.Carga.class}) {
+                hints.reflection().registerType(tipo, MIEMBROS);
+            }
+            hints.reflection().registerType(
+                    TypeReference.of("com.originacion.contratos.mapper.PagareMapperImpl"), MIEMBROS);
+        }
+    }
+}
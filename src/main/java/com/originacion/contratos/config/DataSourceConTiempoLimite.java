@@ -0,0 +1,40 @@
+package com.originacion.contratos.config;
+
+import com.originacion.contratos.util.TiempoLimite;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.pool.HikariPool;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Pool Hikari que, dentro de una petición con tiempo límite, espera una conexión como mucho lo que
+ * le queda a la petición (y nunca más que connectionTimeout). Sin límite delega tal cual.
+ */
+public class DataSourceConTiempoLimite extends DelegatingDataSource {
+
+    private final HikariDataSource hikari;
+
+    public DataSourceConTiempoLimite(HikariDataSource hikari) {
+        super(hikari);
+        this.hikari = hikari;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long restante = TiempoLimite.restanteMs();
+        if (restante == TiempoLimite.SIN_LIMITE) {
+            return hikari.getConnection();
+        }
+        if (restante == 0) {
+            throw new SQLTransientConnectionException(hikari.getPoolName() + " - tiempo límite de la petición vencido antes de obtener conexión");
+        }
+        // Hasta la primera conexión el pool no existe; esa la crea Hikari con su espera normal
+        if (hikari.getHikariPoolMXBean() instanceof HikariPool pool) {
+            return pool.getConnection(Math.min(restante, hikari.getConnectionTimeout()));
+        }
+        return hikari.getConnection();
+    }
+}
@@ -0,0 +1,142 @@
+package com.originacion.contratos.config;
+
+import com.originacion.contratos.filter.LimiteEscrituraFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Envía las transacciones readOnly a la réplica y el resto a la primaria. La réplica se descarta
+ * mientras su retraso supere el máximo configurado (o no responda), y un cliente que acaba de
+ * confirmar una escritura lee de la primaria durante la ventana de lectura propia.
+ * Debe usarse detrás de un LazyConnectionDataSourceProxy: la conexión se pide con la transacción
+ * ya marcada como readOnly.
+ */
+@Slf4j
+public final class DataSourceEnrutado extends AbstractRoutingDataSource {
+
+    public enum Destino { PRIMARIA, REPLICA }
+
+    private final JdbcTemplate jdbcReplica;
+    private final long retrasoMaximoMs;
+    private final long ventanaLecturaPropiaMs;
+
+    // Cliente -> instante (ms) hasta el que sus lecturas van a la primaria
+    private final ConcurrentMap<String, Long> escriturasRecientes = new ConcurrentHashMap<>();
+    private volatile long retrasoReplicaMs = Long.MAX_VALUE;
+
+    private final Counter haciaPrimaria;
+    private final Counter haciaReplica;
+    private final Counter desviadasPorRetraso;
+    private final Counter desviadasPorLecturaPropia;
+
+    public DataSourceEnrutado(DataSource primaria, DataSource replica, MeterRegistry meterRegistry,
+                              long retrasoMaximoMs, long ventanaLecturaPropiaMs) {
+        setTargetDataSources(Map.of(Destino.PRIMARIA, primaria, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primaria);
+        this.jdbcReplica = new JdbcTemplate(replica);
+        this.retrasoMaximoMs = retrasoMaximoMs;
+        this.ventanaLecturaPropiaMs = ventanaLecturaPropiaMs;
+
+        this.haciaPrimaria = contador(meterRegistry, Destino.PRIMARIA, "escritura");
+        this.haciaReplica = contador(meterRegistry, Destino.REPLICA, "lectura");
+        this.desviadasPorRetraso = contador(meterRegistry, Destino.PRIMARIA, "retraso-replica");
+        this.desviadasPorLecturaPropia = contador(meterRegistry, Destino.PRIMARIA, "lectura-propia");
+        Gauge.builder("contratos.datasource.replica.retraso", this, d -> d.retrasoReplicaMs == Long.MAX_VALUE ? -1 : d.retrasoReplicaMs)
+                .description("Retraso de replicación medido en la réplica (ms, -1 si no responde)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String cliente = clienteActual();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            marcarEscrituraAlConfirmar(cliente);
+            haciaPrimaria.increment();
+            return Destino.PRIMARIA;
+        }
+        if (cliente != null) {
+            Long hasta = escriturasRecientes.get(cliente);
+            if (hasta != null && hasta > System.currentTimeMillis()) {
+                desviadasPorLecturaPropia.increment();
+                return Destino.PRIMARIA;
+            }
+        }
+        if (retrasoReplicaMs > retrasoMaximoMs) {
+            desviadasPorRetraso.increment();
+            return Destino.PRIMARIA;
+        }
+        haciaReplica.increment();
+        return Destino.REPLICA;
+    }
+
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.intervalo-chequeo-ms:1000}")
+    public void medirRetraso() {
+        long anterior = retrasoReplicaMs;
+        try {
+            // Sin WAL pendiente de aplicar la réplica está al día aunque el último replay sea antiguo
+            Long retraso = jdbcReplica.queryForObject("""
+                    SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                                ELSE COALESCE((EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::bigint, 0)
+                           END
+                    """, Long.class);
+            retrasoReplicaMs = retraso == null ? Long.MAX_VALUE : retraso;
+        } catch (RuntimeException e) {
+            retrasoReplicaMs = Long.MAX_VALUE;
+            if (anterior != Long.MAX_VALUE) {
+                log.warn("Réplica no disponible, lecturas hacia la primaria: {}", e.getMessage());
+            }
+            return;
+        }
+        if ((anterior > retrasoMaximoMs) != (retrasoReplicaMs > retrasoMaximoMs)) {
+            log.info("Retraso de la réplica {} ms (máximo {} ms): lecturas hacia la {}", retrasoReplicaMs, retrasoMaximoMs,
+                    retrasoReplicaMs > retrasoMaximoMs ? "primaria" : "réplica");
+        }
+        long ahora = System.currentTimeMillis();
+        escriturasRecientes.values().removeIf(hasta -> hasta <= ahora);
+    }
+
+    private void marcarEscrituraAlConfirmar(String cliente) {
+        if (cliente == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                escriturasRecientes.put(cliente, System.currentTimeMillis() + ventanaLecturaPropiaMs);
+            }
+        });
+    }
+
+    private static String clienteActual() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos) {
+            HttpServletRequest request = atributos.getRequest();
+            return LimiteEscrituraFilter.cliente(request);
+        }
+        return null;
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, Destino destino, String motivo) {
+        return Counter.builder("contratos.datasource.enrutamiento")
+                .description("Conexiones asignadas por el enrutamiento primaria/réplica")
+                .tag("destino", destino.name().toLowerCase())
+                .tag("motivo", motivo)
+                .register(meterRegistry);
+    }
+}
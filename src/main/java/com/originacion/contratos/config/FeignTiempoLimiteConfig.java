@@ -0,0 +1,60 @@
+package com.originacion.contratos.config;
+
+import com.originacion.contratos.exception.TiempoLimiteExcedidoException;
+import com.originacion.contratos.filter.TiempoLimiteFilter;
+import com.originacion.contratos.util.TiempoLimite;
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.RequestInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Las llamadas Feign hechas dentro de una petición con tiempo límite no esperan la respuesta más de
+ * lo que le queda a la petición, y el servicio remoto recibe ese resto en X-Timeout-Ms para poder
+ * cortar a su vez. Sin presupuesto suficiente la llamada ni se intenta.
+ * El acotado es una Capability: envuelve el cliente que Spring Cloud OpenFeign configure para cada
+ * @FeignClient (balanceo de carga, pool de conexiones, TLS) en lugar de sustituirlo.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tiempo-limite.habilitado", havingValue = "true", matchIfMissing = true)
+public class FeignTiempoLimiteConfig {
+
+    @Bean
+    public RequestInterceptor propagarTiempoLimite() {
+        return plantilla -> {
+            long restante = TiempoLimite.restanteMs();
+            if (restante != TiempoLimite.SIN_LIMITE) {
+                plantilla.header(TiempoLimiteFilter.CABECERA, String.valueOf(restante));
+            }
+        };
+    }
+
+    @Bean
+    public Capability tiempoLimiteFeign(@Value("${tiempo-limite.minimo-ms:50}") long minimoMs) {
+        return new Capability() {
+            @Override
+            public Client enrich(Client cliente) {
+                return (request, opciones) -> {
+                    long restante = TiempoLimite.restanteMs();
+                    if (restante == TiempoLimite.SIN_LIMITE) {
+                        return cliente.execute(request, opciones);
+                    }
+                    if (restante < minimoMs) {
+                        throw new TiempoLimiteExcedidoException("llamada " + request.httpMethod() + " " + request.url());
+                    }
+                    Request.Options acotadas = new Request.Options(
+                            Math.min(opciones.connectTimeoutMillis(), restante), TimeUnit.MILLISECONDS,
+                            Math.min(opciones.readTimeoutMillis(), restante), TimeUnit.MILLISECONDS,
+                            opciones.isFollowRedirects());
+                    return cliente.execute(request, acotadas);
+                };
+            }
+        };
+    }
+}
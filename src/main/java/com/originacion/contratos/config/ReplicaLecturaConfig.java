@@ -0,0 +1,67 @@
+package com.originacion.contratos.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Sólo cuando hay réplica configurada; sin spring.datasource.replica.url se usa el DataSource autoconfigurado.
+@Configuration
+@ConditionalOnProperty("spring.datasource.replica.url")
+public class ReplicaLecturaConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourcePropertiesPrimaria() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica")
+    public DataSourceProperties dataSourcePropertiesReplica() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimaria(@Qualifier("dataSourcePropertiesPrimaria") DataSourceProperties propiedades) {
+        HikariDataSource dataSource = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primaria");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    public HikariDataSource dataSourceReplica(@Qualifier("dataSourcePropertiesReplica") DataSourceProperties propiedades) {
+        HikariDataSource dataSource = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public DataSourceEnrutado dataSourceEnrutado(@Qualifier("dataSourcePrimaria") DataSource primaria,
+                                                 @Qualifier("dataSourceReplica") DataSource replica,
+                                                 MeterRegistry meterRegistry,
+                                                 @Value("${spring.datasource.replica.retraso-maximo-ms:2000}") long retrasoMaximoMs,
+                                                 @Value("${spring.datasource.replica.ventana-lectura-propia-ms:5000}") long ventanaLecturaPropiaMs) {
+        return new DataSourceEnrutado(primaria, replica, meterRegistry, retrasoMaximoMs, ventanaLecturaPropiaMs);
+    }
+
+    // JPA, JdbcTemplate y las transacciones usan este; la decisión de destino se toma en la primera sentencia
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceEnrutado dataSourceEnrutado) {
+        return new LazyConnectionDataSourceProxy(dataSourceEnrutado);
+    }
+}
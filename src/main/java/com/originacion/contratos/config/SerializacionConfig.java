@@ -0,0 +1,39 @@
+package com.originacion.contratos.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.originacion.contratos.dto.ContratoDTO;
+import com.originacion.contratos.dto.CuotaDto;
+import com.originacion.contratos.dto.PagareDto;
+import com.originacion.contratos.serializacion.ContratoDtoSerializer;
+import com.originacion.contratos.serializacion.CuotaDtoSerializer;
+import com.originacion.contratos.serializacion.PagareDtoSerializer;
+import com.originacion.contratos.serializacion.PaginaSerializer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Serializadores escritos a mano para los DTOs de los listados grandes y para el PageImpl que los
+// envuelve en el listado de contratos. Spring Boot registra el módulo en el ObjectMapper global; con
+// serializacion.rapida.habilitada=false se vuelve a la serialización por reflexión de Jackson sin
+// cambiar el JSON.
+@Configuration
+@ConditionalOnProperty(name = "serializacion.rapida.habilitada", havingValue = "true", matchIfMissing = true)
+public class SerializacionConfig {
+
+    @Bean
+    public Module serializadoresRapidosModule() {
+        return serializadores("contratos-serializadores-rapidos", false);
+    }
+
+    // También lo usan el convertidor CBOR y los benchmarks (src/jmh/java)
+    public static SimpleModule serializadores(String nombre, boolean compacto) {
+        SimpleModule module = new SimpleModule(nombre);
+        module.addSerializer(ContratoDTO.class, new ContratoDtoSerializer(compacto));
+        module.addSerializer(PagareDto.class, new PagareDtoSerializer(compacto));
+        module.addSerializer(CuotaDto.class, new CuotaDtoSerializer(compacto));
+        module.addSerializer(new PaginaSerializer());
+        return module;
+    }
+}
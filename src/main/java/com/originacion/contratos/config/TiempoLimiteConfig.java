@@ -0,0 +1,79 @@
+package com.originacion.contratos.config;
+
+import com.originacion.contratos.util.TiempoLimite;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DelegatingTransactionDefinition;
+
+/**
+ * Lleva el tiempo límite de la petición (TiempoLimiteFilter) a la base de datos: cada transacción
+ * nueva arranca con timeout igual a los segundos que le quedan a la petición, que Hibernate y
+ * JdbcTemplate aplican como query timeout de cada sentencia (el driver la cancela al vencer), y la
+ * espera por una conexión del pool tampoco puede superar ese resto.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tiempo-limite.habilitado", havingValue = "true", matchIfMissing = true)
+public class TiempoLimiteConfig {
+
+    // Reemplaza al de JpaBaseConfiguration conservando sus customizers (spring.transaction.*)
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                         ObjectProvider<TransactionManagerCustomizers> customizers) {
+        TransaccionesConTiempoLimite transactionManager = new TransaccionesConTiempoLimite(entityManagerFactory);
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+
+    // Static: los BeanPostProcessor se registran antes que el resto de beans de la configuración
+    @Bean
+    public static BeanPostProcessor poolsConTiempoLimite() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof HikariDataSource hikari ? new DataSourceConTiempoLimite(hikari) : bean;
+            }
+        };
+    }
+
+    static class TransaccionesConTiempoLimite extends JpaTransactionManager {
+
+        private static final long serialVersionUID = 1L;
+
+        TransaccionesConTiempoLimite(EntityManagerFactory entityManagerFactory) {
+            super(entityManagerFactory);
+        }
+
+        // Sólo las transacciones que empiezan; las que se unen a una existente heredan su timeout
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            long restante = TiempoLimite.restanteMs();
+            if (restante == TiempoLimite.SIN_LIMITE) {
+                super.doBegin(transaction, definition);
+                return;
+            }
+            TiempoLimite.verificar("inicio de transacción");
+            int segundos = (int) Math.min(Integer.MAX_VALUE, (restante + 999) / 1000);
+            int configurado = definition.getTimeout() != TransactionDefinition.TIMEOUT_DEFAULT
+                    ? definition.getTimeout() : getDefaultTimeout();
+            if (configurado != TransactionDefinition.TIMEOUT_DEFAULT && configurado <= segundos) {
+                super.doBegin(transaction, definition);
+                return;
+            }
+            super.doBegin(transaction, new DelegatingTransactionDefinition(definition) {
+                @Override
+                public int getTimeout() {
+                    return segundos;
+                }
+            });
+        }
+    }
+}
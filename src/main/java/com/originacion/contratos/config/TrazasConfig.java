@@ -0,0 +1,22 @@
+package com.originacion.contratos.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Trazas distribuidas (Micrometer Observation con el puente de OpenTelemetry). Spring ya observa cada
+// petición HTTP; datasource-micrometer cada conexión (incluida la espera del pool), sentencia y result
+// set; feign-micrometer los clientes Feign. Este aspecto agrega un span por método de las clases
+// anotadas con @Observed (controladores y servicios). Sólo con management.tracing.enabled=true, para
+// no pagar el aspecto cuando no se exportan trazas; el exportador OTLP está en el perfil trazas.
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "management.tracing.enabled", havingValue = "true")
+public class TrazasConfig {
+
+    @Bean
+    ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+}
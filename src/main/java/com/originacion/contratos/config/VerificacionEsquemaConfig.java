@@ -0,0 +1,66 @@
+package com.originacion.contratos.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Comprueba al arrancar que el esquema tiene lo que el servicio no puede crear por sí mismo con
+ * ddl-auto=update. El alta de cronogramas usa ON CONFLICT (idsolicitud, numerocuota): sin un índice
+ * único sobre esas columnas cada generación de pagarés falla, y Hibernate no lo crea si la tabla ya
+ * tiene cuotas duplicadas (registra el error y sigue). Lo mismo con los contadores diarios y
+ * ON CONFLICT (fecha, metrica, franja): Hibernate no cambia la clave primaria de una tabla existente.
+ * Mejor no arrancar que fallar en cada petición.
+ */
+@Configuration
+@Lazy(false)
+@Slf4j
+@ConditionalOnProperty(name = "esquema.verificacion.habilitada", havingValue = "true", matchIfMissing = true)
+public class VerificacionEsquemaConfig {
+
+    // Restricción o índice único válido (también el índice padre de la tabla particionada), sin predicado,
+    // sobre exactamente las columnas dadas (en orden alfabético)
+    static final String INDICE_UNICO = """
+            SELECT EXISTS (
+                SELECT 1
+                  FROM pg_index i
+                 WHERE i.indrelid = to_regclass(?)
+                   AND i.indisunique
+                   AND i.indisvalid
+                   AND i.indpred IS NULL
+                   AND (SELECT array_agg(a.attname::text ORDER BY a.attname)
+                          FROM pg_attribute a
+                         WHERE a.attrelid = i.indrelid
+                           AND a.attnum = ANY (i.indkey)) = string_to_array(?, ','))
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // El EntityManagerFactory se pide sólo para verificar después de que Hibernate actualice el esquema
+    public VerificacionEsquemaConfig(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    void verificar() {
+        if (!indiceUnico("gestion_contratos.pagares", "idsolicitud,numerocuota")) {
+            throw new IllegalStateException("Falta la restricción única (idsolicitud, numerocuota) en "
+                    + "gestion_contratos.pagares: aplicar db/restricciones/V1__pagares_cuota_unica.sql");
+        }
+        if (!indiceUnico("gestion_contratos.rollups_contratos", "fecha,franja,metrica")) {
+            throw new IllegalStateException("Falta la clave (fecha, metrica, franja) en "
+                    + "gestion_contratos.rollups_contratos: aplicar db/esquema/V3__rollups_franjas.sql");
+        }
+        log.info("Esquema verificado: restricción única de pagarés por cuota y clave de contadores presentes");
+    }
+
+    private boolean indiceUnico(String tabla, String columnas) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(INDICE_UNICO, Boolean.class, tabla, columnas));
+    }
+}
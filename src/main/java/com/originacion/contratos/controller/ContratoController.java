@@ -1,11 +1,23 @@
 package com.originacion.contratos.controller;
 
+import com.originacion.contratos.dto.BusquedaLoteDto;
 import com.originacion.contratos.dto.ContratoDTO;
+import com.originacion.contratos.dto.OperacionDiferidaDto;
+import com.originacion.contratos.dto.PuntoSerieContratosDto;
+import com.originacion.contratos.dto.ResultadoLoteDto;
 import com.originacion.contratos.enums.EstadoContrato;
+import com.originacion.contratos.enums.GranularidadSerie;
+import com.originacion.contratos.enums.TipoOperacionDiferida;
 import com.originacion.contratos.mapper.ContratoMapper;
 import com.originacion.contratos.model.Contrato;
+import com.originacion.contratos.model.DocumentoAlmacenado;
+import com.originacion.contratos.service.AlmacenDocumentosService;
 import com.originacion.contratos.service.ContratoService;
+import com.originacion.contratos.service.EscrituraDiferidaService;
+import com.originacion.contratos.service.EstadisticasContratoService;
+import com.originacion.contratos.util.Lotes;
 
+import io.micrometer.observation.annotation.Observed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -19,24 +31,43 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/contratos")
 @Tag(name = "Contratos", description = "API para gestión de contratos de préstamos automotrices")
+@Observed(name = "contratos.controlador")
 @Slf4j
 public class ContratoController {
 
     private final ContratoService contratoService;
     private final ContratoMapper contratoMapper;
+    private final EstadisticasContratoService estadisticasService;
+    private final EscrituraDiferidaService escrituraDiferidaService;
+    private final AlmacenDocumentosService almacenDocumentosService;
 
-    public ContratoController(ContratoService contratoService, ContratoMapper contratoMapper) {
+    public ContratoController(ContratoService contratoService, ContratoMapper contratoMapper,
+                              EstadisticasContratoService estadisticasService,
+                              EscrituraDiferidaService escrituraDiferidaService,
+                              AlmacenDocumentosService almacenDocumentosService) {
         this.contratoService = contratoService;
         this.contratoMapper = contratoMapper;
+        this.estadisticasService = estadisticasService;
+        this.escrituraDiferidaService = escrituraDiferidaService;
+        this.almacenDocumentosService = almacenDocumentosService;
     }
 
     @GetMapping
@@ -103,6 +134,32 @@ public class ContratoController {
         return ResponseEntity.ok(contratoMapper.toDTO(contrato));
     }
 
+    @PostMapping("/buscar")
+    @Operation(summary = "Obtener contratos por lista de solicitudes", description = "Obtiene en una sola llamada los contratos de varias solicitudes, indexados por ID de solicitud")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Contratos encontrados y solicitudes faltantes"),
+        @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o demasiado grande")
+    })
+    public ResponseEntity<ResultadoLoteDto<Integer, ContratoDTO>> buscarPorSolicitudes(
+            @Valid @RequestBody BusquedaLoteDto<Integer> busqueda) {
+
+        log.info("Buscando contratos en lote para {} solicitudes", busqueda.getIdsSolicitud().size());
+
+        Map<Integer, Contrato> contratos = contratoService.findByIdSolicitudes(busqueda.getIdsSolicitud());
+
+        Map<Integer, ContratoDTO> encontrados = new LinkedHashMap<>();
+        List<Integer> faltantes = new ArrayList<>();
+        for (Integer idSolicitud : Lotes.sinDuplicados(busqueda.getIdsSolicitud())) {
+            Contrato contrato = contratos.get(idSolicitud);
+            if (contrato != null) {
+                encontrados.put(idSolicitud, contratoMapper.toDTO(contrato));
+            } else {
+                faltantes.add(idSolicitud);
+            }
+        }
+        return ResponseEntity.ok(new ResultadoLoteDto<>(encontrados, faltantes));
+    }
+
     @PostMapping
     @Operation(summary = "Generar nuevo contrato", description = "Genera un nuevo contrato para una solicitud de crédito")
     @ApiResponses(value = {
@@ -202,20 +259,72 @@ public class ContratoController {
         return ResponseEntity.ok(contratoMapper.toDTO(contrato));
     }
 
+    @PutMapping(path = "/{id}/archivo", consumes = {MediaType.APPLICATION_PDF_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @Operation(summary = "Subir archivo del contrato", description = "Guarda el documento del contrato en el almacén direccionado por contenido y actualiza su rutaArchivo")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Archivo almacenado y asociado al contrato",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ContratoDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Contrato no encontrado")
+    })
+    public ResponseEntity<ContratoDTO> subirArchivo(
+            @Parameter(description = "ID del contrato") @PathVariable Integer id,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String tipoContenido,
+            InputStream contenido) {
+
+        log.info("Subiendo archivo del contrato ID: {}", id);
+
+        contratoService.findById(id);
+        DocumentoAlmacenado documento = almacenDocumentosService.almacenar(contenido, tipoContenido);
+        Contrato contrato = contratoService.asignarArchivo(id, AlmacenDocumentosService.rutaArchivo(documento));
+        return ResponseEntity.ok(contratoMapper.toDTO(contrato));
+    }
+
+    @GetMapping("/{id}/archivo")
+    @Operation(summary = "Descargar archivo del contrato", description = "Descarga el documento del contrato en streaming, con soporte de Range y ETag")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Documento completo"),
+        @ApiResponse(responseCode = "206", description = "Rango del documento"),
+        @ApiResponse(responseCode = "304", description = "El documento no ha cambiado"),
+        @ApiResponse(responseCode = "404", description = "Contrato sin documento almacenado"),
+        @ApiResponse(responseCode = "416", description = "Rango no satisfacible")
+    })
+    public ResponseEntity<StreamingResponseBody> descargarArchivo(
+            @Parameter(description = "ID del contrato") @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        log.info("Descargando archivo del contrato ID: {}", id);
+
+        Contrato contrato = contratoService.findById(id);
+        return almacenDocumentosService.buscarPorRuta(contrato.getRutaArchivo())
+                .map(documento -> DescargaArchivo.descargar(documento, almacenDocumentosService.archivo(documento),
+                        "contrato_" + contrato.getIdSolicitud() + ".pdf", range, ifNoneMatch))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @PatchMapping("/{id}/condicion")
     @Operation(summary = "Actualizar condición especial", description = "Actualiza la condición especial del contrato (solo en estado DRAFT)")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Condición actualizada exitosamente",
                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = ContratoDTO.class))),
+        @ApiResponse(responseCode = "202", description = "Actualización encolada (Prefer: respond-async)",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = OperacionDiferidaDto.class))),
         @ApiResponse(responseCode = "404", description = "Contrato no encontrado"),
         @ApiResponse(responseCode = "409", description = "El contrato no está en estado válido para modificar")
     })
-    public ResponseEntity<ContratoDTO> actualizarCondicionEspecial(
+    public ResponseEntity<Object> actualizarCondicionEspecial(
             @Parameter(description = "ID del contrato") @PathVariable Integer id,
             @Parameter(description = "Nueva condición especial") @RequestParam String condicion,
-            @Parameter(description = "ID de request para idempotencia") @RequestHeader(required = false) String requestId) {
+            @Parameter(description = "ID de request para idempotencia") @RequestHeader(required = false) String requestId,
+            @Parameter(description = "respond-async para encolar la operación") @RequestHeader(value = "Prefer", required = false) String prefer) {
         
         log.info("Actualizando condición especial del contrato ID: {} - RequestId: {}", id, requestId);
+
+        if (RespuestaDiferida.esAsincrono(prefer, escrituraDiferidaService)) {
+            OperacionDiferidaDto operacion = escrituraDiferidaService.encolar(TipoOperacionDiferida.ACTUALIZAR_CONDICION, id.longValue(), condicion);
+            log.info("Actualización de condición del contrato {} encolada como operación {}", id, operacion.getId());
+            return RespuestaDiferida.aceptada(operacion);
+        }
         
         Contrato contrato = contratoService.actualizarCondicionEspecial(id, condicion);
         return ResponseEntity.ok(contratoMapper.toDTO(contrato));
@@ -236,19 +345,44 @@ public class ContratoController {
         ));
     }
 
+    @GetMapping("/estadisticas/serie")
+    @Operation(summary = "Obtener serie de tiempo de contratos", description = "Obtiene por día o por mes los contratos generados, firmados y cancelados, la tasa de cancelación y los percentiles de tiempo hasta la firma, calculados desde los rollups diarios")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Serie obtenida exitosamente"),
+        @ApiResponse(responseCode = "409", description = "Rango de fechas inválido")
+    })
+    public ResponseEntity<List<PuntoSerieContratosDto>> getSerieContratos(
+            @Parameter(description = "Fecha inicial (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @Parameter(description = "Fecha final (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @Parameter(description = "Granularidad: DIA o MES") @RequestParam(defaultValue = "DIA") String granularidad) {
+        log.info("Solicitando serie de contratos {} - {} por {}", desde, hasta, granularidad);
+
+        GranularidadSerie granularidadEnum = GranularidadSerie.valueOf(granularidad.toUpperCase());
+        return ResponseEntity.ok(estadisticasService.obtenerSerie(desde, hasta, granularidadEnum));
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Eliminar contrato lógicamente", description = "Elimina lógicamente un contrato por ID (cambia estado a CANCELADO)")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Contrato eliminado lógicamente (cancelado)"),
+        @ApiResponse(responseCode = "202", description = "Eliminación encolada (Prefer: respond-async)",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = OperacionDiferidaDto.class))),
         @ApiResponse(responseCode = "404", description = "Contrato no encontrado"),
         @ApiResponse(responseCode = "409", description = "El contrato ya está cancelado")
     })
-    public ResponseEntity<Void> eliminarContratoLogicamente(
+    public ResponseEntity<Object> eliminarContratoLogicamente(
             @Parameter(description = "ID del contrato a eliminar lógicamente") @PathVariable Integer id,
             @Parameter(description = "Motivo de eliminación") @RequestParam(defaultValue = "Eliminado por usuario") String motivo,
-            @Parameter(description = "ID de request para idempotencia") @RequestHeader(required = false) String requestId) {
+            @Parameter(description = "ID de request para idempotencia") @RequestHeader(required = false) String requestId,
+            @Parameter(description = "respond-async para encolar la operación") @RequestHeader(value = "Prefer", required = false) String prefer) {
         
         log.info("Eliminación lógica del contrato ID: {} por motivo: {} - RequestId: {}", id, motivo, requestId);
+
+        if (RespuestaDiferida.esAsincrono(prefer, escrituraDiferidaService)) {
+            OperacionDiferidaDto operacion = escrituraDiferidaService.encolar(TipoOperacionDiferida.ELIMINAR_CONTRATO, id.longValue(), motivo);
+            log.info("Eliminación lógica del contrato {} encolada como operación {}", id, operacion.getId());
+            return RespuestaDiferida.aceptada(operacion);
+        }
         
         contratoService.eliminarLogicamente(id, motivo);
         return ResponseEntity.noContent().build();
@@ -269,4 +403,4 @@ public class ContratoController {
         contratoService.eliminarFisicamente(idSolicitud);
         return ResponseEntity.noContent().build();
     }
-} 
\ No newline at end of file
+}
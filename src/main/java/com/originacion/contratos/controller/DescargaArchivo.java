@@ -0,0 +1,140 @@
+package com.originacion.contratos.controller;
+
+import com.originacion.contratos.model.DocumentoAlmacenado;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Descarga de documentos del almacén sin cargarlos en el heap: FileChannel.transferTo hacia la
+// respuesta, con soporte de un rango (Range: bytes=...) y ETag basado en el hash del contenido.
+final class DescargaArchivo {
+
+    private DescargaArchivo() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> descargar(DocumentoAlmacenado documento, Path archivo,
+                                                           String nombre, String range, String ifNoneMatch) {
+        long tamano = documento.getTamano();
+        String etag = "\"" + documento.getHash() + "\"";
+
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(documento.getTipoContenido()));
+        headers.setContentDisposition(ContentDisposition.inline().filename(nombre).build());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setETag(etag);
+
+        long inicio = 0;
+        long longitud = tamano;
+        HttpStatus status = HttpStatus.OK;
+
+        List<HttpRange> rangos = parsearRangos(range);
+        if (rangos.size() == 1) {
+            try {
+                inicio = rangos.get(0).getRangeStart(tamano);
+                longitud = rangos.get(0).getRangeEnd(tamano) - inicio + 1;
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + tamano)
+                        .build();
+            }
+            if (longitud <= 0) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + tamano)
+                        .build();
+            }
+            status = HttpStatus.PARTIAL_CONTENT;
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + (inicio + longitud - 1) + "/" + tamano);
+        }
+        headers.setContentLength(longitud);
+
+        long desde = inicio;
+        long bytes = longitud;
+        StreamingResponseBody cuerpo = salida -> transferir(archivo, desde, bytes, salida);
+        return ResponseEntity.status(status).headers(headers).body(cuerpo);
+    }
+
+    // Entrada de un ZIP: nombre dentro del archivo y documento de origen (null si no está almacenado)
+    record EntradaZip(String nombre, Path archivo) {
+    }
+
+    // ZIP construido al vuelo sobre la respuesta: sin archivos temporales y con buffers acotados,
+    // así la memoria no depende de la cantidad de documentos. Los faltantes se listan en faltantes.txt.
+    static ResponseEntity<StreamingResponseBody> zip(String nombre, List<EntradaZip> entradas) {
+        StreamingResponseBody cuerpo = salida -> {
+            ZipOutputStream zip = new ZipOutputStream(salida);
+            zip.setLevel(Deflater.BEST_SPEED);
+            StringBuilder faltantes = new StringBuilder();
+            for (EntradaZip entrada : entradas) {
+                if (entrada.archivo() == null || !Files.isReadable(entrada.archivo())) {
+                    faltantes.append(entrada.nombre()).append('\n');
+                    continue;
+                }
+                zip.putNextEntry(new ZipEntry(entrada.nombre()));
+                Files.copy(entrada.archivo(), zip);
+                zip.closeEntry();
+                zip.flush();
+            }
+            if (!faltantes.isEmpty()) {
+                zip.putNextEntry(new ZipEntry("faltantes.txt"));
+                zip.write(faltantes.toString().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(nombre).build().toString())
+                .body(cuerpo);
+    }
+
+    private static void transferir(Path archivo, long desde, long bytes, OutputStream salida) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            WritableByteChannel destino = Channels.newChannel(salida);
+            long posicion = desde;
+            long restante = bytes;
+            while (restante > 0) {
+                long enviados = canal.transferTo(posicion, restante, destino);
+                if (enviados <= 0) {
+                    break;
+                }
+                posicion += enviados;
+                restante -= enviados;
+            }
+        }
+    }
+
+    // Rangos múltiples o mal formados se ignoran y se sirve el documento completo
+    private static List<HttpRange> parsearRangos(String range) {
+        if (range == null || range.isBlank()) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
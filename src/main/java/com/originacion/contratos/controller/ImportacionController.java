@@ -0,0 +1,68 @@
+package com.originacion.contratos.controller;
+
+import com.originacion.contratos.dto.ResultadoImportacionDto;
+import com.originacion.contratos.enums.FormatoImportacion;
+import com.originacion.contratos.service.ImportacionService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/importaciones")
+@Tag(name = "Importaciones", description = "Carga masiva de contratos y pagarés heredados (CSV o NDJSON)")
+public class ImportacionController {
+
+    private static final String TEXT_CSV = "text/csv";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private final ImportacionService importacionService;
+
+    public ImportacionController(ImportacionService importacionService) {
+        this.importacionService = importacionService;
+    }
+
+    @PostMapping(value = "/contratos", consumes = {TEXT_CSV, APPLICATION_NDJSON})
+    @Operation(summary = "Importar contratos",
+            description = "CSV con encabezado y columnas idSolicitud,rutaArchivo,fechaGenerado,fechaFirma,estado,condicionEspecial, "
+                    + "o un objeto JSON por línea con esos campos. Las solicitudes repetidas conservan la última fila; "
+                    + "las que ya tienen contrato se omiten")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Importación terminada (puede incluir rechazos)",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResultadoImportacionDto.class))),
+        @ApiResponse(responseCode = "400", description = "El archivo no tiene el formato esperado")
+    })
+    public ResponseEntity<ResultadoImportacionDto> importarContratos(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String tipoContenido, InputStream cuerpo) {
+        return ResponseEntity.ok(importacionService.importarContratos(cuerpo, formato(tipoContenido)));
+    }
+
+    @PostMapping(value = "/pagares", consumes = {TEXT_CSV, APPLICATION_NDJSON})
+    @Operation(summary = "Importar pagarés",
+            description = "CSV con encabezado y columnas idSolicitud,numeroCuota,rutaArchivo,fechaGenerado,activo, "
+                    + "o un objeto JSON por línea con esos campos. Las solicitudes que ya tienen pagarés se omiten completas")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Importación terminada (puede incluir rechazos)",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResultadoImportacionDto.class))),
+        @ApiResponse(responseCode = "400", description = "El archivo no tiene el formato esperado")
+    })
+    public ResponseEntity<ResultadoImportacionDto> importarPagares(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String tipoContenido, InputStream cuerpo) {
+        return ResponseEntity.ok(importacionService.importarPagares(cuerpo, formato(tipoContenido)));
+    }
+
+    private FormatoImportacion formato(String tipoContenido) {
+        return MediaType.parseMediaType(tipoContenido).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV))
+                ? FormatoImportacion.CSV
+                : FormatoImportacion.NDJSON;
+    }
+}
@@ -0,0 +1,43 @@
+package com.originacion.contratos.controller;
+
+import com.originacion.contratos.dto.OperacionDiferidaDto;
+import com.originacion.contratos.service.EscrituraDiferidaService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/operaciones")
+@Tag(name = "Operaciones", description = "Estado de las operaciones de escritura diferida")
+@Slf4j
+public class OperacionController {
+
+    private final EscrituraDiferidaService escrituraDiferidaService;
+
+    public OperacionController(EscrituraDiferidaService escrituraDiferidaService) {
+        this.escrituraDiferidaService = escrituraDiferidaService;
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Consultar operación diferida", description = "Obtiene el estado de una operación aceptada con 202")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estado de la operación",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = OperacionDiferidaDto.class))),
+        @ApiResponse(responseCode = "404", description = "Operación desconocida o ya depurada")
+    })
+    public ResponseEntity<OperacionDiferidaDto> getOperacion(
+            @Parameter(description = "ID de la operación") @PathVariable String id) {
+        log.debug("Consultando operación diferida: {}", id);
+        return escrituraDiferidaService.consultar(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
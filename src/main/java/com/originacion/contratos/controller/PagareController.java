@@ -1,23 +1,37 @@
 package com.originacion.contratos.controller;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Map;
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 
+import com.originacion.contratos.dto.BusquedaLoteDto;
+import com.originacion.contratos.dto.CuotaDto;
+import com.originacion.contratos.dto.OperacionDiferidaDto;
 import com.originacion.contratos.dto.PagareDto;
 import com.originacion.contratos.dto.PagareUpdateDto;
+import com.originacion.contratos.dto.ResultadoLoteDto;
+import com.originacion.contratos.enums.TipoOperacionDiferida;
+import com.originacion.contratos.model.DocumentoAlmacenado;
+import com.originacion.contratos.service.AlmacenDocumentosService;
+import com.originacion.contratos.service.EscrituraDiferidaService;
 import com.originacion.contratos.service.PagareService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.micrometer.observation.annotation.Observed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -27,16 +41,23 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 @RestController
-@RequestMapping(path = "/api/pagares", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(path = "/api/pagares", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
 @Tag(name = "Pagarés", description = "API para gestionar Pagarés")
+@Observed(name = "contratos.controlador")
 @Validated
 public class PagareController {
 
     private static final Logger log = LoggerFactory.getLogger(PagareController.class);
     private final PagareService service;
+    private final EscrituraDiferidaService escrituraDiferidaService;
+    private final AlmacenDocumentosService almacenDocumentosService;
 
-    public PagareController(PagareService service) {
+    public PagareController(PagareService service,
+                            EscrituraDiferidaService escrituraDiferidaService,
+                            AlmacenDocumentosService almacenDocumentosService) {
         this.service = service;
+        this.escrituraDiferidaService = escrituraDiferidaService;
+        this.almacenDocumentosService = almacenDocumentosService;
     }
 
     @Operation(summary = "Obtiene un Pagaré por su ID")
@@ -97,6 +118,43 @@ public class PagareController {
         return ResponseEntity.ok(dtos);
     }
 
+    @Operation(summary = "Lista las cuotas (monto, interés, saldo, vencimiento) de un cronograma compacto")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Cuotas ordenadas por número",
+                     content = @Content(schema = @Schema(implementation = CuotaDto.class))),
+        @ApiResponse(responseCode = "404", description = "La solicitud no tiene cronograma compacto")
+    })
+    @GetMapping("/solicitud/{idSolicitud}/cuotas")
+    public ResponseEntity<List<CuotaDto>> getCuotasBySolicitud(
+        @Parameter(description = "ID de la solicitud", required = true)
+        @PathVariable Long idSolicitud) {
+
+        log.debug("ENTER GET /api/pagares/solicitud/{}/cuotas → listar cuotas", idSolicitud);
+        List<CuotaDto> cuotas = service.getCuotasBySolicitud(idSolicitud);
+        if (cuotas.isEmpty()) {
+            log.warn("La solicitud {} no tiene cronograma compacto", idSolicitud);
+            return ResponseEntity.notFound().build();
+        }
+        log.info("{} cuotas listadas para solicitud {}", cuotas.size(), idSolicitud);
+        return ResponseEntity.ok(cuotas);
+    }
+
+    @Operation(summary = "Lista los pagarés de varias solicitudes en una sola llamada")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Pagarés indexados por solicitud y solicitudes sin pagarés"),
+        @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o demasiado grande")
+    })
+    @PostMapping(path = "/solicitudes", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResultadoLoteDto<Long, List<PagareDto>>> getBySolicitudes(
+        @Valid @RequestBody BusquedaLoteDto<Long> busqueda) {
+
+        log.debug("ENTER POST /api/pagares/solicitudes → {} solicitudes", busqueda.getIdsSolicitud().size());
+        ResultadoLoteDto<Long, List<PagareDto>> resultado = service.getPagaresBySolicitudes(busqueda.getIdsSolicitud());
+        log.info("Pagarés en lote: {} solicitudes encontradas, {} faltantes",
+                 resultado.getEncontrados().size(), resultado.getFaltantes().size());
+        return ResponseEntity.ok(resultado);
+    }
+
     @Operation(summary = "Obtiene un Pagaré de una solicitud por número de cuota")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Pagaré encontrado",
@@ -143,17 +201,106 @@ public class PagareController {
         return ResponseEntity.ok(updated);
     }
 
+    @Operation(summary = "Sube el archivo de un Pagaré al almacén de documentos")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Archivo almacenado y asociado al pagaré",
+                     content = @Content(schema = @Schema(implementation = PagareDto.class))),
+        @ApiResponse(responseCode = "404", description = "Pagaré no encontrado")
+    })
+    @PutMapping(path = "/{id}/archivo",
+                consumes = {MediaType.APPLICATION_PDF_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<PagareDto> uploadArchivo(
+        @Parameter(description = "ID del pagaré", required = true)
+        @PathVariable Long id,
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) String tipoContenido,
+        InputStream contenido) {
+
+        log.debug("Solicitud recibida → Subir archivo de Pagaré ID={}", id);
+        service.getPagareById(id);
+        DocumentoAlmacenado documento = almacenDocumentosService.almacenar(contenido, tipoContenido);
+        PagareDto dto = service.asignarArchivo(id, AlmacenDocumentosService.rutaArchivo(documento));
+        log.info("Archivo de Pagaré ID={} almacenado: {} ({} bytes)", id, documento.getHash(), documento.getTamano());
+        return ResponseEntity.ok(dto);
+    }
+
+    @Operation(summary = "Descarga el archivo de un Pagaré (streaming, Range y ETag)")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Documento completo"),
+        @ApiResponse(responseCode = "206", description = "Rango del documento"),
+        @ApiResponse(responseCode = "304", description = "El documento no ha cambiado"),
+        @ApiResponse(responseCode = "404", description = "Pagaré sin documento almacenado"),
+        @ApiResponse(responseCode = "416", description = "Rango no satisfacible")
+    })
+    @GetMapping(path = "/{id}/archivo", produces = MediaType.ALL_VALUE)
+    public ResponseEntity<StreamingResponseBody> downloadArchivo(
+        @Parameter(description = "ID del pagaré", required = true)
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        log.debug("Solicitud recibida → Descargar archivo de Pagaré ID={}", id);
+        PagareDto dto = service.getPagareById(id);
+        return almacenDocumentosService.buscarPorRuta(dto.getRutaArchivo())
+            .map(documento -> DescargaArchivo.descargar(documento, almacenDocumentosService.archivo(documento),
+                "pagare_" + dto.getIdSolicitud() + "_" + dto.getNumeroCuota() + ".pdf", range, ifNoneMatch))
+            .orElseGet(() -> {
+                log.warn("Pagaré ID={} no tiene documento almacenado (ruta='{}')", id, dto.getRutaArchivo());
+                return ResponseEntity.notFound().build();
+            });
+    }
+
+    @Operation(summary = "Descarga en un ZIP los archivos de todos los pagarés de una solicitud")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "ZIP con los pagarés ordenados por cuota"),
+        @ApiResponse(responseCode = "404", description = "No existen pagarés para esa solicitud")
+    })
+    @GetMapping(path = "/solicitud/{idSolicitud}/archivos.zip", produces = "application/zip")
+    public ResponseEntity<StreamingResponseBody> downloadArchivosZip(
+        @Parameter(description = "ID de la solicitud", required = true)
+        @PathVariable Long idSolicitud) {
+
+        log.debug("ENTER GET /api/pagares/solicitud/{}/archivos.zip", idSolicitud);
+        List<PagareDto> pagares = service.getPagaresBySolicitud(idSolicitud);
+        if (pagares.isEmpty()) {
+            log.warn("No se encontraron pagarés para la solicitud {}", idSolicitud);
+            return ResponseEntity.notFound().build();
+        }
+
+        // Metadatos resueltos en una sola consulta antes de empezar a escribir la respuesta
+        Map<String, DocumentoAlmacenado> documentos = almacenDocumentosService.buscarPorRutas(
+            pagares.stream().map(PagareDto::getRutaArchivo).toList());
+        List<DescargaArchivo.EntradaZip> entradas = new ArrayList<>(pagares.size());
+        for (PagareDto pagare : pagares) {
+            DocumentoAlmacenado documento = documentos.get(pagare.getRutaArchivo());
+            entradas.add(new DescargaArchivo.EntradaZip(
+                "pagare_" + pagare.getNumeroCuota() + ".pdf",
+                documento != null ? almacenDocumentosService.ruta(documento) : null));
+        }
+        log.info("Generando ZIP de {} pagarés para solicitud {} ({} almacenados)",
+                 pagares.size(), idSolicitud, documentos.size());
+        return DescargaArchivo.zip("pagares_" + idSolicitud + ".zip", entradas);
+    }
+
     @Operation(summary = "Elimina lógicamente un Pagaré")
     @ApiResponses({
         @ApiResponse(responseCode = "204", description = "Pagaré marcado como inactivo"),
+        @ApiResponse(responseCode = "202", description = "Eliminación encolada (Prefer: respond-async)",
+                     content = @Content(schema = @Schema(implementation = OperacionDiferidaDto.class))),
         @ApiResponse(responseCode = "404", description = "Pagaré no encontrado")
     })
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(
+    public ResponseEntity<Object> delete(
         @Parameter(description = "ID del pagaré a eliminar", required = true)
-        @PathVariable Long id) {
+        @PathVariable Long id,
+        @Parameter(description = "respond-async para encolar la operación")
+        @RequestHeader(value = "Prefer", required = false) String prefer) {
 
         log.debug("Solicitud recibida → Eliminación lógica de Pagaré ID={}", id);
+        if (RespuestaDiferida.esAsincrono(prefer, escrituraDiferidaService)) {
+            OperacionDiferidaDto operacion = escrituraDiferidaService.encolar(TipoOperacionDiferida.ELIMINAR_PAGARE, id, null);
+            log.info("Eliminación lógica de Pagaré ID={} encolada como operación {}", id, operacion.getId());
+            return RespuestaDiferida.aceptada(operacion);
+        }
         service.logicalDeletePagare(id);
         log.warn("Pagaré ID={} marcado como inactivo (activo=false)", id);
         return ResponseEntity.noContent().build();
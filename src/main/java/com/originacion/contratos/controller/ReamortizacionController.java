@@ -0,0 +1,91 @@
+package com.originacion.contratos.controller;
+
+import com.originacion.contratos.dto.ReamortizacionDto;
+import com.originacion.contratos.dto.SolicitudReamortizacionDto;
+import com.originacion.contratos.service.ReamortizacionService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/reamortizaciones")
+@Tag(name = "Re-amortización", description = "Recálculo masivo de cronogramas por cambio de tasa")
+@Slf4j
+public class ReamortizacionController {
+
+    private final ReamortizacionService reamortizacionService;
+
+    public ReamortizacionController(ReamortizacionService reamortizacionService) {
+        this.reamortizacionService = reamortizacionService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Iniciar re-amortización",
+            description = "Recalcula en segundo plano los cronogramas compactos con la tasa anterior usando la tasa nueva")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Trabajo creado; su progreso se consulta en Location",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReamortizacionDto.class))),
+        @ApiResponse(responseCode = "400", description = "Tasas inválidas o iguales")
+    })
+    public ResponseEntity<ReamortizacionDto> iniciar(@Valid @RequestBody SolicitudReamortizacionDto solicitud) {
+        log.info("Iniciando re-amortización: tasa {} -> {}", solicitud.getTasaAnterior(), solicitud.getTasaNueva());
+        ReamortizacionDto trabajo = reamortizacionService.iniciar(solicitud);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/reamortizaciones/" + trabajo.getId()))
+                .body(trabajo);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Consultar progreso", description = "Punto de control, contadores y cronogramas por segundo")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Progreso del trabajo",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReamortizacionDto.class))),
+        @ApiResponse(responseCode = "404", description = "Trabajo no encontrado")
+    })
+    public ResponseEntity<ReamortizacionDto> consultar(
+            @Parameter(description = "ID del trabajo") @PathVariable Long id) {
+        return reamortizacionService.consultar(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/pausar")
+    @Operation(summary = "Pausar re-amortización", description = "Se detiene al confirmar el bloque en curso")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Pausa solicitada"),
+        @ApiResponse(responseCode = "400", description = "El trabajo no está en curso"),
+        @ApiResponse(responseCode = "404", description = "Trabajo no encontrado")
+    })
+    public ResponseEntity<ReamortizacionDto> pausar(
+            @Parameter(description = "ID del trabajo") @PathVariable Long id) {
+        log.info("Pausando re-amortización {}", id);
+        return ResponseEntity.ok(reamortizacionService.pausar(id));
+    }
+
+    @PostMapping("/{id}/reanudar")
+    @Operation(summary = "Reanudar re-amortización", description = "Continúa desde el último punto de control")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Trabajo reanudado"),
+        @ApiResponse(responseCode = "400", description = "El trabajo ya está completado"),
+        @ApiResponse(responseCode = "404", description = "Trabajo no encontrado")
+    })
+    public ResponseEntity<ReamortizacionDto> reanudar(
+            @Parameter(description = "ID del trabajo") @PathVariable Long id) {
+        log.info("Reanudando re-amortización {}", id);
+        ReamortizacionDto trabajo = reamortizacionService.reanudar(id);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/reamortizaciones/" + id))
+                .body(trabajo);
+    }
+}
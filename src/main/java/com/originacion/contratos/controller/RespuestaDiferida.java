@@ -0,0 +1,27 @@
+package com.originacion.contratos.controller;
+
+import com.originacion.contratos.dto.OperacionDiferidaDto;
+import com.originacion.contratos.service.EscrituraDiferidaService;
+
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+
+// Prefer: respond-async (RFC 7240) y la respuesta 202 con la ubicación de la operación encolada,
+// comunes a los endpoints que aceptan escritura diferida.
+final class RespuestaDiferida {
+
+    private RespuestaDiferida() {
+    }
+
+    // Se pide el modo diferido y está habilitado
+    static boolean esAsincrono(String prefer, EscrituraDiferidaService escrituraDiferidaService) {
+        return prefer != null && prefer.contains("respond-async") && escrituraDiferidaService.isHabilitada();
+    }
+
+    static ResponseEntity<Object> aceptada(OperacionDiferidaDto operacion) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/operaciones/" + operacion.getId()))
+                .body(operacion);
+    }
+}
@@ -0,0 +1,50 @@
+package com.originacion.contratos.controller;
+
+import com.originacion.contratos.dto.SolicitudDocumentosDto;
+import com.originacion.contratos.service.SolicitudDocumentosService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+
+@RestController
+@RequestMapping("/api/solicitudes")
+@Tag(name = "Solicitudes", description = "Vistas agregadas de los documentos de una solicitud")
+@Slf4j
+public class SolicitudController {
+
+    private final SolicitudDocumentosService solicitudDocumentosService;
+
+    public SolicitudController(SolicitudDocumentosService solicitudDocumentosService) {
+        this.solicitudDocumentosService = solicitudDocumentosService;
+    }
+
+    @GetMapping("/{idSolicitud}/documentos")
+    @Operation(summary = "Obtener documentos de una solicitud",
+               description = "Obtiene el contrato y el cronograma de pagarés de la solicitud en una sola llamada. "
+                       + "Si se envían monto, tasa y plazo se incluye además la tabla de amortización")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Documentos encontrados",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = SolicitudDocumentosDto.class))),
+        @ApiResponse(responseCode = "404", description = "La solicitud no tiene contrato ni pagarés")
+    })
+    public ResponseEntity<SolicitudDocumentosDto> getDocumentos(
+            @Parameter(description = "ID de la solicitud") @PathVariable Long idSolicitud,
+            @Parameter(description = "Monto solicitado") @RequestParam(required = false) BigDecimal monto,
+            @Parameter(description = "Tasa anual (%)") @RequestParam(required = false) BigDecimal tasa,
+            @Parameter(description = "Plazo en meses") @RequestParam(required = false) Short plazo) {
+
+        log.info("Solicitando documentos de la solicitud: {}", idSolicitud);
+
+        return ResponseEntity.ok(solicitudDocumentosService.obtenerDocumentos(idSolicitud, monto, tasa, plazo));
+    }
+}
@@ -0,0 +1,60 @@
+package com.originacion.contratos.controller;
+
+import com.originacion.contratos.dto.SolicitudTrabajoDto;
+import com.originacion.contratos.dto.TrabajoDto;
+import com.originacion.contratos.service.ColaTrabajosService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/trabajos")
+@Tag(name = "Trabajos", description = "Cola de trabajos en segundo plano compartida por las instancias")
+@Slf4j
+public class TrabajoController {
+
+    private final ColaTrabajosService colaTrabajosService;
+
+    public TrabajoController(ColaTrabajosService colaTrabajosService) {
+        this.colaTrabajosService = colaTrabajosService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Encolar trabajo", description = "Lo ejecutará la primera instancia con capacidad libre para su tipo")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Trabajo encolado; su estado se consulta en Location",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = TrabajoDto.class))),
+        @ApiResponse(responseCode = "400", description = "Tipo desconocido o datos inválidos")
+    })
+    public ResponseEntity<TrabajoDto> encolar(@Valid @RequestBody SolicitudTrabajoDto solicitud) {
+        TrabajoDto trabajo = colaTrabajosService.encolar(solicitud);
+        log.info("Trabajo {} encolado: {}", trabajo.getId(), trabajo.getTipo());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/trabajos/" + trabajo.getId()))
+                .body(trabajo);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Consultar trabajo", description = "Estado, intentos y último error de un trabajo")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estado del trabajo",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = TrabajoDto.class))),
+        @ApiResponse(responseCode = "404", description = "Trabajo no encontrado")
+    })
+    public ResponseEntity<TrabajoDto> consultar(@Parameter(description = "ID del trabajo") @PathVariable Long id) {
+        return colaTrabajosService.consultar(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,23 @@
+package com.originacion.contratos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Lista de IDs de solicitud para consultas en lote")
+public class BusquedaLoteDto<K> {
+
+    @NotEmpty(message = "La lista de IDs de solicitud no puede estar vacía")
+    @Size(max = 1000, message = "No se pueden consultar más de 1000 solicitudes por llamada")
+    @Schema(description = "IDs de solicitud a consultar", example = "[1, 2, 3]")
+    private List<@NotNull(message = "Los IDs de solicitud no pueden ser nulos") K> idsSolicitud;
+}
@@ -18,7 +18,7 @@ public class ContratoDTO {
 
     @NotNull(message = "El ID de solicitud es requerido")
     @Min(value = 1, message = "El ID de solicitud debe ser mayor a 0")
-    @Schema(description = "Identificador de la solicitud de crédito asociada", example = "1", required = true)
+    @Schema(description = "Identificador de la solicitud de crédito asociada", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
     private Integer idSolicitud;
 
     @Size(max = 150, message = "La ruta del archivo no puede exceder 150 caracteres")
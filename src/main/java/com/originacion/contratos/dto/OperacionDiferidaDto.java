@@ -0,0 +1,38 @@
+package com.originacion.contratos.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder(toBuilder = true)
+@Schema(description = "Estado de una operación de escritura diferida")
+public class OperacionDiferidaDto {
+
+    @Schema(description = "Identificador de la operación", example = "3f1c2d9e-6b1a-4c55-9f0e-2b7d8e4a1c10")
+    private String id;
+
+    @Schema(description = "Tipo de operación", example = "ELIMINAR_CONTRATO")
+    private String tipo;
+
+    @Schema(description = "ID de la entidad afectada (contrato o pagaré)", example = "1")
+    private Long entidadId;
+
+    @Schema(description = "Estado de la operación", allowableValues = {"PENDIENTE", "COMPLETADA", "COALESCIDA", "FALLIDA"})
+    private String estado;
+
+    @Schema(description = "Operación posterior que absorbió a esta y cuyo resultado comparte (COALESCIDA, o FALLIDA si aquella falló)")
+    private String aplicadaEn;
+
+    @Schema(description = "Motivo del fallo (solo si está FALLIDA)")
+    private String error;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime fechaEncolada;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime fechaProcesada;
+}
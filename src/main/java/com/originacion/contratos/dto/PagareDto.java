@@ -14,7 +14,7 @@ public class PagareDto{
     private Integer numeroCuota;
     private String rutaArchivo;
     private LocalDateTime fechaGenerado;
-    private Boolean activo = true;
+    private Boolean activo;
     private Long version;
 
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.originacion.contratos.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@Schema(description = "Volúmenes y tiempos de firma de contratos en un periodo")
+public class PuntoSerieContratosDto {
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    @Schema(description = "Inicio del periodo (día, o primer día del mes)", example = "2024-01-01")
+    private LocalDate periodo;
+
+    @Schema(description = "Contratos generados en el periodo", example = "120")
+    private long generados;
+
+    @Schema(description = "Contratos firmados en el periodo", example = "95")
+    private long firmados;
+
+    @Schema(description = "Contratos cancelados en el periodo", example = "8")
+    private long cancelados;
+
+    @Schema(description = "Cancelados sobre generados en el periodo", example = "0.0667")
+    private Double tasaCancelacion;
+
+    @Schema(description = "Horas promedio entre generación y firma", example = "18.5")
+    private Double horasFirmaPromedio;
+
+    @Schema(description = "Percentil 50 de horas hasta la firma (límite superior del tramo)", example = "24")
+    private Long horasFirmaP50;
+
+    @Schema(description = "Percentil 90 de horas hasta la firma (límite superior del tramo)", example = "72")
+    private Long horasFirmaP90;
+
+    @Schema(description = "Percentil 99 de horas hasta la firma (límite superior del tramo; null si supera el último tramo)", example = "336")
+    private Long horasFirmaP99;
+}
@@ -0,0 +1,52 @@
+package com.originacion.contratos.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@Schema(description = "Progreso de un trabajo de re-amortización")
+public class ReamortizacionDto {
+
+    @Schema(description = "Identificador del trabajo", example = "1")
+    private Long id;
+
+    private BigDecimal tasaAnterior;
+
+    private BigDecimal tasaNueva;
+
+    @Schema(description = "Estado del trabajo", allowableValues = {"EN_CURSO", "PAUSADA", "COMPLETADA", "FALLIDA"})
+    private String estado;
+
+    @Schema(description = "Último IdSolicitud confirmado (punto de control)")
+    private Long ultimoIdSolicitud;
+
+    @Schema(description = "Cronogramas recalculados")
+    private Long procesadas;
+
+    @Schema(description = "Cronogramas cuyo contenido cambió y se reescribió")
+    private Long modificadas;
+
+    @Schema(description = "Cronogramas modificados por otra operación durante el recálculo (se releen y recalculan)")
+    private Long conflictos;
+
+    @Schema(description = "Cronogramas por segundo desde el inicio del trabajo")
+    private Double porSegundo;
+
+    @Schema(description = "Motivo del fallo (solo si está FALLIDA)")
+    private String error;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime fechaInicio;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime fechaActualizacion;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime fechaFin;
+}
@@ -0,0 +1,19 @@
+package com.originacion.contratos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Fila rechazada por la validación de una importación")
+public class RechazoImportacionDto {
+
+    @Schema(description = "Número de fila de datos (CSV, sin contar el encabezado) o de línea (NDJSON)", example = "17")
+    private Long fila;
+
+    @Schema(description = "Motivo del rechazo", example = "fechaGenerado no es una fecha válida")
+    private String motivo;
+}
@@ -0,0 +1,40 @@
+package com.originacion.contratos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@Schema(description = "Resumen de una importación masiva")
+public class ResultadoImportacionDto {
+
+    @Schema(description = "Tabla de destino", allowableValues = {"CONTRATOS", "PAGARES"})
+    private String tabla;
+
+    @Schema(description = "Formato del archivo", allowableValues = {"CSV", "NDJSON"})
+    private String formato;
+
+    @Schema(description = "Filas leídas del archivo", example = "250000")
+    private Long leidas;
+
+    @Schema(description = "Filas insertadas", example = "249100")
+    private Long insertadas;
+
+    @Schema(description = "Filas válidas no insertadas: repetidas en el archivo o ya existentes", example = "880")
+    private Long duplicadas;
+
+    @Schema(description = "Filas rechazadas por la validación", example = "20")
+    private Long rechazadas;
+
+    @Schema(description = "Primeros rechazos, por número de fila")
+    private List<RechazoImportacionDto> rechazos;
+
+    @Schema(description = "Duración total de la importación", example = "4200")
+    private Long milisegundos;
+
+    @Schema(description = "Filas leídas por segundo", example = "59523")
+    private Long filasPorSegundo;
+}
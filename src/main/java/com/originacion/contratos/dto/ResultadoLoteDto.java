@@ -0,0 +1,22 @@
+package com.originacion.contratos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado de una consulta en lote, indexado por ID de solicitud")
+public class ResultadoLoteDto<K, V> {
+
+    @Schema(description = "Resultados encontrados, en el orden de la consulta")
+    private Map<K, V> encontrados;
+
+    @Schema(description = "IDs de solicitud sin resultados")
+    private List<K> faltantes;
+}
@@ -0,0 +1,25 @@
+package com.originacion.contratos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@Schema(description = "Vista agregada de una solicitud: contrato y cronograma de pagarés")
+public class SolicitudDocumentosDto {
+
+    @Schema(description = "Identificador de la solicitud de crédito", example = "1")
+    private Long idSolicitud;
+
+    @Schema(description = "Contrato de la solicitud, null si aún no se ha generado")
+    private ContratoDTO contrato;
+
+    @Schema(description = "Pagarés de la solicitud ordenados por número de cuota")
+    private List<PagareDto> pagares;
+
+    @Schema(description = "Tabla de amortización; solo se incluye si se envían monto, tasa y plazo")
+    private List<CuotaDto> cuotas;
+}
@@ -0,0 +1,27 @@
+package com.originacion.contratos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Cambio de tasa a aplicar sobre los cronogramas vigentes")
+public class SolicitudReamortizacionDto {
+
+    @NotNull(message = "La tasa anterior no puede ser nula")
+    @Positive(message = "La tasa anterior debe ser mayor a cero")
+    @Schema(description = "Tasa anual (%) de los cronogramas a recalcular", example = "12.5")
+    private BigDecimal tasaAnterior;
+
+    @NotNull(message = "La tasa nueva no puede ser nula")
+    @Positive(message = "La tasa nueva debe ser mayor a cero")
+    @Schema(description = "Tasa anual (%) con la que se recalculan", example = "9.9")
+    private BigDecimal tasaNueva;
+}
@@ -0,0 +1,31 @@
+package com.originacion.contratos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Trabajo a encolar para ejecución en segundo plano")
+public class SolicitudTrabajoDto {
+
+    @NotBlank(message = "El tipo de trabajo no puede estar vacío")
+    @Size(max = 40, message = "El tipo de trabajo no puede exceder los 40 caracteres")
+    @Schema(description = "Tipo de trabajo", example = "GENERAR_PAGARES")
+    private String tipo;
+
+    @Schema(description = "Carga en JSON propia de cada tipo",
+            example = "{\"idSolicitud\":900360,\"monto\":25000,\"tasa\":12,\"plazo\":36}")
+    private String carga;
+
+    @Min(value = 1, message = "Debe permitirse al menos un intento")
+    @Max(value = 20, message = "No se permiten más de 20 intentos")
+    @Schema(description = "Intentos máximos antes de marcarlo FALLIDO (por defecto, el configurado)", example = "5")
+    private Integer maxIntentos;
+}
@@ -0,0 +1,42 @@
+package com.originacion.contratos.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@Schema(description = "Estado de un trabajo de la cola")
+public class TrabajoDto {
+
+    @Schema(description = "Identificador del trabajo", example = "1")
+    private Long id;
+
+    @Schema(description = "Tipo de trabajo", example = "GENERAR_PAGARES")
+    private String tipo;
+
+    @Schema(description = "Estado del trabajo", allowableValues = {"PENDIENTE", "EN_PROCESO", "COMPLETADO", "FALLIDO"})
+    private String estado;
+
+    private Integer intentos;
+
+    private Integer maxIntentos;
+
+    @Schema(description = "Instancia que lo está procesando (solo si está EN_PROCESO)")
+    private String bloqueadoPor;
+
+    @Schema(description = "Último error (reintentos o FALLIDO)")
+    private String error;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime disponibleDesde;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime fechaCreado;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime fechaActualizacion;
+}
@@ -0,0 +1,7 @@
+package com.originacion.contratos.enums;
+
+// FILAS: una fila de pagares por cuota. COMPACTO: un cronograma por solicitud en cronogramas.
+public enum AlmacenamientoPagares {
+    FILAS,
+    COMPACTO
+}
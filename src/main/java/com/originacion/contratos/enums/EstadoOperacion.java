@@ -0,0 +1,8 @@
+package com.originacion.contratos.enums;
+
+public enum EstadoOperacion {
+    PENDIENTE,
+    COMPLETADA,
+    COALESCIDA,
+    FALLIDA
+}
@@ -0,0 +1,8 @@
+package com.originacion.contratos.enums;
+
+public enum EstadoReamortizacion {
+    EN_CURSO,
+    PAUSADA,
+    COMPLETADA,
+    FALLIDA
+}
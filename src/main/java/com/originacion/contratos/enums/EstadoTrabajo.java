@@ -0,0 +1,8 @@
+package com.originacion.contratos.enums;
+
+public enum EstadoTrabajo {
+    PENDIENTE,
+    EN_PROCESO,
+    COMPLETADO,
+    FALLIDO
+}
@@ -0,0 +1,6 @@
+package com.originacion.contratos.enums;
+
+public enum GranularidadSerie {
+    DIA,
+    MES
+}
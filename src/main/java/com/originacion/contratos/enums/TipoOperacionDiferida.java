@@ -0,0 +1,17 @@
+package com.originacion.contratos.enums;
+
+public enum TipoOperacionDiferida {
+    ELIMINAR_CONTRATO("CONTRATO"),
+    ACTUALIZAR_CONDICION("CONTRATO"),
+    ELIMINAR_PAGARE("PAGARE");
+
+    private final String entidad;
+
+    TipoOperacionDiferida(String entidad) {
+        this.entidad = entidad;
+    }
+
+    public String getEntidad() {
+        return entidad;
+    }
+}
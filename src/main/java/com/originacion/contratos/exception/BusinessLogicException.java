@@ -2,6 +2,8 @@ package com.originacion.contratos.exception;
 
 public class BusinessLogicException extends RuntimeException {
 
+    private static final long serialVersionUID = 1L;
+
     private final String operation;
     private final String reason;
 
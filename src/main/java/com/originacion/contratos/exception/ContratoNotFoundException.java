@@ -2,6 +2,8 @@ package com.originacion.contratos.exception;
 
 public class ContratoNotFoundException extends RuntimeException {
 
+    private static final long serialVersionUID = 1L;
+
     private final Integer errorCode;
 
     public ContratoNotFoundException(String message) {
@@ -0,0 +1,22 @@
+package com.originacion.contratos.exception;
+
+public class DocumentoAlmacenamientoException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Integer errorCode;
+
+    public DocumentoAlmacenamientoException(String message, Throwable cause) {
+        super(message, cause);
+        this.errorCode = 1004;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Error code: " + this.errorCode + ", message: " + super.getMessage();
+    }
+
+    public Integer getErrorCode() {
+        return errorCode;
+    }
+}
@@ -2,6 +2,8 @@ package com.originacion.contratos.exception;
 
 public class NotFoundException extends RuntimeException {
 
+    private static final long serialVersionUID = 1L;
+
     private final String data;
     private final String entity;
 
@@ -2,6 +2,8 @@ package com.originacion.contratos.exception;
 
 public class PagareGenerationException extends RuntimeException {
 
+    private static final long serialVersionUID = 1L;
+
     private final Integer errorCode;
 
     public PagareGenerationException(String message) {
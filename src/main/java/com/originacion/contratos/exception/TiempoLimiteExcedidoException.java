@@ -0,0 +1,22 @@
+package com.originacion.contratos.exception;
+
+public class TiempoLimiteExcedidoException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String operation;
+
+    public TiempoLimiteExcedidoException(String operation) {
+        super();
+        this.operation = operation;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Tiempo límite de la petición excedido en la operación: " + this.operation;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+}
@@ -0,0 +1,182 @@
+package com.originacion.contratos.filter;
+
+import com.originacion.contratos.util.TokenBucket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Control de admisión para las escrituras: una cubeta de fichas por cliente y un bulkhead de concurrencia
+ * compartido por todas las escrituras, para que las ráfagas de los procesos batch no agoten el pool de
+ * conexiones de las lecturas. La cabecera X-Client-Id no está autenticada: sólo se usa como clave si
+ * es uno de los clientes configurados; si no, la clave es la IP. Así rotar el identificador no da
+ * fichas nuevas. Pasado el máximo de cubetas, los clientes nuevos comparten una sola.
+ * La sobrecarga se responde con 429 y Retry-After. Las lecturas no pasan por aquí.
+ */
+@Component
+@Slf4j
+public class LimiteEscrituraFilter extends OncePerRequestFilter {
+
+    public static final String CABECERA_CLIENTE = "X-Client-Id";
+
+    // POST de consulta: no modifican datos
+    private static final Set<String> POST_DE_LECTURA = Set.of("/api/contratos/buscar", "/api/pagares/solicitudes");
+    private static final long INACTIVIDAD_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final boolean habilitado;
+    private final double capacidad;
+    private final double fichasPorSegundo;
+    private final long esperaBulkheadMs;
+    private final Set<String> clientesConocidos;
+    private final int maxClientes;
+    private final Semaphore bulkhead;
+    private final ConcurrentMap<String, TokenBucket> cubetas = new ConcurrentHashMap<>();
+    // Para los clientes que ya no caben en el mapa
+    private final TokenBucket desbordamiento;
+
+    private final Counter permitidas;
+    private final Counter rechazadasPorCliente;
+    private final Counter rechazadasPorBulkhead;
+
+    public LimiteEscrituraFilter(MeterRegistry meterRegistry,
+                                 @Value("${limite-escritura.habilitado:true}") boolean habilitado,
+                                 @Value("${limite-escritura.capacidad:50}") double capacidad,
+                                 @Value("${limite-escritura.fichas-por-segundo:20}") double fichasPorSegundo,
+                                 @Value("${limite-escritura.concurrencia-maxima:20}") int concurrenciaMaxima,
+                                 @Value("${limite-escritura.espera-bulkhead-ms:50}") long esperaBulkheadMs,
+                                 @Value("${limite-escritura.clientes-conocidos:}") List<String> clientesConocidos,
+                                 @Value("${limite-escritura.max-clientes:10000}") int maxClientes) {
+        this.habilitado = habilitado;
+        this.capacidad = capacidad;
+        this.fichasPorSegundo = fichasPorSegundo;
+        this.esperaBulkheadMs = esperaBulkheadMs;
+        this.clientesConocidos = Set.copyOf(clientesConocidos);
+        this.maxClientes = maxClientes;
+        this.bulkhead = new Semaphore(concurrenciaMaxima, true);
+        this.desbordamiento = new TokenBucket(capacidad, fichasPorSegundo, System.nanoTime());
+
+        this.permitidas = contador(meterRegistry, "todos", "permitida");
+        this.rechazadasPorCliente = contador(meterRegistry, "token-bucket", "rechazada");
+        this.rechazadasPorBulkhead = contador(meterRegistry, "bulkhead", "rechazada");
+        Gauge.builder("contratos.limite.escritura.bulkhead.disponibles", bulkhead, Semaphore::availablePermits)
+                .description("Permisos libres del bulkhead de escrituras")
+                .register(meterRegistry);
+        Gauge.builder("contratos.limite.escritura.clientes", cubetas, ConcurrentMap::size)
+                .description("Clientes con cubeta de fichas activa")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!habilitado || !request.getRequestURI().startsWith("/api/")) {
+            return true;
+        }
+        String metodo = request.getMethod();
+        if ("GET".equals(metodo) || "HEAD".equals(metodo) || "OPTIONS".equals(metodo)) {
+            return true;
+        }
+        return "POST".equals(metodo) && POST_DE_LECTURA.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String cliente = claveLimite(request);
+        long ahora = System.nanoTime();
+        long espera = cubeta(cliente, ahora).consumir(ahora);
+        if (espera > 0) {
+            rechazadasPorCliente.increment();
+            long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + 999_999_999L));
+            log.warn("Escritura rechazada por límite de cliente {}: {} {}", cliente, request.getMethod(), request.getRequestURI());
+            rechazar(response, segundos, "Límite de escrituras excedido para el cliente " + cliente);
+            return;
+        }
+
+        boolean admitida;
+        try {
+            admitida = bulkhead.tryAcquire(esperaBulkheadMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitida = false;
+        }
+        if (!admitida) {
+            rechazadasPorBulkhead.increment();
+            log.warn("Escritura rechazada por bulkhead lleno: {} {} (cliente {})", request.getMethod(), request.getRequestURI(), cliente);
+            rechazar(response, 1, "Demasiadas escrituras concurrentes");
+            return;
+        }
+
+        permitidas.increment();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void descartarCubetasInactivas() {
+        long ahora = System.nanoTime();
+        cubetas.entrySet().removeIf(entrada -> entrada.getValue().inactivaDesde(ahora, INACTIVIDAD_NANOS));
+    }
+
+    // Identificador declarado por el cliente (o su IP); sirve para agrupar, no para limitar
+    public static String cliente(HttpServletRequest request) {
+        String cliente = request.getHeader(CABECERA_CLIENTE);
+        return cliente != null && !cliente.isBlank() ? cliente : request.getRemoteAddr();
+    }
+
+    String claveLimite(HttpServletRequest request) {
+        String cliente = request.getHeader(CABECERA_CLIENTE);
+        return cliente != null && clientesConocidos.contains(cliente) ? cliente : request.getRemoteAddr();
+    }
+
+    // El tamaño es aproximado con altas concurrentes, suficiente para acotar la memoria
+    private TokenBucket cubeta(String cliente, long ahora) {
+        TokenBucket cubeta = cubetas.get(cliente);
+        if (cubeta != null) {
+            return cubeta;
+        }
+        if (cubetas.size() >= maxClientes) {
+            return desbordamiento;
+        }
+        return cubetas.computeIfAbsent(cliente, c -> new TokenBucket(capacidad, fichasPorSegundo, ahora));
+    }
+
+    private void rechazar(HttpServletResponse response, long segundos, String mensaje) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"" + mensaje.replace("\"", "'") + "\",\"reintentarEnSegundos\":" + segundos + "}");
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String limitador, String resultado) {
+        return Counter.builder("contratos.limite.escritura")
+                .description("Escrituras evaluadas por el control de admisión")
+                .tag("limitador", limitador)
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,166 @@
+package com.originacion.contratos.filter;
+
+import com.originacion.contratos.util.TiempoLimite;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fija el tiempo límite de cada petición /api: la cabecera X-Timeout-Ms del cliente (acotada al
+ * máximo configurado) o, si no viene, el valor por defecto de la ruta en tiempo-limite.rutas.
+ * Con menos presupuesto del mínimo la petición se rechaza con 503 antes de tocar la base; si el
+ * límite vence mientras se atiende y la respuesta no salió todavía, se contesta 504.
+ * Va antes de LimiteEscrituraFilter para que la espera en el bulkhead cuente dentro del límite.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+@Slf4j
+public class TiempoLimiteFilter extends OncePerRequestFilter {
+
+    public static final String CABECERA = "X-Timeout-Ms";
+
+    private static final AntPathMatcher RUTAS = new AntPathMatcher();
+
+    private final boolean habilitado;
+    private final long porDefectoMs;
+    private final long maximoMs;
+    private final long minimoMs;
+    private final List<Ruta> rutas;
+
+    private final Counter sinPresupuesto;
+    private final Counter excedidas;
+    private final DistributionSummary asignado;
+
+    // Límite por ruta: "GET /api/contratos=5000"; 0 deja la ruta sin límite salvo que el cliente envíe uno
+    private record Ruta(String metodo, String patron, long milisegundos) {
+
+        static Ruta de(String definicion) {
+            int igual = definicion.lastIndexOf('=');
+            int espacio = definicion.indexOf(' ');
+            if (igual < 0 || espacio < 0 || espacio > igual) {
+                throw new IllegalArgumentException("Ruta de tiempo-limite.rutas mal formada: " + definicion);
+            }
+            return new Ruta(definicion.substring(0, espacio).trim().toUpperCase(),
+                    definicion.substring(espacio + 1, igual).trim(),
+                    Long.parseLong(definicion.substring(igual + 1).trim()));
+        }
+
+        boolean aplica(HttpServletRequest request) {
+            return ("*".equals(metodo) || metodo.equals(request.getMethod()))
+                    && RUTAS.match(patron, request.getRequestURI());
+        }
+    }
+
+    public TiempoLimiteFilter(MeterRegistry meterRegistry,
+                              @Value("${tiempo-limite.habilitado:true}") boolean habilitado,
+                              @Value("${tiempo-limite.por-defecto-ms:10000}") long porDefectoMs,
+                              @Value("${tiempo-limite.maximo-ms:60000}") long maximoMs,
+                              @Value("${tiempo-limite.minimo-ms:50}") long minimoMs,
+                              @Value("${tiempo-limite.rutas:}") List<String> rutas) {
+        this.habilitado = habilitado;
+        this.porDefectoMs = porDefectoMs;
+        this.maximoMs = maximoMs;
+        this.minimoMs = minimoMs;
+        this.rutas = new ArrayList<>();
+        for (String ruta : rutas) {
+            if (!ruta.isBlank()) {
+                this.rutas.add(Ruta.de(ruta.trim()));
+            }
+        }
+
+        this.sinPresupuesto = Counter.builder("contratos.tiempo.limite.rechazadas")
+                .description("Peticiones rechazadas por llegar con menos presupuesto del mínimo")
+                .register(meterRegistry);
+        this.excedidas = Counter.builder("contratos.tiempo.limite.excedidas")
+                .description("Peticiones cortadas por vencer su tiempo límite")
+                .register(meterRegistry);
+        this.asignado = DistributionSummary.builder("contratos.tiempo.limite.asignado")
+                .description("Tiempo límite asignado a cada petición")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !habilitado || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long limiteMs;
+        try {
+            limiteMs = limite(request);
+        } catch (NumberFormatException e) {
+            responder(response, HttpStatus.BAD_REQUEST, "Cabecera " + CABECERA + " inválida: " + request.getHeader(CABECERA));
+            return;
+        }
+        if (limiteMs <= 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (limiteMs < minimoMs) {
+            sinPresupuesto.increment();
+            log.warn("Petición rechazada por tiempo límite insuficiente ({} ms): {} {}", limiteMs, request.getMethod(), request.getRequestURI());
+            responder(response, HttpStatus.SERVICE_UNAVAILABLE, "Tiempo límite insuficiente para atender la petición");
+            return;
+        }
+
+        asignado.record(limiteMs);
+        TiempoLimite.establecer(limiteMs);
+        try {
+            chain.doFilter(request, response);
+        } catch (ServletException | IOException | RuntimeException e) {
+            // Cualquier fallo con el límite vencido es consecuencia del corte (timeout de sentencia,
+            // de transacción o de conexión): se informa como 504 y no como error interno
+            if (!TiempoLimite.vencido() || response.isCommitted()) {
+                throw e;
+            }
+            excedidas.increment();
+            log.warn("Tiempo límite de {} ms excedido en {} {}: {}", limiteMs, request.getMethod(), request.getRequestURI(), e.toString());
+            response.resetBuffer();
+            responder(response, HttpStatus.GATEWAY_TIMEOUT, "Tiempo límite de " + limiteMs + " ms excedido");
+        } finally {
+            TiempoLimite.limpiar();
+        }
+    }
+
+    private long limite(HttpServletRequest request) {
+        String cabecera = request.getHeader(CABECERA);
+        if (cabecera != null && !cabecera.isBlank()) {
+            // Un valor nulo o negativo del cliente es presupuesto agotado, no ausencia de límite
+            return Math.max(1, Math.min(Long.parseLong(cabecera.trim()), maximoMs));
+        }
+        for (Ruta ruta : rutas) {
+            if (ruta.aplica(request)) {
+                return ruta.milisegundos();
+            }
+        }
+        return porDefectoMs;
+    }
+
+    private void responder(HttpServletResponse response, HttpStatus estado, String mensaje) throws IOException {
+        response.setStatus(estado.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"" + mensaje.replace("\"", "'") + "\"}");
+    }
+}
@@ -8,7 +8,12 @@ import java.time.LocalDateTime;
 import com.originacion.contratos.enums.EstadoContrato;
 
 @Entity
-@Table(name = "contratos", schema = "gestion_contratos")
+@Table(name = "contratos", schema = "gestion_contratos",
+       indexes = {
+               @Index(name = "contratos_estado_id_idx", columnList = "estado, idcontrato"),
+               // Retraso de la expiración de borradores: MIN(fechagenerado) WHERE estado = 'DRAFT'
+               @Index(name = "contratos_estado_fechagenerado_idx", columnList = "estado, fechagenerado")
+       })
 @Getter
 @Setter
 public class Contrato {
@@ -0,0 +1,64 @@
+package com.originacion.contratos.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Cronograma completo de una solicitud en una sola fila (almacenamiento compacto de pagarés).
+// 'datos' guarda las cuotas por columnas comprimidas; ver CodificadorCronograma.
+@Entity
+@Table(name = "cronogramas", schema = "gestion_contratos",
+       indexes = @Index(name = "cronogramas_tasa_idx", columnList = "tasaanual, idsolicitud"))
+@Getter
+@Setter
+public class Cronograma {
+
+    @Id
+    @Column(name = "idsolicitud", nullable = false)
+    private Long idSolicitud;
+
+    @Column(name = "montosolicitado", nullable = false, precision = 14, scale = 2)
+    private BigDecimal montoSolicitado;
+
+    @Column(name = "tasaanual", nullable = false, precision = 7, scale = 4)
+    private BigDecimal tasaAnual;
+
+    @Column(name = "plazomeses", nullable = false)
+    private Short plazoMeses;
+
+    @Column(name = "fechagenerado", nullable = false)
+    private LocalDateTime fechaGenerado;
+
+    @Column(name = "datos", nullable = false)
+    private byte[] datos;
+
+    @Version
+    private Long version;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Cronograma cronograma)) return false;
+        return idSolicitud != null && idSolicitud.equals(cronograma.idSolicitud);
+    }
+
+    @Override
+    public int hashCode() {
+        return idSolicitud != null ? idSolicitud.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Cronograma{" +
+                "idSolicitud=" + idSolicitud +
+                ", montoSolicitado=" + montoSolicitado +
+                ", tasaAnual=" + tasaAnual +
+                ", plazoMeses=" + plazoMeses +
+                ", fechaGenerado=" + fechaGenerado +
+                ", bytes=" + (datos != null ? datos.length : 0) +
+                '}';
+    }
+}
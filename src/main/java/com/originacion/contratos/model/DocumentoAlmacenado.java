@@ -0,0 +1,53 @@
+package com.originacion.contratos.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Índice de metadatos del almacén de documentos: una fila por contenido distinto (hash SHA-256).
+@Entity
+@Table(name = "documentos", schema = "gestion_contratos")
+@Getter
+@Setter
+public class DocumentoAlmacenado {
+
+    @Id
+    @Column(name = "hash", nullable = false, length = 64)
+    private String hash;
+
+    @Column(name = "tamano", nullable = false)
+    private Long tamano;
+
+    @Column(name = "tipocontenido", nullable = false, length = 100)
+    private String tipoContenido;
+
+    @Column(name = "fechaalmacenado", nullable = false)
+    private LocalDateTime fechaAlmacenado;
+
+    public DocumentoAlmacenado() {
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DocumentoAlmacenado documento)) return false;
+        return hash != null && hash.equals(documento.hash);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash != null ? hash.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "DocumentoAlmacenado{" +
+                "hash='" + hash + '\'' +
+                ", tamano=" + tamano +
+                ", tipoContenido='" + tipoContenido + '\'' +
+                ", fechaAlmacenado=" + fechaAlmacenado +
+                '}';
+    }
+}
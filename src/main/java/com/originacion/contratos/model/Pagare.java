@@ -9,11 +9,14 @@ import jakarta.persistence.Id;
 //import jakarta.persistence.JoinColumn;
 //import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.persistence.Version;
 //import com.originacion.contratos.model.SolicitudCredito;
 
 @Entity
-@Table(name = "pagares")
+// La restricción única la crea db/restricciones/V1__pagares_cuota_unica.sql (deduplicando antes)
+@Table(name = "pagares",
+       uniqueConstraints = @UniqueConstraint(name = "pagares_idsolicitud_cuota_uk", columnNames = {"IdSolicitud", "NumeroCuota"}))
 public class Pagare {
 
     @Id
@@ -0,0 +1,83 @@
+package com.originacion.contratos.model;
+
+import com.originacion.contratos.enums.EstadoReamortizacion;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Trabajo de re-amortización por cambio de tasa. ultimoIdSolicitud es el punto de control:
+// al reanudar se continúa con las solicitudes posteriores.
+@Entity
+@Table(name = "reamortizaciones", schema = "gestion_contratos")
+@Getter
+@Setter
+public class Reamortizacion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "idreamortizacion", nullable = false)
+    private Long id;
+
+    @Column(name = "tasaanterior", nullable = false, precision = 7, scale = 4)
+    private BigDecimal tasaAnterior;
+
+    @Column(name = "tasanueva", nullable = false, precision = 7, scale = 4)
+    private BigDecimal tasaNueva;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false, length = 20)
+    private EstadoReamortizacion estado;
+
+    @Column(name = "ultimoidsolicitud", nullable = false)
+    private Long ultimoIdSolicitud;
+
+    @Column(name = "procesadas", nullable = false)
+    private Long procesadas;
+
+    @Column(name = "modificadas", nullable = false)
+    private Long modificadas;
+
+    @Column(name = "conflictos", nullable = false)
+    private Long conflictos;
+
+    @Column(name = "error", length = 500)
+    private String error;
+
+    @Column(name = "fechainicio", nullable = false)
+    private LocalDateTime fechaInicio;
+
+    @Column(name = "fechaactualizacion", nullable = false)
+    private LocalDateTime fechaActualizacion;
+
+    @Column(name = "fechafin")
+    private LocalDateTime fechaFin;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Reamortizacion that)) return false;
+        return id != null && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Reamortizacion{" +
+                "id=" + id +
+                ", tasaAnterior=" + tasaAnterior +
+                ", tasaNueva=" + tasaNueva +
+                ", estado=" + estado +
+                ", ultimoIdSolicitud=" + ultimoIdSolicitud +
+                ", procesadas=" + procesadas +
+                ", modificadas=" + modificadas +
+                '}';
+    }
+}
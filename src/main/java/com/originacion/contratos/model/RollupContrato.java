@@ -0,0 +1,85 @@
+package com.originacion.contratos.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Contador diario por métrica (generados, firmados, cancelados, histograma de tiempo de firma).
+// Se incrementa en la misma transacción que cada cambio de estado del contrato. Cada contador se reparte
+// en FRANJAS filas para que las altas concurrentes no esperen todas al bloqueo de la misma fila; el
+// valor de (fecha, metrica) es la suma de sus franjas.
+@Entity
+@Table(name = "rollups_contratos", schema = "gestion_contratos")
+@IdClass(RollupContrato.Clave.class)
+@Getter
+@Setter
+public class RollupContrato {
+
+    // Cambiarlo no requiere migrar datos: las lecturas suman las franjas que haya
+    public static final int FRANJAS = 16;
+
+    @Id
+    @Column(name = "fecha", nullable = false)
+    private LocalDate fecha;
+
+    @Id
+    @Column(name = "metrica", nullable = false, length = 30)
+    private String metrica;
+
+    @Id
+    @Column(name = "franja", nullable = false)
+    private Short franja;
+
+    @Column(name = "cantidad", nullable = false)
+    private Long cantidad;
+
+    public RollupContrato() {
+    }
+
+    @Getter
+    @Setter
+    public static class Clave implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private LocalDate fecha;
+        private String metrica;
+        private Short franja;
+
+        public Clave() {
+        }
+
+        public Clave(LocalDate fecha, String metrica, Short franja) {
+            this.fecha = fecha;
+            this.metrica = metrica;
+            this.franja = franja;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Clave clave)) return false;
+            return Objects.equals(fecha, clave.fecha) && Objects.equals(metrica, clave.metrica)
+                    && Objects.equals(franja, clave.franja);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fecha, metrica, franja);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RollupContrato{" +
+                "fecha=" + fecha +
+                ", metrica='" + metrica + '\'' +
+                ", franja=" + franja +
+                ", cantidad=" + cantidad +
+                '}';
+    }
+}
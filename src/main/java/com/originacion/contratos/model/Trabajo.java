@@ -0,0 +1,79 @@
+package com.originacion.contratos.model;
+
+import com.originacion.contratos.enums.EstadoTrabajo;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Trabajo en segundo plano de la cola compartida por todas las instancias. Un trabajo EN_PROCESO
+// cuyo disponibleDesde ya pasó se considera abandonado (venció la visibilidad) y puede reclamarse.
+@Entity
+@Table(name = "trabajos", schema = "gestion_contratos",
+       indexes = @Index(name = "trabajos_reclamo_idx", columnList = "tipo, estado, disponibledesde"))
+@Getter
+@Setter
+public class Trabajo {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "idtrabajo", nullable = false)
+    private Long id;
+
+    @Column(name = "tipo", nullable = false, length = 40)
+    private String tipo;
+
+    @Column(name = "carga", columnDefinition = "text")
+    private String carga;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false, length = 20)
+    private EstadoTrabajo estado;
+
+    @Column(name = "intentos", nullable = false)
+    private Integer intentos;
+
+    @Column(name = "maxintentos", nullable = false)
+    private Integer maxIntentos;
+
+    @Column(name = "disponibledesde", nullable = false)
+    private LocalDateTime disponibleDesde;
+
+    @Column(name = "bloqueadopor", length = 100)
+    private String bloqueadoPor;
+
+    @Column(name = "error", length = 500)
+    private String error;
+
+    @Column(name = "fechacreado", nullable = false)
+    private LocalDateTime fechaCreado;
+
+    @Column(name = "fechaactualizacion", nullable = false)
+    private LocalDateTime fechaActualizacion;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Trabajo trabajo)) return false;
+        return id != null && id.equals(trabajo.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Trabajo{" +
+                "id=" + id +
+                ", tipo='" + tipo + '\'' +
+                ", estado=" + estado +
+                ", intentos=" + intentos +
+                ", disponibleDesde=" + disponibleDesde +
+                ", bloqueadoPor='" + bloqueadoPor + '\'' +
+                '}';
+    }
+}
@@ -6,8 +6,11 @@ import com.originacion.contratos.model.Contrato;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,4 +28,43 @@ public interface ContratoRepository extends JpaRepository<Contrato, Integer> {
     Boolean existsByIdSolicitud(Integer idSolicitud);
 
     Long countByEstado(EstadoContrato estado);
-} 
\ No newline at end of file
+
+    // Alta atómica: una sola sentencia; vacío si ya existía un contrato para la solicitud
+    @Query(value = "INSERT INTO gestion_contratos.contratos "
+            + "(idsolicitud, rutaarchivo, fechagenerado, estado, condicionespecial, version) "
+            + "VALUES (:idSolicitud, :rutaArchivo, :fechaGenerado, :estado, :condicionEspecial, 1) "
+            + "ON CONFLICT (idsolicitud) DO NOTHING RETURNING *",
+            nativeQuery = true)
+    Optional<Contrato> insertarSiNoExiste(@Param("idSolicitud") Integer idSolicitud,
+                                          @Param("rutaArchivo") String rutaArchivo,
+                                          @Param("fechaGenerado") LocalDateTime fechaGenerado,
+                                          @Param("estado") String estado,
+                                          @Param("condicionEspecial") String condicionEspecial);
+
+    // Cancela en una sola sentencia el siguiente bloque de DRAFT vencidos (por clave idcontrato > desde)
+    // y devuelve los cancelados. SKIP LOCKED: no espera a los que otra transacción está modificando.
+    @Query(value = "WITH lote AS ("
+            + "  SELECT idcontrato FROM gestion_contratos.contratos "
+            + "   WHERE estado = 'DRAFT' AND fechagenerado < :limite AND idcontrato > :desde "
+            + "   ORDER BY idcontrato LIMIT :tamano FOR UPDATE SKIP LOCKED) "
+            + "UPDATE gestion_contratos.contratos c "
+            + "   SET estado = 'CANCELADO', condicionespecial = :motivo, version = c.version + 1 "
+            + "  FROM lote WHERE c.idcontrato = lote.idcontrato "
+            + "RETURNING c.idcontrato AS \"idContrato\", c.idsolicitud AS \"idSolicitud\", c.version AS \"version\"",
+            nativeQuery = true)
+    List<ContratoCancelado> cancelarBorradoresVencidos(@Param("limite") LocalDateTime limite,
+                                                       @Param("desde") Integer desde,
+                                                       @Param("tamano") int tamano,
+                                                       @Param("motivo") String motivo);
+
+    @Query("SELECT MIN(c.fechaGenerado) FROM Contrato c WHERE c.estado = :estado")
+    Optional<LocalDateTime> findFechaGeneradoMasAntigua(@Param("estado") EstadoContrato estado);
+
+    interface ContratoCancelado {
+        Integer getIdContrato();
+
+        Integer getIdSolicitud();
+
+        Long getVersion();
+    }
+}
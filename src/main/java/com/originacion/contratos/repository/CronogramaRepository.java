@@ -0,0 +1,42 @@
+package com.originacion.contratos.repository;
+
+import com.originacion.contratos.model.Cronograma;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CronogramaRepository extends JpaRepository<Cronograma, Long> {
+
+    List<Cronograma> findByIdSolicitudIn(Collection<Long> idSolicitudes);
+
+    long deleteByIdSolicitud(Long idSolicitud);
+
+    // Advisory lock por solicitud hasta el fin de la transacción: serializa las altas en pagares y en
+    // cronogramas, que no comparten restricción única. La clave fija del barrido de borradores
+    // (ExpiracionBorradoresService) queda muy por encima de cualquier IdSolicitud
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:idSolicitud)", nativeQuery = true)
+    int bloquearSolicitud(@Param("idSolicitud") Long idSolicitud);
+
+    // Alta atómica como en pagares: 0 si la solicitud ya tenía cronograma
+    @Modifying
+    @Query(value = "INSERT INTO gestion_contratos.cronogramas "
+            + "(idsolicitud, montosolicitado, tasaanual, plazomeses, fechagenerado, datos, version) "
+            + "VALUES (:idSolicitud, :monto, :tasa, :plazo, :fechaGenerado, :datos, 0) "
+            + "ON CONFLICT (idsolicitud) DO NOTHING",
+            nativeQuery = true)
+    int insertarSiNoExiste(@Param("idSolicitud") Long idSolicitud,
+                           @Param("monto") BigDecimal monto,
+                           @Param("tasa") BigDecimal tasa,
+                           @Param("plazo") Short plazo,
+                           @Param("fechaGenerado") LocalDateTime fechaGenerado,
+                           @Param("datos") byte[] datos);
+}
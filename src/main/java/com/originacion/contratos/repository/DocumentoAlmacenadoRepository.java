@@ -0,0 +1,26 @@
+package com.originacion.contratos.repository;
+
+import com.originacion.contratos.model.DocumentoAlmacenado;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface DocumentoAlmacenadoRepository extends JpaRepository<DocumentoAlmacenado, String> {
+
+    // Alta atómica: dos subidas concurrentes del mismo contenido no chocan por la clave primaria
+    @Modifying
+    @Query(value = "INSERT INTO gestion_contratos.documentos (hash, tamano, tipocontenido, fechaalmacenado) "
+            + "VALUES (:hash, :tamano, :tipoContenido, :fechaAlmacenado) "
+            + "ON CONFLICT (hash) DO NOTHING",
+            nativeQuery = true)
+    int insertarSiNoExiste(@Param("hash") String hash,
+                           @Param("tamano") Long tamano,
+                           @Param("tipoContenido") String tipoContenido,
+                           @Param("fechaAlmacenado") LocalDateTime fechaAlmacenado);
+}
@@ -1,9 +1,13 @@
 package com.originacion.contratos.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.originacion.contratos.model.Pagare;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,9 +17,23 @@ public interface PagareRepository extends JpaRepository<Pagare, Long> {
     
     List<Pagare> findByIdSolicitudOrderByNumeroCuota(Long idSolicitud);
 
+    List<Pagare> findByIdSolicitudInOrderByIdSolicitudAscNumeroCuotaAsc(Collection<Long> idSolicitudes);
+
     Optional<Pagare> findByIdSolicitudAndNumeroCuota(Long idSolicitud, Integer numeroCuota);
             
     boolean existsByIdSolicitud(Long idSolicitud);
         
-    void deleteByIdSolicitud(Long idSolicitud);
+    long deleteByIdSolicitud(Long idSolicitud);
+
+    // Inserta todas las cuotas en una sentencia; devuelve sólo las filas nuevas (las existentes se omiten)
+    @Query(value = "INSERT INTO gestion_contratos.pagares "
+            + "(idsolicitud, numerocuota, rutaarchivo, fechagenerado, activo, version) "
+            + "SELECT :idSolicitud, c.numero, c.ruta, :fechaGenerado, true, 0 "
+            + "FROM unnest(CAST(:numerosCuota AS integer[]), CAST(:rutasArchivo AS varchar[])) AS c(numero, ruta) "
+            + "ON CONFLICT (idsolicitud, numerocuota) DO NOTHING RETURNING *",
+            nativeQuery = true)
+    List<Pagare> insertarCuotasSiNoExisten(@Param("idSolicitud") Long idSolicitud,
+                                           @Param("numerosCuota") Integer[] numerosCuota,
+                                           @Param("rutasArchivo") String[] rutasArchivo,
+                                           @Param("fechaGenerado") LocalDateTime fechaGenerado);
 } 
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.originacion.contratos.repository;
+
+import com.originacion.contratos.enums.EstadoReamortizacion;
+import com.originacion.contratos.model.Reamortizacion;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReamortizacionRepository extends JpaRepository<Reamortizacion, Long> {
+
+    List<Reamortizacion> findByEstado(EstadoReamortizacion estado);
+}
@@ -0,0 +1,27 @@
+package com.originacion.contratos.repository;
+
+import com.originacion.contratos.model.RollupContrato;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RollupContratoRepository extends JpaRepository<RollupContrato, RollupContrato.Clave> {
+
+    // Incremento atómico de una franja: una sola sentencia, sin leer la fila previamente
+    @Modifying
+    @Query(value = "INSERT INTO gestion_contratos.rollups_contratos (fecha, metrica, franja, cantidad) "
+            + "VALUES (:fecha, :metrica, :franja, :cantidad) "
+            + "ON CONFLICT (fecha, metrica, franja) DO UPDATE SET cantidad = rollups_contratos.cantidad + EXCLUDED.cantidad",
+            nativeQuery = true)
+    void incrementar(@Param("fecha") LocalDate fecha, @Param("metrica") String metrica, @Param("franja") short franja,
+                     @Param("cantidad") long cantidad);
+
+    List<RollupContrato> findByFechaBetweenOrderByFecha(LocalDate desde, LocalDate hasta);
+}
@@ -0,0 +1,10 @@
+package com.originacion.contratos.repository;
+
+import com.originacion.contratos.model.Trabajo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TrabajoRepository extends JpaRepository<Trabajo, Long> {
+}
@@ -0,0 +1,44 @@
+package com.originacion.contratos.serializacion;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.originacion.contratos.dto.ContratoDTO;
+import com.originacion.contratos.enums.EstadoContrato;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+
+// Mismo JSON que produce Jackson para ContratoDTO (incluido el @JsonFormat de las fechas).
+// En modo compacto el estado se escribe como ordinal de EstadoContrato.
+public class ContratoDtoSerializer extends SerializadorBase<ContratoDTO> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    public ContratoDtoSerializer() {
+        this(false);
+    }
+
+    public ContratoDtoSerializer(boolean compacto) {
+        super(ContratoDTO.class, compacto);
+    }
+
+    @Override
+    public void serialize(ContratoDTO dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(dto, 8);
+        entero(gen, "idContrato", dto.getIdContrato());
+        entero(gen, "idSolicitud", dto.getIdSolicitud());
+        gen.writeStringField("rutaArchivo", dto.getRutaArchivo());
+        fechaHora(gen, "fechaGenerado", dto.getFechaGenerado(), FORMATO_FECHA);
+        fechaHora(gen, "fechaFirma", dto.getFechaFirma(), FORMATO_FECHA);
+        if (compacto && dto.getEstado() != null) {
+            gen.writeNumberField("estado", EstadoContrato.valueOf(dto.getEstado()).ordinal());
+        } else {
+            gen.writeStringField("estado", dto.getEstado());
+        }
+        gen.writeStringField("condicionEspecial", dto.getCondicionEspecial());
+        largo(gen, "version", dto.getVersion());
+        gen.writeEndObject();
+    }
+}
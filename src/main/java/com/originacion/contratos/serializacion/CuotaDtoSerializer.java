@@ -0,0 +1,32 @@
+package com.originacion.contratos.serializacion;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.originacion.contratos.dto.CuotaDto;
+
+import java.io.IOException;
+
+// Mismo JSON que produce Jackson para CuotaDto
+public class CuotaDtoSerializer extends SerializadorBase<CuotaDto> {
+
+    private static final long serialVersionUID = 1L;
+
+    public CuotaDtoSerializer() {
+        this(false);
+    }
+
+    public CuotaDtoSerializer(boolean compacto) {
+        super(CuotaDto.class, compacto);
+    }
+
+    @Override
+    public void serialize(CuotaDto dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(dto, 5);
+        entero(gen, "numeroCuota", dto.getNumeroCuota());
+        decimal(gen, "monto", dto.getMonto());
+        decimal(gen, "interes", dto.getInteres());
+        decimal(gen, "saldoPendiente", dto.getSaldoPendiente());
+        fecha(gen, "fechaVencimiento", dto.getFechaVencimiento());
+        gen.writeEndObject();
+    }
+}
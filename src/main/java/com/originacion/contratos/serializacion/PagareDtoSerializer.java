@@ -0,0 +1,35 @@
+package com.originacion.contratos.serializacion;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.originacion.contratos.dto.PagareDto;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+
+// Mismo JSON que produce Jackson para PagareDto (fechas ISO-8601 por defecto)
+public class PagareDtoSerializer extends SerializadorBase<PagareDto> {
+
+    private static final long serialVersionUID = 1L;
+
+    public PagareDtoSerializer() {
+        this(false);
+    }
+
+    public PagareDtoSerializer(boolean compacto) {
+        super(PagareDto.class, compacto);
+    }
+
+    @Override
+    public void serialize(PagareDto dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(dto, 7);
+        largo(gen, "id", dto.getId());
+        largo(gen, "idSolicitud", dto.getIdSolicitud());
+        entero(gen, "numeroCuota", dto.getNumeroCuota());
+        gen.writeStringField("rutaArchivo", dto.getRutaArchivo());
+        fechaHora(gen, "fechaGenerado", dto.getFechaGenerado(), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        booleano(gen, "activo", dto.getActivo());
+        largo(gen, "version", dto.getVersion());
+        gen.writeEndObject();
+    }
+}
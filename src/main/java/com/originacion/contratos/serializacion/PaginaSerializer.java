@@ -0,0 +1,90 @@
+package com.originacion.contratos.serializacion;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+
+// Mismo JSON que produce Jackson para PageImpl (propiedades, orden y objetos pageable/sort), sin
+// introspección de PageImpl, PageRequest ni Sort. El contenido se escribe con el serializador de cada
+// elemento (ContratoDtoSerializer en el listado de contratos). Un Pageable sin paginar se delega en
+// Jackson para conservar su comportamiento.
+public class PaginaSerializer extends SerializadorBase<PageImpl<?>> {
+
+    private static final long serialVersionUID = 1L;
+
+    public PaginaSerializer() {
+        super(tipo(), false);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Class<PageImpl<?>> tipo() {
+        return (Class) PageImpl.class;
+    }
+
+    @Override
+    public void serialize(PageImpl<?> pagina, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(pagina, 11);
+        contenido(pagina, gen, provider);
+
+        Pageable pageable = pagina.getPageable();
+        if (pageable.isPaged()) {
+            gen.writeFieldName("pageable");
+            gen.writeStartObject(pageable, 6);
+            gen.writeNumberField("pageNumber", pageable.getPageNumber());
+            gen.writeNumberField("pageSize", pageable.getPageSize());
+            orden(gen, pageable.getSort());
+            gen.writeNumberField("offset", pageable.getOffset());
+            gen.writeBooleanField("paged", true);
+            gen.writeBooleanField("unpaged", false);
+            gen.writeEndObject();
+        } else {
+            provider.defaultSerializeField("pageable", pageable, gen);
+        }
+
+        gen.writeNumberField("totalPages", pagina.getTotalPages());
+        gen.writeNumberField("totalElements", pagina.getTotalElements());
+        gen.writeBooleanField("last", pagina.isLast());
+        gen.writeNumberField("size", pagina.getSize());
+        gen.writeNumberField("number", pagina.getNumber());
+        orden(gen, pagina.getSort());
+        gen.writeBooleanField("first", pagina.isFirst());
+        gen.writeNumberField("numberOfElements", pagina.getNumberOfElements());
+        gen.writeBooleanField("empty", pagina.isEmpty());
+        gen.writeEndObject();
+    }
+
+    // El serializador se busca una vez por clase de elemento, no por elemento
+    private static void contenido(PageImpl<?> pagina, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeFieldName("content");
+        gen.writeStartArray(pagina.getContent(), pagina.getNumberOfElements());
+        Class<?> clase = null;
+        JsonSerializer<Object> serializador = null;
+        for (Object elemento : pagina.getContent()) {
+            if (elemento == null) {
+                provider.defaultSerializeNull(gen);
+                continue;
+            }
+            if (elemento.getClass() != clase) {
+                clase = elemento.getClass();
+                serializador = provider.findTypedValueSerializer(clase, true, null);
+            }
+            serializador.serialize(elemento, gen, provider);
+        }
+        gen.writeEndArray();
+    }
+
+    private static void orden(JsonGenerator gen, Sort sort) throws IOException {
+        gen.writeFieldName("sort");
+        gen.writeStartObject(sort, 3);
+        gen.writeBooleanField("empty", sort.isEmpty());
+        gen.writeBooleanField("sorted", sort.isSorted());
+        gen.writeBooleanField("unsorted", sort.isUnsorted());
+        gen.writeEndObject();
+    }
+}
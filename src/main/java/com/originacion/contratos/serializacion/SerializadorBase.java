@@ -0,0 +1,78 @@
+package com.originacion.contratos.serializacion;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+// Escritura directa con JsonGenerator, sin introspección ni reflexión por propiedad.
+// Los nulos se escriben igual que con la serialización por defecto de Jackson.
+// En modo compacto (formato binario) las fechas van como valores epoch y los enums como ordinales.
+abstract class SerializadorBase<T> extends StdSerializer<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    protected final boolean compacto;
+
+    protected SerializadorBase(Class<T> tipo, boolean compacto) {
+        super(tipo);
+        this.compacto = compacto;
+    }
+
+    protected static void entero(JsonGenerator gen, String campo, Integer valor) throws IOException {
+        if (valor == null) {
+            gen.writeNullField(campo);
+        } else {
+            gen.writeNumberField(campo, valor.intValue());
+        }
+    }
+
+    protected static void largo(JsonGenerator gen, String campo, Long valor) throws IOException {
+        if (valor == null) {
+            gen.writeNullField(campo);
+        } else {
+            gen.writeNumberField(campo, valor.longValue());
+        }
+    }
+
+    protected static void decimal(JsonGenerator gen, String campo, BigDecimal valor) throws IOException {
+        gen.writeFieldName(campo);
+        gen.writeNumber(valor);
+    }
+
+    protected static void booleano(JsonGenerator gen, String campo, Boolean valor) throws IOException {
+        if (valor == null) {
+            gen.writeNullField(campo);
+        } else {
+            gen.writeBooleanField(campo, valor);
+        }
+    }
+
+    // Compacto: milisegundos epoch tomando la fecha-hora local como UTC
+    protected void fechaHora(JsonGenerator gen, String campo, LocalDateTime valor,
+                             DateTimeFormatter formato) throws IOException {
+        if (valor == null) {
+            gen.writeNullField(campo);
+        } else if (compacto) {
+            gen.writeNumberField(campo, valor.toInstant(ZoneOffset.UTC).toEpochMilli());
+        } else {
+            gen.writeStringField(campo, formato.format(valor));
+        }
+    }
+
+    // Compacto: días desde 1970-01-01. En JSON, toString ya es ISO-8601 y evita el formateador genérico
+    protected void fecha(JsonGenerator gen, String campo, LocalDate valor) throws IOException {
+        if (valor == null) {
+            gen.writeNullField(campo);
+        } else if (compacto) {
+            gen.writeNumberField(campo, valor.toEpochDay());
+        } else {
+            gen.writeStringField(campo, valor.toString());
+        }
+    }
+}
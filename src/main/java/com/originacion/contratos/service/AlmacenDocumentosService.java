@@ -0,0 +1,155 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.exception.DocumentoAdjuntoNotFoundException;
+import com.originacion.contratos.exception.DocumentoAlmacenamientoException;
+import com.originacion.contratos.model.DocumentoAlmacenado;
+import com.originacion.contratos.repository.DocumentoAlmacenadoRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Almacén local de documentos direccionado por contenido. Cada archivo se guarda una sola vez
+ * bajo su hash SHA-256, en directorios fragmentados por los primeros bytes del hash
+ * (ab/cd/abcd...). Las entidades referencian el contenido con rutaArchivo = "sha256:&lt;hash&gt;".
+ * La subida no es transaccional: el contenido se copia a disco sin ocupar una conexión del pool
+ * y sólo el alta en el índice corre en una transacción corta.
+ */
+@Service
+@Slf4j
+public class AlmacenDocumentosService {
+
+    public static final String PREFIJO_RUTA = "sha256:";
+
+    private final DocumentoAlmacenadoRepository documentoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directorioBase;
+    private final Path directorioTemporal;
+
+    public AlmacenDocumentosService(DocumentoAlmacenadoRepository documentoRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${almacen-documentos.directorio:./data/documentos}") Path directorioBase) {
+        this.documentoRepository = documentoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.directorioBase = directorioBase;
+        this.directorioTemporal = directorioBase.resolve("tmp");
+        try {
+            Files.createDirectories(directorioTemporal);
+        } catch (IOException e) {
+            throw new DocumentoAlmacenamientoException("No se pudo crear el almacén de documentos en " + directorioBase, e);
+        }
+    }
+
+    // Guarda el contenido en streaming calculando su hash; si ya existía, no se duplica
+    public DocumentoAlmacenado almacenar(InputStream contenido, String tipoContenido) {
+        Path temporal = null;
+        try {
+            temporal = Files.createTempFile(directorioTemporal, "subida-", ".tmp");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long tamano;
+            try (DigestInputStream entrada = new DigestInputStream(contenido, digest)) {
+                tamano = Files.copy(entrada, temporal, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+
+            Path destino = ruta(hash);
+            if (Files.exists(destino)) {
+                Files.delete(temporal);
+            } else {
+                Files.createDirectories(destino.getParent());
+                try {
+                    Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Otra subida concurrente del mismo contenido llegó primero
+                    Files.delete(temporal);
+                }
+            }
+            temporal = null;
+
+            // Si otra subida del mismo contenido ya lo indexó, se conserva su fila
+            DocumentoAlmacenado documento = transactionTemplate.execute(status -> {
+                documentoRepository.insertarSiNoExiste(hash, tamano, tipoContenido, LocalDateTime.now());
+                return documentoRepository.findById(hash)
+                        .orElseThrow(() -> new DocumentoAlmacenamientoException("No se pudo indexar el documento " + hash, null));
+            });
+            log.info("Documento almacenado: {} ({} bytes)", hash, tamano);
+            return documento;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new DocumentoAlmacenamientoException("No se pudo almacenar el documento", e);
+        } finally {
+            if (temporal != null) {
+                try {
+                    Files.deleteIfExists(temporal);
+                } catch (IOException e) {
+                    log.warn("No se pudo eliminar el archivo temporal {}", temporal);
+                }
+            }
+        }
+    }
+
+    // Resuelve el documento referenciado por una rutaArchivo; vacío si la ruta no es del almacén
+    @Transactional(readOnly = true)
+    public Optional<DocumentoAlmacenado> buscarPorRuta(String rutaArchivo) {
+        if (rutaArchivo == null || !rutaArchivo.startsWith(PREFIJO_RUTA)) {
+            return Optional.empty();
+        }
+        return documentoRepository.findById(rutaArchivo.substring(PREFIJO_RUTA.length()));
+    }
+
+    // Resuelve varias rutas con una sola consulta; la clave del mapa es la rutaArchivo
+    @Transactional(readOnly = true)
+    public Map<String, DocumentoAlmacenado> buscarPorRutas(Collection<String> rutasArchivo) {
+        List<String> hashes = rutasArchivo.stream()
+                .filter(ruta -> ruta != null && ruta.startsWith(PREFIJO_RUTA))
+                .map(ruta -> ruta.substring(PREFIJO_RUTA.length()))
+                .distinct()
+                .toList();
+        Map<String, DocumentoAlmacenado> documentos = new HashMap<>();
+        for (DocumentoAlmacenado documento : documentoRepository.findAllById(hashes)) {
+            documentos.put(rutaArchivo(documento), documento);
+        }
+        return documentos;
+    }
+
+    // Archivo físico del documento; falla si el índice lo tiene pero el archivo no está en disco
+    public Path archivo(DocumentoAlmacenado documento) {
+        Path ruta = ruta(documento.getHash());
+        if (!Files.isReadable(ruta)) {
+            throw new DocumentoAdjuntoNotFoundException("Contenido no disponible en el almacén: " + documento.getHash());
+        }
+        return ruta;
+    }
+
+    // Ubicación física del documento, sin verificar que exista
+    public Path ruta(DocumentoAlmacenado documento) {
+        return ruta(documento.getHash());
+    }
+
+    public static String rutaArchivo(DocumentoAlmacenado documento) {
+        return PREFIJO_RUTA + documento.getHash();
+    }
+
+    private Path ruta(String hash) {
+        return directorioBase.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+}
@@ -0,0 +1,159 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.dto.CuotaDto;
+import com.originacion.contratos.exception.PagareGenerationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Formato binario de un cronograma compacto, por columnas y comprimido con deflate:
+ * versión, número de cuotas, columnas monto / interés / saldo (centavos, delta + zigzag + varint),
+ * vencimientos (día epoch, delta), bitmap de cuotas activas y las rutas de archivo que no son la
+ * ruta por defecto. Las columnas numéricas cambian poco de una cuota a otra, así que los deltas
+ * ocupan uno o dos bytes antes de comprimir.
+ */
+final class CodificadorCronograma {
+
+    private static final int FORMATO = 1;
+
+    // Cuotas con montos, cuotas inactivas y rutas asignadas explícitamente (por número de cuota)
+    record Contenido(List<CuotaDto> cuotas, BitSet inactivas, Map<Integer, String> rutas) {
+    }
+
+    private CodificadorCronograma() {
+    }
+
+    static byte[] codificar(Contenido contenido) {
+        List<CuotaDto> cuotas = contenido.cuotas();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + cuotas.size() * 4);
+        try (DataOutputStream salida = new DataOutputStream(
+                new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_COMPRESSION)))) {
+            salida.writeByte(FORMATO);
+            escribirVarLong(salida, cuotas.size());
+
+            long anterior = 0;
+            for (CuotaDto cuota : cuotas) {
+                anterior = escribirDelta(salida, centavos(cuota.getMonto()), anterior);
+            }
+            anterior = 0;
+            for (CuotaDto cuota : cuotas) {
+                anterior = escribirDelta(salida, centavos(cuota.getInteres()), anterior);
+            }
+            anterior = 0;
+            for (CuotaDto cuota : cuotas) {
+                anterior = escribirDelta(salida, centavos(cuota.getSaldoPendiente()), anterior);
+            }
+            anterior = 0;
+            for (CuotaDto cuota : cuotas) {
+                anterior = escribirDelta(salida, cuota.getFechaVencimiento().toEpochDay(), anterior);
+            }
+
+            byte[] inactivas = contenido.inactivas().toByteArray();
+            escribirVarLong(salida, inactivas.length);
+            salida.write(inactivas);
+
+            escribirVarLong(salida, contenido.rutas().size());
+            for (Map.Entry<Integer, String> ruta : contenido.rutas().entrySet()) {
+                escribirVarLong(salida, ruta.getKey());
+                salida.writeUTF(ruta.getValue());
+            }
+        } catch (IOException e) {
+            throw new PagareGenerationException("Error al codificar el cronograma");
+        }
+        return bytes.toByteArray();
+    }
+
+    static Contenido decodificar(byte[] datos) {
+        try (DataInputStream entrada = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(datos)))) {
+            int formato = entrada.readUnsignedByte();
+            if (formato != FORMATO) {
+                throw new PagareGenerationException("Formato de cronograma desconocido: " + formato);
+            }
+            int n = (int) leerVarLong(entrada);
+            long[] montos = leerColumna(entrada, n);
+            long[] intereses = leerColumna(entrada, n);
+            long[] saldos = leerColumna(entrada, n);
+            long[] vencimientos = leerColumna(entrada, n);
+
+            byte[] inactivas = new byte[(int) leerVarLong(entrada)];
+            entrada.readFully(inactivas);
+
+            int cantidadRutas = (int) leerVarLong(entrada);
+            Map<Integer, String> rutas = new TreeMap<>();
+            for (int i = 0; i < cantidadRutas; i++) {
+                int numero = (int) leerVarLong(entrada);
+                rutas.put(numero, entrada.readUTF());
+            }
+
+            List<CuotaDto> cuotas = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                cuotas.add(CuotaDto.builder()
+                        .numeroCuota(i + 1)
+                        .monto(BigDecimal.valueOf(montos[i], 2))
+                        .interes(BigDecimal.valueOf(intereses[i], 2))
+                        .saldoPendiente(BigDecimal.valueOf(saldos[i], 2))
+                        .fechaVencimiento(LocalDate.ofEpochDay(vencimientos[i]))
+                        .build());
+            }
+            return new Contenido(cuotas, BitSet.valueOf(inactivas), rutas);
+        } catch (IOException e) {
+            throw new PagareGenerationException("Error al decodificar el cronograma");
+        }
+    }
+
+    private static long centavos(BigDecimal valor) {
+        return valor.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static long escribirDelta(DataOutputStream salida, long valor, long anterior) throws IOException {
+        long delta = valor - anterior;
+        escribirVarLong(salida, (delta << 1) ^ (delta >> 63));
+        return valor;
+    }
+
+    private static long[] leerColumna(DataInputStream entrada, int n) throws IOException {
+        long[] valores = new long[n];
+        long anterior = 0;
+        for (int i = 0; i < n; i++) {
+            long zigzag = leerVarLong(entrada);
+            anterior += (zigzag >>> 1) ^ -(zigzag & 1);
+            valores[i] = anterior;
+        }
+        return valores;
+    }
+
+    private static void escribirVarLong(DataOutputStream salida, long valor) throws IOException {
+        while ((valor & ~0x7FL) != 0) {
+            salida.writeByte((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        salida.writeByte((int) valor);
+    }
+
+    private static long leerVarLong(DataInputStream entrada) throws IOException {
+        long valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+            int b = entrada.readUnsignedByte();
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("varint demasiado largo");
+    }
+}
@@ -0,0 +1,278 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.dto.SolicitudTrabajoDto;
+import com.originacion.contratos.dto.TrabajoDto;
+import com.originacion.contratos.enums.EstadoTrabajo;
+import com.originacion.contratos.exception.BusinessLogicException;
+import com.originacion.contratos.model.Trabajo;
+import com.originacion.contratos.repository.TrabajoRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Cola de trabajos en segundo plano sobre la tabla trabajos, compartida por todas las instancias.
+ * Cada instancia reclama trabajos con UPDATE ... WHERE id IN (SELECT ... FOR UPDATE SKIP LOCKED),
+ * así que dos instancias nunca toman el mismo trabajo ni se bloquean entre sí. Al reclamarlo se
+ * adelanta disponibleDesde el tiempo de visibilidad, y un latido lo sigue adelantando mientras el
+ * manejador corre: si la instancia muere, el trabajo vuelve a estar disponible al vencer. Los fallos
+ * se reintentan con espera exponencial hasta maxIntentos; un trabajo que agotó sus intentos sin
+ * terminar (la instancia murió en el último) pasa a FALLIDO en lugar de volver a reclamarse.
+ * La concurrencia se limita por tipo y por instancia; los trabajos corren en hilos virtuales.
+ */
+@Service
+@Slf4j
+public class ColaTrabajosService {
+
+    private static final String RECLAMO = """
+            UPDATE gestion_contratos.trabajos
+               SET estado = 'EN_PROCESO', intentos = intentos + 1, bloqueadopor = ?,
+                   disponibledesde = now() + make_interval(secs => ?), fechaactualizacion = now()
+             WHERE idtrabajo IN (SELECT idtrabajo
+                                   FROM gestion_contratos.trabajos
+                                  WHERE tipo = ? AND estado IN ('PENDIENTE', 'EN_PROCESO') AND disponibledesde <= now()
+                                    AND intentos < maxintentos
+                                  ORDER BY disponibledesde, idtrabajo
+                                  LIMIT ?
+                                    FOR UPDATE SKIP LOCKED)
+            RETURNING idtrabajo, carga, intentos, maxintentos
+            """;
+
+    // Abandonados en su último intento: el reclamo ya no los toma
+    private static final String AGOTADOS = """
+            UPDATE gestion_contratos.trabajos
+               SET estado = 'FALLIDO', bloqueadopor = NULL, fechaactualizacion = now(),
+                   error = coalesce(error, 'Visibilidad vencida en el último intento')
+             WHERE tipo = ? AND estado = 'EN_PROCESO' AND disponibledesde <= now() AND intentos >= maxintentos
+            """;
+
+    private static final String LATIDO = """
+            UPDATE gestion_contratos.trabajos
+               SET disponibledesde = now() + make_interval(secs => ?), fechaactualizacion = now()
+             WHERE idtrabajo = ANY (CAST(? AS bigint[])) AND estado = 'EN_PROCESO' AND bloqueadopor = ?
+            """;
+
+    // Sólo si sigue siendo nuestro: tras vencer la visibilidad otra instancia pudo reclamarlo
+    private static final String COMPLETAR = """
+            UPDATE gestion_contratos.trabajos
+               SET estado = 'COMPLETADO', bloqueadopor = NULL, error = NULL, fechaactualizacion = now()
+             WHERE idtrabajo = ? AND bloqueadopor = ? AND intentos = ?
+            """;
+
+    private static final String REINTENTAR = """
+            UPDATE gestion_contratos.trabajos
+               SET estado = ?, bloqueadopor = NULL, error = ?,
+                   disponibledesde = now() + make_interval(secs => ?), fechaactualizacion = now()
+             WHERE idtrabajo = ? AND bloqueadopor = ? AND intentos = ?
+            """;
+
+    private record Reclamado(long id, String carga, int intento, int maxIntentos) {
+    }
+
+    private final TrabajoRepository trabajoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean habilitada;
+    private final int visibilidadSegundos;
+    private final int esperaReintentoSegundos;
+    private final int maxIntentos;
+    private final String instancia;
+
+    private final Map<String, ManejadorTrabajo> manejadores = new HashMap<>();
+    private final Map<String, Semaphore> permisos = new HashMap<>();
+    // Trabajos que corren ahora en esta instancia, para el latido
+    private final Set<Long> enCurso = ConcurrentHashMap.newKeySet();
+    private final ExecutorService ejecutores = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("trabajo-", 0).factory());
+
+    public ColaTrabajosService(TrabajoRepository trabajoRepository,
+                               JdbcTemplate jdbcTemplate,
+                               List<ManejadorTrabajo> manejadores,
+                               Environment environment,
+                               MeterRegistry meterRegistry,
+                               @Value("${cola-trabajos.habilitada:true}") boolean habilitada,
+                               @Value("${cola-trabajos.visibilidad-segundos:300}") int visibilidadSegundos,
+                               @Value("${cola-trabajos.espera-reintento-segundos:5}") int esperaReintentoSegundos,
+                               @Value("${cola-trabajos.max-intentos:5}") int maxIntentos,
+                               @Value("${cola-trabajos.concurrencia-por-defecto:4}") int concurrenciaPorDefecto) {
+        this.trabajoRepository = trabajoRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.habilitada = habilitada;
+        this.visibilidadSegundos = visibilidadSegundos;
+        this.esperaReintentoSegundos = esperaReintentoSegundos;
+        this.maxIntentos = maxIntentos;
+        this.instancia = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+
+        for (ManejadorTrabajo manejador : manejadores) {
+            String tipo = manejador.tipo();
+            this.manejadores.put(tipo, manejador);
+            // cola-trabajos.concurrencia.<TIPO>: trabajos simultáneos de ese tipo en esta instancia
+            int limite = environment.getProperty("cola-trabajos.concurrencia." + tipo, Integer.class, concurrenciaPorDefecto);
+            Semaphore semaforo = new Semaphore(limite);
+            this.permisos.put(tipo, semaforo);
+            Gauge.builder("contratos.trabajos.en.ejecucion", semaforo, s -> limite - s.availablePermits())
+                    .description("Trabajos en ejecución en esta instancia")
+                    .tag("tipo", tipo)
+                    .register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    void cerrar() {
+        ejecutores.shutdown();
+    }
+
+    @Transactional
+    public TrabajoDto encolar(SolicitudTrabajoDto solicitud) {
+        if (!manejadores.containsKey(solicitud.getTipo())) {
+            throw new BusinessLogicException("ENCOLAR_TRABAJO", "Tipo de trabajo desconocido: " + solicitud.getTipo());
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        Trabajo trabajo = new Trabajo();
+        trabajo.setTipo(solicitud.getTipo());
+        trabajo.setCarga(solicitud.getCarga());
+        trabajo.setEstado(EstadoTrabajo.PENDIENTE);
+        trabajo.setIntentos(0);
+        trabajo.setMaxIntentos(solicitud.getMaxIntentos() != null ? solicitud.getMaxIntentos() : maxIntentos);
+        trabajo.setDisponibleDesde(ahora);
+        trabajo.setFechaCreado(ahora);
+        trabajo.setFechaActualizacion(ahora);
+        Trabajo guardado = trabajoRepository.save(trabajo);
+        log.debug("Trabajo {} encolado: {}", guardado.getId(), guardado.getTipo());
+        return aDto(guardado);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<TrabajoDto> consultar(Long id) {
+        return trabajoRepository.findById(id).map(ColaTrabajosService::aDto);
+    }
+
+    // Reclama tantos trabajos de cada tipo como permisos libres tenga esta instancia
+    @Scheduled(fixedDelayString = "${cola-trabajos.intervalo-ms:1000}")
+    public void reclamar() {
+        if (!habilitada) {
+            return;
+        }
+        for (Map.Entry<String, ManejadorTrabajo> entrada : manejadores.entrySet()) {
+            String tipo = entrada.getKey();
+            Semaphore semaforo = permisos.get(tipo);
+            int libres = semaforo.drainPermits();
+            if (libres == 0) {
+                continue;
+            }
+            List<Reclamado> reclamados;
+            try {
+                int agotados = jdbcTemplate.update(AGOTADOS, tipo);
+                if (agotados > 0) {
+                    contador(tipo, "fallido").increment(agotados);
+                    log.error("{} trabajos {} fallidos: la visibilidad venció en su último intento", agotados, tipo);
+                }
+                reclamados = jdbcTemplate.query(RECLAMO, (rs, i) -> new Reclamado(
+                                rs.getLong("idtrabajo"), rs.getString("carga"), rs.getInt("intentos"), rs.getInt("maxintentos")),
+                        instancia, visibilidadSegundos, tipo, libres);
+            } catch (RuntimeException e) {
+                semaforo.release(libres);
+                log.warn("No se pudieron reclamar trabajos {}: {}", tipo, e.getMessage());
+                continue;
+            }
+            semaforo.release(libres - reclamados.size());
+            for (Reclamado reclamado : reclamados) {
+                enCurso.add(reclamado.id());
+                ejecutores.execute(() -> {
+                    try {
+                        ejecutar(tipo, entrada.getValue(), reclamado);
+                    } finally {
+                        enCurso.remove(reclamado.id());
+                        semaforo.release();
+                    }
+                });
+            }
+        }
+    }
+
+    // Adelanta la visibilidad de los trabajos en curso para que un manejador lento no pierda el suyo
+    @Scheduled(fixedDelayString = "${cola-trabajos.latido-ms:60000}")
+    public void latir() {
+        if (enCurso.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(LATIDO, visibilidadSegundos, enCurso.toArray(new Long[0]), instancia);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo renovar la visibilidad de {} trabajos en curso: {}", enCurso.size(), e.getMessage());
+        }
+    }
+
+    private void ejecutar(String tipo, ManejadorTrabajo manejador, Reclamado trabajo) {
+        try {
+            manejador.ejecutar(trabajo.carga());
+            if (jdbcTemplate.update(COMPLETAR, trabajo.id(), instancia, trabajo.intento()) == 0) {
+                log.warn("Trabajo {} completado después de vencer su visibilidad; lo había reclamado otra instancia", trabajo.id());
+            }
+            contador(tipo, "completado").increment();
+        } catch (Exception e) {
+            boolean agotado = trabajo.intento() >= trabajo.maxIntentos();
+            long espera = esperaReintento(esperaReintentoSegundos, trabajo.intento());
+            String error = e.getMessage() != null && e.getMessage().length() > 500 ? e.getMessage().substring(0, 500) : e.getMessage();
+            jdbcTemplate.update(REINTENTAR, agotado ? EstadoTrabajo.FALLIDO.name() : EstadoTrabajo.PENDIENTE.name(),
+                    error, agotado ? 0 : espera, trabajo.id(), instancia, trabajo.intento());
+            contador(tipo, agotado ? "fallido" : "reintento").increment();
+            if (agotado) {
+                log.error("Trabajo {} ({}) fallido tras {} intentos", trabajo.id(), tipo, trabajo.intento(), e);
+            } else {
+                log.warn("Trabajo {} ({}) falló en el intento {}, reintento en {} s: {}", trabajo.id(), tipo, trabajo.intento(), espera, error);
+            }
+        }
+    }
+
+    // Espera exponencial: base, 2x, 4x... con tope de una hora
+    static long esperaReintento(int baseSegundos, int intento) {
+        return Math.min(3600, (long) baseSegundos << Math.min(intento - 1, 20));
+    }
+
+    private Counter contador(String tipo, String resultado) {
+        return Counter.builder("contratos.trabajos")
+                .description("Trabajos de la cola procesados en esta instancia")
+                .tag("tipo", tipo)
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    private static TrabajoDto aDto(Trabajo trabajo) {
+        return TrabajoDto.builder()
+                .id(trabajo.getId())
+                .tipo(trabajo.getTipo())
+                .estado(trabajo.getEstado().name())
+                .intentos(trabajo.getIntentos())
+                .maxIntentos(trabajo.getMaxIntentos())
+                .bloqueadoPor(trabajo.getBloqueadoPor())
+                .error(trabajo.getError())
+                .disponibleDesde(trabajo.getDisponibleDesde())
+                .fechaCreado(trabajo.getFechaCreado())
+                .fechaActualizacion(trabajo.getFechaActualizacion())
+                .build();
+    }
+}
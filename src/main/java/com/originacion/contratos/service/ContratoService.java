@@ -5,26 +5,58 @@ import com.originacion.contratos.exception.BusinessLogicException;
 import com.originacion.contratos.exception.NotFoundException;
 import com.originacion.contratos.model.Contrato;
 import com.originacion.contratos.repository.ContratoRepository;
+import com.originacion.contratos.util.Lotes;
+import com.originacion.contratos.util.SingleFlight;
+import com.originacion.contratos.util.TiempoLimite;
+import com.originacion.contratos.util.Trazas;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.annotation.Observed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
 @Slf4j
+@Observed(name = "contratos.servicio")
 @Transactional
 public class ContratoService {
 
     private final ContratoRepository contratoRepository;
+    private final EstadisticasContratoService estadisticasService;
+    private final FiltroSolicitudesService filtroSolicitudes;
+    private final InvalidacionesService invalidaciones;
+    private final SingleFlight<Integer, Contrato> lecturasPorSolicitud;
+    private final ObservationRegistry observationRegistry;
+    private final int tamanoBloque;
 
-    public ContratoService(ContratoRepository contratoRepository) {
+    public ContratoService(ContratoRepository contratoRepository,
+                           EstadisticasContratoService estadisticasService,
+                           FiltroSolicitudesService filtroSolicitudes,
+                           InvalidacionesService invalidaciones,
+                           MeterRegistry meterRegistry,
+                           ObservationRegistry observationRegistry,
+                           @Value("${lote.tamano-bloque:500}") int tamanoBloque) {
         this.contratoRepository = contratoRepository;
+        this.estadisticasService = estadisticasService;
+        this.filtroSolicitudes = filtroSolicitudes;
+        this.invalidaciones = invalidaciones;
+        this.lecturasPorSolicitud = new SingleFlight<>("contrato.solicitud", meterRegistry);
+        this.observationRegistry = observationRegistry;
+        this.tamanoBloque = tamanoBloque;
     }
 
     @Transactional(readOnly = true)
@@ -46,31 +78,61 @@ public class ContratoService {
                 .orElseThrow(() -> new NotFoundException(id.toString(), "Contrato"));
     }
 
-    @Transactional(readOnly = true)
+    // SUPPORTS: las lecturas concurrentes de la misma solicitud comparten una sola consulta
+    // (single-flight) y no abren una transacción cada una mientras esperan.
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Contrato findByIdSolicitud(Integer idSolicitud) {
         log.debug("Buscando contrato por ID de solicitud: {}", idSolicitud);
+        Trazas.etiquetar(observationRegistry, "idSolicitud", idSolicitud);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Dentro de una transacción la entidad debe quedar en su propio contexto de persistencia
+            return buscarPorSolicitud(idSolicitud);
+        }
+        return lecturasPorSolicitud.ejecutar(idSolicitud, () -> buscarPorSolicitud(idSolicitud));
+    }
+
+    private Contrato buscarPorSolicitud(Integer idSolicitud) {
         return contratoRepository.findByIdSolicitud(idSolicitud)
                 .orElseThrow(() -> new NotFoundException(idSolicitud.toString(), "Contrato por solicitud"));
     }
 
+    // Consulta en lote: una sentencia IN por cada bloque de IDs, resultado indexado por solicitud
+    @Transactional(readOnly = true)
+    public Map<Integer, Contrato> findByIdSolicitudes(Collection<Integer> idsSolicitud) {
+        List<Integer> ids = Lotes.sinDuplicados(idsSolicitud);
+        log.debug("Buscando {} contratos por ID de solicitud en bloques de {}", ids.size(), tamanoBloque);
+        Trazas.etiquetar(observationRegistry, "solicitudes", ids.size());
+
+        Map<Integer, Contrato> encontrados = new HashMap<>();
+        for (List<Integer> bloque : Lotes.particionar(ids, tamanoBloque)) {
+            TiempoLimite.verificar("búsqueda de contratos por solicitudes");
+            for (Contrato contrato : contratoRepository.findByIdSolicitudIn(bloque)) {
+                encontrados.put(contrato.getIdSolicitud(), contrato);
+            }
+        }
+        Trazas.etiquetar(observationRegistry, "filas", encontrados.size());
+        return encontrados;
+    }
+
     public Contrato generarContrato(Integer idSolicitud, LocalDateTime fechaFirma, String condicionEspecial) {
         log.info("Generando contrato para solicitud: {}", idSolicitud);
+        Trazas.etiquetar(observationRegistry, "idSolicitud", idSolicitud);
         
-        // Verificar si ya existe un contrato para esta solicitud
-        if (contratoRepository.existsByIdSolicitud(idSolicitud)) {
-            throw new BusinessLogicException("CREAR_CONTRATO", "Ya existe un contrato para la solicitud: " + idSolicitud);
-        }
-
-        Contrato contrato = new Contrato();
-        contrato.setIdSolicitud(idSolicitud);
-        contrato.setRutaArchivo("/contratos/generados/contrato_" + idSolicitud + ".pdf");
-        contrato.setFechaGenerado(LocalDateTime.now());
-        // fechaFirma se queda como null hasta que el contrato sea firmado
-        contrato.setEstado(EstadoContrato.DRAFT);
-        contrato.setCondicionEspecial(condicionEspecial);
-        contrato.setVersion(1L);
-
-        return contratoRepository.save(contrato);
+        // INSERT ... ON CONFLICT DO NOTHING: sin consulta previa ni carrera entre solicitudes concurrentes
+        Contrato guardado = contratoRepository.insertarSiNoExiste(
+                        idSolicitud,
+                        "/contratos/generados/contrato_" + idSolicitud + ".pdf",
+                        LocalDateTime.now(),
+                        EstadoContrato.DRAFT.name(),
+                        condicionEspecial)
+                // fechaFirma se queda como null hasta que el contrato sea firmado
+                .orElseThrow(() -> new BusinessLogicException("CREAR_CONTRATO",
+                        "Ya existe un contrato para la solicitud: " + idSolicitud));
+        filtroSolicitudes.registrar(FiltroSolicitudesService.Tabla.CONTRATOS, idSolicitud);
+        invalidaciones.publicar(InvalidacionesService.Entidad.CONTRATO, InvalidacionesService.Cambio.ALTA,
+                idSolicitud, guardado.getVersion());
+        estadisticasService.registrarGenerado(guardado);
+        return guardado;
     }
 
     public Contrato firmarContrato(Integer id) {
@@ -86,7 +148,9 @@ public class ContratoService {
         contrato.setEstado(EstadoContrato.FIRMADO);
         contrato.setFechaFirma(LocalDateTime.now());
         
-        return contratoRepository.save(contrato);
+        Contrato firmado = publicarCambio(contratoRepository.save(contrato));
+        estadisticasService.registrarFirmado(firmado);
+        return firmado;
     }
 
     public Contrato cancelarContrato(Integer id, String motivo) {
@@ -101,7 +165,9 @@ public class ContratoService {
         contrato.setEstado(EstadoContrato.CANCELADO);
         contrato.setCondicionEspecial("CANCELADO: " + motivo);
         
-        return contratoRepository.save(contrato);
+        Contrato cancelado = publicarCambio(contratoRepository.save(contrato));
+        estadisticasService.registrarCancelados(LocalDate.now(), 1);
+        return cancelado;
     }
 
     public Contrato actualizarCondicionEspecial(Integer id, String condicion) {
@@ -116,7 +182,16 @@ public class ContratoService {
 
         contrato.setCondicionEspecial(condicion);
         
-        return contratoRepository.save(contrato);
+        return publicarCambio(contratoRepository.save(contrato));
+    }
+
+    // Asocia al contrato un documento del almacén (rutaArchivo = sha256:<hash>)
+    public Contrato asignarArchivo(Integer id, String rutaArchivo) {
+        log.info("Asignando archivo {} al contrato ID: {}", rutaArchivo, id);
+
+        Contrato contrato = findById(id);
+        contrato.setRutaArchivo(rutaArchivo);
+        return publicarCambio(contratoRepository.save(contrato));
     }
 
     // PUT - Actualizar contrato completo
@@ -133,10 +208,18 @@ public class ContratoService {
 
         // Validar que no se cambie a una solicitud que ya tenga contrato
         if (!contrato.getIdSolicitud().equals(idSolicitud)) {
-            if (contratoRepository.existsByIdSolicitud(idSolicitud)) {
+            if (filtroSolicitudes.existe(FiltroSolicitudesService.Tabla.CONTRATOS, idSolicitud,
+                    () -> contratoRepository.existsByIdSolicitud(idSolicitud))) {
                 throw new BusinessLogicException("ACTUALIZAR_CONTRATO", 
                     "Ya existe un contrato para la solicitud: " + idSolicitud);
             }
+            filtroSolicitudes.eliminarAlConfirmar(FiltroSolicitudesService.Tabla.CONTRATOS, contrato.getIdSolicitud());
+            filtroSolicitudes.registrar(FiltroSolicitudesService.Tabla.CONTRATOS, idSolicitud);
+            // Para las demás instancias el contrato desaparece de una solicitud y aparece en la otra
+            invalidaciones.publicar(InvalidacionesService.Entidad.CONTRATO, InvalidacionesService.Cambio.BAJA,
+                    contrato.getIdSolicitud(), contrato.getVersion());
+            invalidaciones.publicar(InvalidacionesService.Entidad.CONTRATO, InvalidacionesService.Cambio.ALTA,
+                    idSolicitud, contrato::getVersion);
             contrato.setIdSolicitud(idSolicitud);
         }
 
@@ -156,15 +239,17 @@ public class ContratoService {
                 if (contrato.getFechaFirma() == null) {
                     contrato.setFechaFirma(LocalDateTime.now());
                 }
+                estadisticasService.registrarFirmado(contrato);
             } else if (estado == EstadoContrato.CANCELADO) {
                 contrato.setEstado(estado);
+                estadisticasService.registrarCancelados(LocalDate.now(), 1);
             } else {
                 throw new BusinessLogicException("ACTUALIZAR_CONTRATO", 
                     "Cambio de estado no válido de " + contrato.getEstado() + " a " + estado);
             }
         }
 
-        return contratoRepository.save(contrato);
+        return publicarCambio(contratoRepository.save(contrato));
     }
 
     @Transactional(readOnly = true)
@@ -198,7 +283,8 @@ public class ContratoService {
         contrato.setEstado(EstadoContrato.CANCELADO);
         contrato.setCondicionEspecial("ELIMINADO: " + motivo);
         
-        contratoRepository.save(contrato);
+        publicarCambio(contratoRepository.save(contrato));
+        estadisticasService.registrarCancelados(LocalDate.now(), 1);
         log.info("Contrato ID: {} eliminado lógicamente", id);
     }
 
@@ -210,6 +296,16 @@ public class ContratoService {
                 .orElseThrow(() -> new NotFoundException(idSolicitud.toString(), "Contrato por solicitud"));
         
         contratoRepository.delete(contrato);
+        filtroSolicitudes.eliminarAlConfirmar(FiltroSolicitudesService.Tabla.CONTRATOS, idSolicitud);
+        invalidaciones.publicar(InvalidacionesService.Entidad.CONTRATO, InvalidacionesService.Cambio.BAJA,
+                idSolicitud, contrato.getVersion());
         log.info("Contrato de solicitud: {} eliminado físicamente de la base de datos", idSolicitud);
     }
-} 
\ No newline at end of file
+
+    // La versión se publica al confirmar: el save() sólo la incrementa al hacer flush
+    private Contrato publicarCambio(Contrato contrato) {
+        invalidaciones.publicar(InvalidacionesService.Entidad.CONTRATO, InvalidacionesService.Cambio.MODIFICACION,
+                contrato.getIdSolicitud(), contrato::getVersion);
+        return contrato;
+    }
+}
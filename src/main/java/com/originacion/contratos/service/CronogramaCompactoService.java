@@ -0,0 +1,182 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.dto.CuotaDto;
+import com.originacion.contratos.dto.PagareDto;
+import com.originacion.contratos.exception.PagareGenerationException;
+import com.originacion.contratos.model.Cronograma;
+import com.originacion.contratos.repository.CronogramaRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Almacenamiento compacto de pagarés: una fila de cronogramas por solicitud con todas las cuotas
+ * (montos incluidos) codificadas por columnas. Las cuotas se exponen como PagareDto con un ID
+ * sintético negativo, -(idSolicitud * 1000 + numeroCuota), que nunca coincide con un IdPagare real.
+ */
+@Service
+@Slf4j
+@Transactional
+public class CronogramaCompactoService {
+
+    private static final long MULTIPLICADOR_ID = 1000;
+
+    private final CronogramaRepository cronogramaRepository;
+
+    public CronogramaCompactoService(CronogramaRepository cronogramaRepository) {
+        this.cronogramaRepository = cronogramaRepository;
+    }
+
+    public static boolean esIdCompacto(Long id) {
+        return id != null && id < 0;
+    }
+
+    public List<PagareDto> guardar(Long idSolicitud, BigDecimal monto, BigDecimal tasa, Short plazo, List<CuotaDto> cuotas) {
+        if (cuotas.size() >= MULTIPLICADOR_ID) {
+            throw new PagareGenerationException("El almacenamiento compacto admite hasta " + (MULTIPLICADOR_ID - 1) + " cuotas");
+        }
+        LocalDateTime fechaGenerado = LocalDateTime.now();
+        byte[] datos = CodificadorCronograma.codificar(
+                new CodificadorCronograma.Contenido(cuotas, new BitSet(), new TreeMap<>()));
+        if (cronogramaRepository.insertarSiNoExiste(idSolicitud, monto, tasa, plazo, fechaGenerado, datos) == 0) {
+            throw new PagareGenerationException("Ya existen pagarés para solicitud " + idSolicitud);
+        }
+        log.debug("Cronograma compacto de solicitud {}: {} cuotas en {} bytes", idSolicitud, cuotas.size(), datos.length);
+
+        Cronograma cronograma = new Cronograma();
+        cronograma.setIdSolicitud(idSolicitud);
+        cronograma.setFechaGenerado(fechaGenerado);
+        cronograma.setDatos(datos);
+        cronograma.setVersion(0L);
+        return aPagares(cronograma, CodificadorCronograma.decodificar(datos));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<List<PagareDto>> buscarPorSolicitud(Long idSolicitud) {
+        return cronogramaRepository.findById(idSolicitud)
+                .map(cronograma -> aPagares(cronograma, CodificadorCronograma.decodificar(cronograma.getDatos())));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, List<PagareDto>> buscarPorSolicitudes(Collection<Long> idsSolicitud) {
+        Map<Long, List<PagareDto>> porSolicitud = new HashMap<>();
+        for (Cronograma cronograma : cronogramaRepository.findByIdSolicitudIn(idsSolicitud)) {
+            porSolicitud.put(cronograma.getIdSolicitud(),
+                    aPagares(cronograma, CodificadorCronograma.decodificar(cronograma.getDatos())));
+        }
+        return porSolicitud;
+    }
+
+    // Cuotas con montos, intereses, saldos y vencimientos tal como se generaron
+    @Transactional(readOnly = true)
+    public Optional<List<CuotaDto>> buscarCuotas(Long idSolicitud) {
+        return cronogramaRepository.findById(idSolicitud)
+                .map(cronograma -> CodificadorCronograma.decodificar(cronograma.getDatos()).cuotas());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<PagareDto> buscarCuota(Long idSolicitud, Integer numeroCuota) {
+        return cronogramaRepository.findById(idSolicitud).flatMap(cronograma -> {
+            CodificadorCronograma.Contenido contenido = CodificadorCronograma.decodificar(cronograma.getDatos());
+            if (numeroCuota == null || numeroCuota < 1 || numeroCuota > contenido.cuotas().size()) {
+                return Optional.empty();
+            }
+            return Optional.of(aPagare(cronograma, contenido, numeroCuota));
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<PagareDto> buscarPorId(Long id) {
+        return buscarCuota(idSolicitud(id), numeroCuota(id));
+    }
+
+    // Hay que llamarlo dentro de la transacción que comprueba e inserta en cualquiera de los dos almacenamientos
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bloquearSolicitud(Long idSolicitud) {
+        cronogramaRepository.bloquearSolicitud(idSolicitud);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean existe(Long idSolicitud) {
+        return cronogramaRepository.existsById(idSolicitud);
+    }
+
+    public PagareDto asignarRuta(Long id, String rutaArchivo) {
+        return modificar(id, (contenido, numero) -> contenido.rutas().put(numero, rutaArchivo));
+    }
+
+    public PagareDto desactivar(Long id) {
+        return modificar(id, (contenido, numero) -> {
+            if (contenido.inactivas().get(numero)) {
+                throw new PagareGenerationException("El pagaré ya está inactivo: " + id);
+            }
+            contenido.inactivas().set(numero);
+        });
+    }
+
+    public long eliminar(Long idSolicitud) {
+        return cronogramaRepository.deleteByIdSolicitud(idSolicitud);
+    }
+
+    private interface Modificacion {
+        void aplicar(CodificadorCronograma.Contenido contenido, int numeroCuota);
+    }
+
+    // Decodifica, modifica y vuelve a codificar la fila completa; @Version protege de escrituras concurrentes
+    private PagareDto modificar(Long id, Modificacion modificacion) {
+        long idSolicitud = idSolicitud(id);
+        int numeroCuota = numeroCuota(id);
+        Cronograma cronograma = cronogramaRepository.findById(idSolicitud)
+                .orElseThrow(() -> new PagareGenerationException("Pagaré no encontrado: " + id));
+        CodificadorCronograma.Contenido contenido = CodificadorCronograma.decodificar(cronograma.getDatos());
+        if (numeroCuota < 1 || numeroCuota > contenido.cuotas().size()) {
+            throw new PagareGenerationException("Pagaré no encontrado: " + id);
+        }
+        modificacion.aplicar(contenido, numeroCuota);
+        cronograma.setDatos(CodificadorCronograma.codificar(contenido));
+        Cronograma guardado = cronogramaRepository.saveAndFlush(cronograma);
+        return aPagare(guardado, contenido, numeroCuota);
+    }
+
+    private static List<PagareDto> aPagares(Cronograma cronograma, CodificadorCronograma.Contenido contenido) {
+        List<PagareDto> pagares = new ArrayList<>(contenido.cuotas().size());
+        for (int numero = 1; numero <= contenido.cuotas().size(); numero++) {
+            pagares.add(aPagare(cronograma, contenido, numero));
+        }
+        return List.copyOf(pagares);
+    }
+
+    private static PagareDto aPagare(Cronograma cronograma, CodificadorCronograma.Contenido contenido, int numeroCuota) {
+        Long idSolicitud = cronograma.getIdSolicitud();
+        return PagareDto.builder()
+                .id(-(idSolicitud * MULTIPLICADOR_ID + numeroCuota))
+                .idSolicitud(idSolicitud)
+                .numeroCuota(numeroCuota)
+                .rutaArchivo(contenido.rutas().getOrDefault(numeroCuota, PagareService.generarRutaPagare(idSolicitud, numeroCuota)))
+                .fechaGenerado(cronograma.getFechaGenerado())
+                .activo(!contenido.inactivas().get(numeroCuota))
+                .version(cronograma.getVersion())
+                .build();
+    }
+
+    private static long idSolicitud(Long id) {
+        return -id / MULTIPLICADOR_ID;
+    }
+
+    private static int numeroCuota(Long id) {
+        return (int) (-id % MULTIPLICADOR_ID);
+    }
+}
@@ -0,0 +1,170 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.enums.TipoOperacionDiferida;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diario de solo-anexar para las operaciones diferidas. Cada operación se escribe y se fuerza
+ * a disco antes de confirmarla al cliente; al procesarla se anexa una marca. Al reiniciar se
+ * recuperan las operaciones sin marca, en el orden en que se encolaron. Se vacía cuando no queda
+ * nada pendiente y, si supera el tamaño máximo, se reescribe sólo con las pendientes.
+ *
+ * Formato por línea:  E|id|tipo|entidadId|argumento(base64)|fechaEncolada   y   P|id
+ */
+class DiarioOperaciones {
+
+    private final Path archivo;
+    private final long maxBytes;
+    private FileChannel canal;
+    // Tamaño a partir del cual se reescribe: nunca menos del doble de lo que quedó en la última
+    // reescritura, para no reescribir en cada vaciado si las pendientes ya ocupan casi el máximo
+    private long umbral;
+
+    DiarioOperaciones(Path directorio, long maxBytes) {
+        try {
+            Files.createDirectories(directorio);
+            this.archivo = directorio.resolve("operaciones.log");
+            this.maxBytes = maxBytes;
+            this.umbral = maxBytes;
+            this.canal = abrir();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el diario de operaciones en " + directorio, e);
+        }
+    }
+
+    synchronized void registrar(OperacionDiferida operacion) {
+        escribir(linea(operacion));
+    }
+
+    synchronized void marcarProcesadas(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        StringBuilder lineas = new StringBuilder();
+        for (String id : ids) {
+            lineas.append("P|").append(id).append('\n');
+        }
+        escribir(lineas.toString());
+    }
+
+    // pendientes: las operaciones encoladas sin marca, en orden. El llamador debe impedir que se registren
+    // otras mientras tanto. Sin pendientes se vacía; por encima del umbral se reescribe con ellas en un
+    // archivo nuevo que sustituye al actual de forma atómica
+    synchronized void compactar(Collection<OperacionDiferida> pendientes) {
+        try {
+            if (pendientes.isEmpty()) {
+                if (canal.size() > 0) {
+                    canal.truncate(0);
+                    canal.force(true);
+                }
+                umbral = maxBytes;
+                return;
+            }
+            if (canal.size() <= umbral) {
+                return;
+            }
+            Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+            long tamano;
+            try (FileChannel nuevo = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                StringBuilder lineas = new StringBuilder();
+                for (OperacionDiferida operacion : pendientes) {
+                    lineas.append(linea(operacion));
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(lineas.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    nuevo.write(buffer);
+                }
+                nuevo.force(true);
+                tamano = nuevo.size();
+            }
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // El renombrado es durable sólo cuando se fuerza el directorio
+            try (FileChannel carpeta = FileChannel.open(archivo.getParent(), StandardOpenOption.READ)) {
+                carpeta.force(true);
+            }
+            canal.close();
+            canal = abrir();
+            umbral = Math.max(maxBytes, tamano * 2);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo compactar el diario de operaciones", e);
+        }
+    }
+
+    // Recorre el archivo línea a línea; en memoria sólo quedan las operaciones aún sin marca
+    synchronized List<OperacionDiferida> leerPendientes() {
+        Map<String, OperacionDiferida> pendientes = new LinkedHashMap<>();
+        try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                if (linea.startsWith("P|")) {
+                    pendientes.remove(linea.substring(2));
+                    continue;
+                }
+                if (!linea.startsWith("E|")) {
+                    continue;
+                }
+                String[] campos = linea.split("\\|", -1);
+                if (campos.length != 6) {
+                    // Línea incompleta (caída a mitad de escritura)
+                    continue;
+                }
+                String argumento = campos[4].isEmpty() ? null
+                        : new String(Base64.getDecoder().decode(campos[4]), StandardCharsets.UTF_8);
+                pendientes.put(campos[1], new OperacionDiferida(campos[1], TipoOperacionDiferida.valueOf(campos[2]),
+                        Long.valueOf(campos[3]), argumento, LocalDateTime.parse(campos[5])));
+            }
+            return new ArrayList<>(pendientes.values());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el diario de operaciones", e);
+        }
+    }
+
+    synchronized void cerrar() {
+        try {
+            canal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo cerrar el diario de operaciones", e);
+        }
+    }
+
+    private static String linea(OperacionDiferida operacion) {
+        String argumento = operacion.argumento() == null ? ""
+                : Base64.getEncoder().encodeToString(operacion.argumento().getBytes(StandardCharsets.UTF_8));
+        return "E|" + operacion.id() + "|" + operacion.tipo() + "|" + operacion.entidadId() + "|"
+                + argumento + "|" + operacion.fechaEncolada() + "\n";
+    }
+
+    private void escribir(String texto) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(texto.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en el diario de operaciones", e);
+        }
+    }
+
+    private FileChannel abrir() throws IOException {
+        return FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,294 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.dto.OperacionDiferidaDto;
+import com.originacion.contratos.enums.EstadoContrato;
+import com.originacion.contratos.enums.EstadoOperacion;
+import com.originacion.contratos.enums.TipoOperacionDiferida;
+import com.originacion.contratos.exception.BusinessLogicException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Escritura diferida (write-behind) para eliminaciones lógicas y cambios de condición especial.
+ * Las mutaciones se registran en un diario local durable y se confirman con 202; un proceso
+ * programado las agrupa por entidad, descarta las que quedan sobrescritas y las aplica en
+ * transacciones por lote, respetando el orden de llegada de cada entidad.
+ */
+@Service
+@Slf4j
+public class EscrituraDiferidaService {
+
+    private final ContratoService contratoService;
+    private final PagareService pagareService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitada;
+    private final Path directorio;
+    private final int tamanoLote;
+    private final int maxEstados;
+    private final long maxBytesDiario;
+
+    private final ConcurrentLinkedQueue<OperacionDiferida> cola = new ConcurrentLinkedQueue<>();
+    private final Map<String, OperacionDiferidaDto> estados;
+    private final Counter aplicadas;
+    private final Counter coalescidas;
+    private final Counter fallidas;
+    private DiarioOperaciones diario;
+
+    public EscrituraDiferidaService(ContratoService contratoService,
+                                    PagareService pagareService,
+                                    TransactionTemplate transactionTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${escritura-diferida.habilitada:false}") boolean habilitada,
+                                    @Value("${escritura-diferida.directorio:./data/escritura-diferida}") Path directorio,
+                                    @Value("${escritura-diferida.tamano-lote:200}") int tamanoLote,
+                                    @Value("${escritura-diferida.max-estados:10000}") int maxEstados,
+                                    @Value("${escritura-diferida.diario-max-bytes:67108864}") long maxBytesDiario) {
+        this.contratoService = contratoService;
+        this.pagareService = pagareService;
+        this.transactionTemplate = transactionTemplate;
+        this.habilitada = habilitada;
+        this.directorio = directorio;
+        this.tamanoLote = tamanoLote;
+        this.maxEstados = maxEstados;
+        this.maxBytesDiario = maxBytesDiario;
+        // Orden de inserción: al podar se descartan primero los estados finales más antiguos
+        this.estados = Collections.synchronizedMap(new LinkedHashMap<>());
+        this.aplicadas = contador(meterRegistry, "aplicada");
+        this.coalescidas = contador(meterRegistry, "coalescida");
+        this.fallidas = contador(meterRegistry, "fallida");
+        Gauge.builder("contratos.escritura.diferida.pendientes", cola, ConcurrentLinkedQueue::size)
+                .description("Operaciones diferidas pendientes de aplicar")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void recuperar() {
+        if (!habilitada) {
+            return;
+        }
+        diario = new DiarioOperaciones(directorio, maxBytesDiario);
+        List<OperacionDiferida> pendientes = diario.leerPendientes();
+        for (OperacionDiferida operacion : pendientes) {
+            estados.put(operacion.id(), estadoInicial(operacion));
+            cola.add(operacion);
+        }
+        if (!pendientes.isEmpty()) {
+            log.info("Recuperadas {} operaciones diferidas pendientes del diario", pendientes.size());
+        }
+    }
+
+    @PreDestroy
+    void cerrar() {
+        if (diario != null) {
+            diario.cerrar();
+        }
+    }
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    public OperacionDiferidaDto encolar(TipoOperacionDiferida tipo, Long entidadId, String argumento) {
+        if (!habilitada) {
+            throw new BusinessLogicException("ENCOLAR_OPERACION", "La escritura diferida no está habilitada");
+        }
+        OperacionDiferida operacion = new OperacionDiferida(UUID.randomUUID().toString(), tipo, entidadId,
+                argumento, LocalDateTime.now());
+        OperacionDiferidaDto estado = estadoInicial(operacion);
+        // El registro en diario y el encolado van juntos para que la compactación no los separe
+        synchronized (diario) {
+            diario.registrar(operacion);
+            estados.put(operacion.id(), estado);
+            cola.add(operacion);
+        }
+        log.debug("Operación diferida {} encolada: {} sobre {}", operacion.id(), tipo, entidadId);
+        return estado;
+    }
+
+    public Optional<OperacionDiferidaDto> consultar(String id) {
+        return Optional.ofNullable(estados.get(id));
+    }
+
+    @Scheduled(fixedDelayString = "${escritura-diferida.intervalo-ms:200}")
+    public void vaciar() {
+        if (!habilitada) {
+            return;
+        }
+        List<OperacionDiferida> lote = new ArrayList<>(tamanoLote);
+        OperacionDiferida siguiente;
+        while (lote.size() < tamanoLote && (siguiente = cola.poll()) != null) {
+            lote.add(siguiente);
+        }
+        if (lote.isEmpty()) {
+            return;
+        }
+
+        // Agrupar por entidad conservando el orden de llegada dentro de cada grupo
+        Map<String, List<OperacionDiferida>> porEntidad = new LinkedHashMap<>();
+        for (OperacionDiferida operacion : lote) {
+            porEntidad.computeIfAbsent(operacion.claveEntidad(), k -> new ArrayList<>()).add(operacion);
+        }
+        List<OperacionDiferida> efectivas = new ArrayList<>(lote.size());
+        Map<String, List<OperacionDiferida>> absorbidas = new HashMap<>();
+        for (List<OperacionDiferida> grupo : porEntidad.values()) {
+            efectivas.addAll(coalescer(grupo, absorbidas));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> efectivas.forEach(this::aplicar));
+            efectivas.forEach(operacion -> completar(operacion, EstadoOperacion.COMPLETADA, null, absorbidas));
+            aplicadas.increment(efectivas.size());
+        } catch (RuntimeException e) {
+            // Algún elemento del lote falló: se reintenta cada operación en su propia transacción
+            log.warn("Fallo en lote de {} operaciones diferidas, aplicando una a una: {}", efectivas.size(), e.getMessage());
+            for (OperacionDiferida operacion : efectivas) {
+                aplicarIndividual(operacion, absorbidas);
+            }
+        }
+        podarEstados();
+
+        List<String> ids = new ArrayList<>(lote.size());
+        lote.forEach(operacion -> ids.add(operacion.id()));
+        synchronized (diario) {
+            diario.marcarProcesadas(ids);
+            // Con el diario bloqueado no se encola nada: la cola son exactamente las pendientes
+            diario.compactar(cola);
+        }
+    }
+
+    // Dentro de una entidad: una condición seguida de otra condición o de la eliminación queda sobrescrita;
+    // una eliminación repetida no cambia el resultado de la primera. Las absorbidas quedan PENDIENTE
+    // hasta conocer el resultado de la operación que sí se aplica (absorbidas: id efectiva -> absorbidas).
+    private List<OperacionDiferida> coalescer(List<OperacionDiferida> grupo, Map<String, List<OperacionDiferida>> absorbidas) {
+        List<OperacionDiferida> efectivas = new ArrayList<>(grupo.size());
+        for (OperacionDiferida operacion : grupo) {
+            OperacionDiferida anterior = efectivas.isEmpty() ? null : efectivas.get(efectivas.size() - 1);
+            if (anterior != null && anterior.tipo() == TipoOperacionDiferida.ACTUALIZAR_CONDICION
+                    && operacion.tipo() != TipoOperacionDiferida.ELIMINAR_PAGARE) {
+                efectivas.set(efectivas.size() - 1, operacion);
+                List<OperacionDiferida> heredadas = absorbidas.computeIfAbsent(operacion.id(), k -> new ArrayList<>());
+                heredadas.add(anterior);
+                heredadas.addAll(absorbidas.getOrDefault(anterior.id(), List.of()));
+                absorbidas.remove(anterior.id());
+                coalescidas.increment();
+            } else if (anterior != null && anterior.tipo() == operacion.tipo()
+                    && operacion.tipo() != TipoOperacionDiferida.ACTUALIZAR_CONDICION) {
+                absorbidas.computeIfAbsent(anterior.id(), k -> new ArrayList<>()).add(operacion);
+                coalescidas.increment();
+            } else {
+                efectivas.add(operacion);
+            }
+        }
+        return efectivas;
+    }
+
+    // Idempotente: si el diario se repite tras una caída entre aplicar y marcarProcesadas, la entidad
+    // ya está en el estado buscado y la operación se da por completada sin volver a aplicarla.
+    private void aplicar(OperacionDiferida operacion) {
+        switch (operacion.tipo()) {
+            case ELIMINAR_CONTRATO -> {
+                Integer id = Math.toIntExact(operacion.entidadId());
+                if (contratoService.findById(id).getEstado() != EstadoContrato.CANCELADO) {
+                    contratoService.eliminarLogicamente(id, operacion.argumento());
+                }
+            }
+            case ACTUALIZAR_CONDICION -> {
+                Integer id = Math.toIntExact(operacion.entidadId());
+                if (!Objects.equals(contratoService.findById(id).getCondicionEspecial(), operacion.argumento())) {
+                    contratoService.actualizarCondicionEspecial(id, operacion.argumento());
+                }
+            }
+            case ELIMINAR_PAGARE -> {
+                if (Boolean.TRUE.equals(pagareService.getPagareById(operacion.entidadId()).getActivo())) {
+                    pagareService.logicalDeletePagare(operacion.entidadId());
+                }
+            }
+        }
+    }
+
+    private void aplicarIndividual(OperacionDiferida operacion, Map<String, List<OperacionDiferida>> absorbidas) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> aplicar(operacion));
+            completar(operacion, EstadoOperacion.COMPLETADA, null, absorbidas);
+            aplicadas.increment();
+        } catch (RuntimeException e) {
+            log.error("Operación diferida {} ({} sobre {}) fallida: {}",
+                    operacion.id(), operacion.tipo(), operacion.entidadId(), e.getMessage());
+            completar(operacion, EstadoOperacion.FALLIDA, e.getMessage(), absorbidas);
+            fallidas.increment();
+        }
+    }
+
+    // Las absorbidas heredan el resultado: COALESCIDA si la efectiva se aplicó, FALLIDA con su error si no
+    private void completar(OperacionDiferida operacion, EstadoOperacion estadoFinal, String error,
+                           Map<String, List<OperacionDiferida>> absorbidas) {
+        LocalDateTime ahora = LocalDateTime.now();
+        estados.computeIfPresent(operacion.id(), (id, estado) -> estado.toBuilder()
+                .estado(estadoFinal.name())
+                .error(error)
+                .fechaProcesada(ahora)
+                .build());
+        EstadoOperacion estadoAbsorbidas = estadoFinal == EstadoOperacion.COMPLETADA
+                ? EstadoOperacion.COALESCIDA : estadoFinal;
+        for (OperacionDiferida absorbida : absorbidas.getOrDefault(operacion.id(), List.of())) {
+            estados.computeIfPresent(absorbida.id(), (id, estado) -> estado.toBuilder()
+                    .estado(estadoAbsorbidas.name())
+                    .aplicadaEn(operacion.id())
+                    .error(error)
+                    .fechaProcesada(ahora)
+                    .build());
+        }
+    }
+
+    // Sólo se descartan estados finales: una operación PENDIENTE debe poder consultarse hasta que termine
+    private void podarEstados() {
+        synchronized (estados) {
+            Iterator<OperacionDiferidaDto> iterador = estados.values().iterator();
+            while (estados.size() > maxEstados && iterador.hasNext()) {
+                if (!EstadoOperacion.PENDIENTE.name().equals(iterador.next().getEstado())) {
+                    iterador.remove();
+                }
+            }
+        }
+    }
+
+    private OperacionDiferidaDto estadoInicial(OperacionDiferida operacion) {
+        return OperacionDiferidaDto.builder()
+                .id(operacion.id())
+                .tipo(operacion.tipo().name())
+                .entidadId(operacion.entidadId())
+                .estado(EstadoOperacion.PENDIENTE.name())
+                .fechaEncolada(operacion.fechaEncolada())
+                .build();
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("contratos.escritura.diferida.operaciones")
+                .description("Operaciones diferidas procesadas")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+}
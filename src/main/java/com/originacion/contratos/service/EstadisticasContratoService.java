@@ -0,0 +1,163 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.dto.PuntoSerieContratosDto;
+import com.originacion.contratos.enums.GranularidadSerie;
+import com.originacion.contratos.exception.BusinessLogicException;
+import com.originacion.contratos.model.Contrato;
+import com.originacion.contratos.model.RollupContrato;
+import com.originacion.contratos.repository.RollupContratoRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Mantiene los rollups diarios de contratos y responde las series de tiempo a partir de ellos,
+// sin recorrer la tabla de contratos.
+@Service
+@Slf4j
+@Transactional
+public class EstadisticasContratoService {
+
+    static final String GENERADOS = "GENERADOS";
+    static final String FIRMADOS = "FIRMADOS";
+    static final String CANCELADOS = "CANCELADOS";
+    static final String SEGUNDOS_FIRMA = "SEGUNDOS_FIRMA";
+    static final String FIRMA_HORAS = "FIRMA_HORAS_";
+    static final String FIRMA_HORAS_MAS = "FIRMA_HORAS_MAS";
+
+    // Límites superiores (en horas) de los tramos del histograma de tiempo hasta la firma
+    static final long[] TRAMOS_HORAS = {1, 4, 12, 24, 48, 72, 168, 336, 720};
+
+    private static final long MAX_DIAS_CONSULTA = 3660;
+
+    private final RollupContratoRepository rollupRepository;
+
+    public EstadisticasContratoService(RollupContratoRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    public void registrarGenerado(Contrato contrato) {
+        incrementar(contrato.getFechaGenerado().toLocalDate(), GENERADOS, 1);
+    }
+
+    public void registrarFirmado(Contrato contrato) {
+        LocalDate fecha = contrato.getFechaFirma().toLocalDate();
+        incrementar(fecha, FIRMADOS, 1);
+
+        long segundos = Math.max(0, Duration.between(contrato.getFechaGenerado(), contrato.getFechaFirma()).getSeconds());
+        incrementar(fecha, SEGUNDOS_FIRMA, segundos);
+        incrementar(fecha, tramoFirma(segundos), 1);
+    }
+
+    public void registrarCancelados(LocalDate fecha, long cantidad) {
+        if (cantidad > 0) {
+            incrementar(fecha, CANCELADOS, cantidad);
+        }
+    }
+
+    private void incrementar(LocalDate fecha, String metrica, long cantidad) {
+        rollupRepository.incrementar(fecha, metrica, franja(), cantidad);
+    }
+
+    // La franja sale del hilo y no del azar: una misma transacción usa siempre la misma fila de cada
+    // contador y las bloquea en el mismo orden que sin franjas, así que no aparecen interbloqueos nuevos.
+    // Hilos distintos (peticiones concurrentes) se reparten entre las FRANJAS filas
+    static short franja() {
+        return (short) Math.floorMod(Long.hashCode(Thread.currentThread().threadId()), RollupContrato.FRANJAS);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PuntoSerieContratosDto> obtenerSerie(LocalDate desde, LocalDate hasta, GranularidadSerie granularidad) {
+        if (desde.isAfter(hasta)) {
+            throw new BusinessLogicException("SERIE_CONTRATOS", "La fecha inicial no puede ser posterior a la final");
+        }
+        if (Duration.between(desde.atStartOfDay(), hasta.atStartOfDay()).toDays() > MAX_DIAS_CONSULTA) {
+            throw new BusinessLogicException("SERIE_CONTRATOS", "El rango no puede superar " + MAX_DIAS_CONSULTA + " días");
+        }
+        log.debug("Obteniendo serie de contratos {} - {} por {}", desde, hasta, granularidad);
+
+        Map<LocalDate, Map<String, Long>> porPeriodo = new TreeMap<>();
+        for (RollupContrato rollup : rollupRepository.findByFechaBetweenOrderByFecha(desde, hasta)) {
+            LocalDate periodo = granularidad == GranularidadSerie.MES
+                    ? rollup.getFecha().withDayOfMonth(1)
+                    : rollup.getFecha();
+            porPeriodo.computeIfAbsent(periodo, p -> new HashMap<>())
+                      .merge(rollup.getMetrica(), rollup.getCantidad(), Long::sum);
+        }
+
+        List<PuntoSerieContratosDto> serie = new ArrayList<>(porPeriodo.size());
+        porPeriodo.forEach((periodo, metricas) -> serie.add(construirPunto(periodo, metricas)));
+        return serie;
+    }
+
+    private PuntoSerieContratosDto construirPunto(LocalDate periodo, Map<String, Long> metricas) {
+        long generados = metricas.getOrDefault(GENERADOS, 0L);
+        long firmados = metricas.getOrDefault(FIRMADOS, 0L);
+        long cancelados = metricas.getOrDefault(CANCELADOS, 0L);
+
+        long[] histograma = new long[TRAMOS_HORAS.length + 1];
+        for (int i = 0; i < TRAMOS_HORAS.length; i++) {
+            histograma[i] = metricas.getOrDefault(FIRMA_HORAS + TRAMOS_HORAS[i], 0L);
+        }
+        histograma[TRAMOS_HORAS.length] = metricas.getOrDefault(FIRMA_HORAS_MAS, 0L);
+
+        return PuntoSerieContratosDto.builder()
+                .periodo(periodo)
+                .generados(generados)
+                .firmados(firmados)
+                .cancelados(cancelados)
+                .tasaCancelacion(generados > 0 ? (double) cancelados / generados : null)
+                .horasFirmaPromedio(firmados > 0 ? metricas.getOrDefault(SEGUNDOS_FIRMA, 0L) / 3600.0 / firmados : null)
+                .horasFirmaP50(percentil(histograma, 0.50))
+                .horasFirmaP90(percentil(histograma, 0.90))
+                .horasFirmaP99(percentil(histograma, 0.99))
+                .build();
+    }
+
+    // Límite superior del tramo que contiene el percentil; null si cae en el último tramo abierto
+    private Long percentil(long[] histograma, double p) {
+        long total = 0;
+        for (long cantidad : histograma) {
+            total += cantidad;
+        }
+        if (total == 0) {
+            return null;
+        }
+        long objetivo = (long) Math.ceil(total * p);
+        long acumulado = 0;
+        for (int i = 0; i < TRAMOS_HORAS.length; i++) {
+            acumulado += histograma[i];
+            if (acumulado >= objetivo) {
+                return TRAMOS_HORAS[i];
+            }
+        }
+        return null;
+    }
+
+    // Misma clasificación que tramoFirma, como expresión SQL sobre una columna de segundos
+    static String tramoFirmaSql(String segundos) {
+        StringBuilder sql = new StringBuilder("CASE");
+        for (long limite : TRAMOS_HORAS) {
+            sql.append(" WHEN ").append(segundos).append(" <= ").append(limite * 3600)
+               .append(" THEN '").append(FIRMA_HORAS).append(limite).append('\'');
+        }
+        return sql.append(" ELSE '").append(FIRMA_HORAS_MAS).append("' END").toString();
+    }
+
+    private String tramoFirma(long segundos) {
+        for (long limite : TRAMOS_HORAS) {
+            if (segundos <= limite * 3600) {
+                return FIRMA_HORAS + limite;
+            }
+        }
+        return FIRMA_HORAS_MAS;
+    }
+}
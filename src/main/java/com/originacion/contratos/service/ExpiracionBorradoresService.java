@@ -0,0 +1,155 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.enums.EstadoContrato;
+import com.originacion.contratos.repository.ContratoRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cancela los contratos DRAFT más antiguos que expiracion-borradores.dias (por fechaGenerado).
+ * Sólo barre un nodo a la vez: el barrido se hace mientras se mantiene un advisory lock de sesión en
+ * una conexión propia (si el nodo cae, Postgres lo libera al cerrarse la conexión). Cada bloque es un
+ * UPDATE por conjunto de hasta tamano-lote filas, con su incremento de rollups, en su propia transacción.
+ * El retraso se mide en todos los nodos en cada ejecución, barran o no.
+ */
+@Service
+@Slf4j
+public class ExpiracionBorradoresService {
+
+    // Clave del advisory lock del barrido ("EXPIRDRA")
+    private static final long CLAVE_BLOQUEO = 0x4558504952445241L;
+
+    private final ContratoRepository contratoRepository;
+    private final EstadisticasContratoService estadisticasService;
+    private final InvalidacionesService invalidaciones;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSource dataSource;
+    private final boolean habilitada;
+    private final int dias;
+    private final int tamanoLote;
+    private final int maxLotes;
+
+    private final Counter cancelados;
+    private final AtomicLong retrasoSegundos = new AtomicLong();
+
+    public ExpiracionBorradoresService(ContratoRepository contratoRepository,
+                                       EstadisticasContratoService estadisticasService,
+                                       InvalidacionesService invalidaciones,
+                                       TransactionTemplate transactionTemplate,
+                                       DataSource dataSource,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${expiracion-borradores.habilitada:false}") boolean habilitada,
+                                       @Value("${expiracion-borradores.dias:30}") int dias,
+                                       @Value("${expiracion-borradores.tamano-lote:500}") int tamanoLote,
+                                       @Value("${expiracion-borradores.max-lotes:200}") int maxLotes) {
+        this.contratoRepository = contratoRepository;
+        this.estadisticasService = estadisticasService;
+        this.invalidaciones = invalidaciones;
+        this.transactionTemplate = transactionTemplate;
+        this.dataSource = dataSource;
+        this.habilitada = habilitada;
+        this.dias = dias;
+        this.tamanoLote = tamanoLote;
+        this.maxLotes = maxLotes;
+
+        this.cancelados = Counter.builder("contratos.expiracion.borradores.cancelados")
+                .description("Contratos DRAFT cancelados por vencimiento")
+                .register(meterRegistry);
+        // Cuánto lleva vencido el DRAFT más antiguo que sigue sin cancelar (0 = al día)
+        Gauge.builder("contratos.expiracion.borradores.retraso", retrasoSegundos, AtomicLong::get)
+                .description("Antigüedad por encima del límite del DRAFT vencido más antiguo")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${expiracion-borradores.cron:0 */10 * * * *}")
+    public void barrer() {
+        if (!habilitada) {
+            return;
+        }
+        LocalDateTime limite = LocalDateTime.now().minusDays(dias);
+        try (Connection bloqueo = dataSource.getConnection()) {
+            if (!ejecutarBooleano(bloqueo, "SELECT pg_try_advisory_lock(?)")) {
+                log.debug("Otro nodo está barriendo los contratos DRAFT vencidos");
+            } else {
+                try {
+                    barrerLotes(limite);
+                } finally {
+                    ejecutarBooleano(bloqueo, "SELECT pg_advisory_unlock(?)");
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("No se pudo obtener el bloqueo del barrido de borradores: {}", e.getMessage());
+        }
+        medirRetraso(limite);
+    }
+
+    // MIN(fechagenerado) de los DRAFT: lo resuelve el índice (estado, fechagenerado) sin recorrerlos
+    private void medirRetraso(LocalDateTime limite) {
+        try {
+            retrasoSegundos.set(contratoRepository.findFechaGeneradoMasAntigua(EstadoContrato.DRAFT)
+                    .map(masAntigua -> Math.max(0, Duration.between(masAntigua, limite).getSeconds()))
+                    .orElse(0L));
+        } catch (RuntimeException e) {
+            log.warn("No se pudo medir el retraso de los borradores vencidos: {}", e.getMessage());
+        }
+    }
+
+    private void barrerLotes(LocalDateTime limite) {
+        String motivo = "CANCELADO: expirado sin firma tras " + dias + " días";
+        long inicio = System.nanoTime();
+        int desde = 0;
+        long total = 0;
+        for (int lote = 0; lote < maxLotes; lote++) {
+            int clave = desde;
+            List<ContratoRepository.ContratoCancelado> bloque = transactionTemplate.execute(status -> {
+                List<ContratoRepository.ContratoCancelado> cancelados =
+                        contratoRepository.cancelarBorradoresVencidos(limite, clave, tamanoLote, motivo);
+                estadisticasService.registrarCancelados(LocalDate.now(), cancelados.size());
+                for (ContratoRepository.ContratoCancelado cancelado : cancelados) {
+                    invalidaciones.publicar(InvalidacionesService.Entidad.CONTRATO, InvalidacionesService.Cambio.MODIFICACION,
+                            cancelado.getIdSolicitud(), cancelado.getVersion());
+                }
+                return cancelados;
+            });
+            if (bloque == null || bloque.isEmpty()) {
+                break;
+            }
+            cancelados.increment(bloque.size());
+            total += bloque.size();
+            desde = bloque.stream().mapToInt(ContratoRepository.ContratoCancelado::getIdContrato).max().getAsInt();
+        }
+
+        if (total > 0) {
+            log.info("Barrido de borradores: {} contratos DRAFT anteriores a {} cancelados en {} ms",
+                    total, limite, (System.nanoTime() - inicio) / 1_000_000);
+        }
+    }
+
+    private static boolean ejecutarBooleano(Connection conexion, String sql) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(sql)) {
+            sentencia.setLong(1, CLAVE_BLOQUEO);
+            try (ResultSet resultado = sentencia.executeQuery()) {
+                return resultado.next() && resultado.getBoolean(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.util.FiltroBloomContador;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Filtros de Bloom en memoria con los IdSolicitud presentes en contratos y pagarés. Un "no" del filtro
+ * es definitivo y se responde sin consultar la base; un "quizá" se confirma con la consulta real.
+ * Se cargan al arrancar con un recorrido en streaming y se reconstruyen periódicamente (recogen
+ * cambios hechos fuera del servicio, como el archivado de particiones). Mientras no hay filtro
+ * cargado todas las consultas van a la base. Las altas de otras instancias llegan por el bus de
+ * invalidaciones; si se pierde la escucha, se reconstruye. Una baja sólo se resta del filtro si la
+ * clave se le agregó por registrar en esta instancia (hasta un máximo por filtro); el resto queda como
+ * falso positivo hasta la próxima reconstrucción.
+ */
+@Service
+@Slf4j
+public class FiltroSolicitudesService implements OyenteInvalidaciones {
+
+    public enum Tabla {
+        CONTRATOS("SELECT idsolicitud FROM gestion_contratos.contratos"),
+        // Pagarés en filas y cronogramas compactos: las dos formas de almacenarlos
+        PAGARES("SELECT idsolicitud FROM gestion_contratos.pagares "
+                + "UNION SELECT idsolicitud FROM gestion_contratos.cronogramas");
+
+        private final String consultaCarga;
+
+        Tabla(String consultaCarga) {
+            this.consultaCarga = consultaCarga;
+        }
+    }
+
+    private final JdbcTemplate jdbcCarga;
+    private final TransactionTemplate transaccionCarga;
+    private final boolean habilitado;
+    private final long elementosMinimos;
+    private final double tasaObjetivo;
+    private final int maxBajasLocales;
+
+    private final Map<Tabla, Estado> estados = new EnumMap<>(Tabla.class);
+    private final AtomicBoolean reconstruyendo = new AtomicBoolean();
+    // Se pidió otra reconstrucción mientras corría una: su recorrido pudo empezar antes del cambio
+    private final AtomicBoolean repetir = new AtomicBoolean();
+    // Cambia con cada descarte: una reconstrucción empezada antes no publica su filtro
+    private final AtomicLong generacion = new AtomicLong();
+
+    public FiltroSolicitudesService(DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${filtro-existencia.habilitado:true}") boolean habilitado,
+                                    @Value("${filtro-existencia.elementos-minimos:1000000}") long elementosMinimos,
+                                    @Value("${filtro-existencia.tasa-falsos-positivos:0.01}") double tasaObjetivo,
+                                    @Value("${filtro-existencia.max-bajas-locales:100000}") int maxBajasLocales) {
+        this.jdbcCarga = new JdbcTemplate(dataSource);
+        this.jdbcCarga.setFetchSize(10_000);
+        // El cursor de pgjdbc sólo se usa dentro de una transacción (autocommit desactivado). No es readOnly
+        // a propósito: con réplica, readOnly iría a ella y una réplica atrasada dejaría fuera altas ya
+        // confirmadas, que el filtro descartaría como inexistentes
+        this.transaccionCarga = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.elementosMinimos = elementosMinimos;
+        this.tasaObjetivo = tasaObjetivo;
+        this.maxBajasLocales = maxBajasLocales;
+
+        for (Tabla tabla : Tabla.values()) {
+            Estado estado = new Estado(meterRegistry, tabla);
+            estados.put(tabla, estado);
+        }
+    }
+
+    // true si la solicitud existe en la tabla; consultaBd sólo se ejecuta si el filtro no la descarta
+    public boolean existe(Tabla tabla, long idSolicitud, BooleanSupplier consultaBd) {
+        Estado estado = estados.get(tabla);
+        Filtro filtro = estado.filtro;
+        if (filtro == null) {
+            return consultaBd.getAsBoolean();
+        }
+        if (!filtro.bloom.puedeContener(idSolicitud)) {
+            estado.negativos.increment();
+            return false;
+        }
+        boolean existe = consultaBd.getAsBoolean();
+        (existe ? estado.positivos : estado.falsosPositivos).increment();
+        return existe;
+    }
+
+    // Se agrega de inmediato: si la transacción se revierte sólo queda un falso positivo
+    public void registrar(Tabla tabla, long idSolicitud) {
+        Estado estado = estados.get(tabla);
+        Filtro filtro = estado.filtro;
+        Filtro enConstruccion = estado.enConstruccion;
+        agregar(filtro, idSolicitud);
+        agregar(enConstruccion, idSolicitud);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        // Si una reconstrucción empezó antes del commit, su recorrido pudo no ver las filas: se agregan
+        // también a los filtros creados entre tanto (una clave contada dos veces no es un problema)
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Filtro actual : new Filtro[]{estado.filtro, estado.enConstruccion}) {
+                    if (actual != filtro && actual != enConstruccion) {
+                        agregar(actual, idSolicitud);
+                    }
+                }
+            }
+        });
+    }
+
+    // Se elimina tras el commit: quitarla antes y revertir dejaría un falso negativo
+    public void eliminarAlConfirmar(Tabla tabla, long idSolicitud) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eliminar(tabla, idSolicitud);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eliminar(tabla, idSolicitud);
+            }
+        });
+    }
+
+    // Altas confirmadas por otras instancias. Las bajas remotas no se restan (no se sabe si la clave llegó
+    // a este filtro y restarla podría vaciar contadores de otras): quedan como falsos positivos
+    @Override
+    public void invalidar(List<InvalidacionesService.Evento> eventos) {
+        for (InvalidacionesService.Evento evento : eventos) {
+            if (evento.cambio() == InvalidacionesService.Cambio.ALTA) {
+                registrar(evento.entidad() == InvalidacionesService.Entidad.CONTRATO ? Tabla.CONTRATOS : Tabla.PAGARES,
+                        evento.idSolicitud());
+            }
+        }
+    }
+
+    @Override
+    public void invalidarTodo() {
+        descartar();
+        repetir.set(true);
+        programarReconstruccion();
+    }
+
+    // Para cargas masivas: en vez de registrar cada alta, se dejan de usar los filtros justo antes de
+    // confirmar (las consultas van a la base) y se reconstruyen cuando la transacción termina
+    public void reconstruirAlConfirmar() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidarTodo();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                descartar();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                invalidarTodo();
+            }
+        });
+    }
+
+    private synchronized void descartar() {
+        generacion.incrementAndGet();
+        for (Estado estado : estados.values()) {
+            estado.filtro = null;
+        }
+    }
+
+    // La primera ejecución carga los filtros al arrancar, en un hilo propio para no ocupar el planificador
+    @Scheduled(initialDelay = 0, fixedDelayString = "${filtro-existencia.reconstruccion-ms:21600000}")
+    public void programarReconstruccion() {
+        if (!habilitado || !reconstruyendo.compareAndSet(false, true)) {
+            return;
+        }
+        repetir.set(false);
+        Thread.ofPlatform().name("filtro-solicitudes").daemon().start(() -> {
+            try {
+                do {
+                    for (Tabla tabla : Tabla.values()) {
+                        reconstruir(tabla);
+                    }
+                } while (repetir.getAndSet(false));
+            } finally {
+                reconstruyendo.set(false);
+            }
+            // Pedida entre la última vuelta y la liberación de la marca
+            if (repetir.get()) {
+                programarReconstruccion();
+            }
+        });
+    }
+
+    void reconstruir(Tabla tabla) {
+        Estado estado = estados.get(tabla);
+        long inicio = System.nanoTime();
+        long generacionInicial = generacion.get();
+        try {
+            long esperados = Math.max(elementosMinimos, estado.ultimosElementos * 2);
+            Filtro nuevo = new Filtro(new FiltroBloomContador(esperados, tasaObjetivo));
+            // Las altas concurrentes van también al nuevo filtro; las bajas no (una baja de una clave
+            // aún no leída podría vaciar contadores de otras), sólo dejan falsos positivos hasta la próxima
+            estado.enConstruccion = nuevo;
+            transaccionCarga.executeWithoutResult(status ->
+                    jdbcCarga.query(tabla.consultaCarga, rs -> {
+                        nuevo.bloom.agregar(rs.getLong(1));
+                    }));
+            if (!publicar(estado, nuevo, generacionInicial)) {
+                log.info("Filtro de existencia de {} descartado durante la carga", tabla);
+                return;
+            }
+            log.info("Filtro de existencia de {} cargado: {} solicitudes, {} KB, {} ms", tabla, nuevo.bloom.elementos(),
+                    nuevo.bloom.memoriaBytes() / 1024, (System.nanoTime() - inicio) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo cargar el filtro de existencia de {}: {}", tabla, e.getMessage());
+        } finally {
+            estado.enConstruccion = null;
+        }
+    }
+
+    private synchronized boolean publicar(Estado estado, Filtro nuevo, long generacionInicial) {
+        if (generacion.get() != generacionInicial) {
+            return false;
+        }
+        estado.filtro = nuevo;
+        estado.ultimosElementos = nuevo.bloom.elementos();
+        return true;
+    }
+
+    // Pasado el máximo las claves ya no se recuerdan: su baja queda como falso positivo
+    private void agregar(Filtro filtro, long idSolicitud) {
+        if (filtro != null) {
+            filtro.bloom.agregar(idSolicitud);
+            if (filtro.registradas.size() < maxBajasLocales) {
+                filtro.registradas.add(idSolicitud);
+            }
+        }
+    }
+
+    // Sólo se resta una clave registrada en este mismo filtro, y una sola vez: las del recorrido de carga
+    // o las de un filtro anterior pueden no haber llegado a él y restarlas vaciaría contadores de otras
+    private void eliminar(Tabla tabla, long idSolicitud) {
+        Filtro filtro = estados.get(tabla).filtro;
+        if (filtro != null && filtro.registradas.remove(idSolicitud)) {
+            filtro.bloom.eliminar(idSolicitud);
+        }
+    }
+
+    // Claves agregadas por registrar (altas locales y remotas), hasta el máximo; se descartan con el filtro
+    // al reconstruir
+    private static final class Filtro {
+
+        private final FiltroBloomContador bloom;
+        private final Set<Long> registradas = ConcurrentHashMap.newKeySet();
+
+        private Filtro(FiltroBloomContador bloom) {
+            this.bloom = bloom;
+        }
+    }
+
+    private static final class Estado {
+
+        private volatile Filtro filtro;
+        private volatile Filtro enConstruccion;
+        // Tamaño del último filtro publicado, para dimensionar el siguiente aunque se haya descartado
+        private volatile long ultimosElementos;
+        private final Counter negativos;
+        private final Counter positivos;
+        private final Counter falsosPositivos;
+
+        private Estado(MeterRegistry meterRegistry, Tabla tabla) {
+            String nombre = tabla.name().toLowerCase();
+            this.negativos = contador(meterRegistry, nombre, "negativo");
+            this.positivos = contador(meterRegistry, nombre, "positivo");
+            this.falsosPositivos = contador(meterRegistry, nombre, "falso-positivo");
+            Gauge.builder("contratos.filtro.existencia.memoria", this, e -> e.filtro == null ? 0 : e.filtro.bloom.memoriaBytes())
+                    .description("Memoria ocupada por el filtro de existencia")
+                    .baseUnit("bytes")
+                    .tag("tabla", nombre)
+                    .register(meterRegistry);
+            Gauge.builder("contratos.filtro.existencia.elementos", this, e -> e.filtro == null ? 0 : e.filtro.bloom.elementos())
+                    .description("Solicitudes registradas en el filtro de existencia")
+                    .tag("tabla", nombre)
+                    .register(meterRegistry);
+            Gauge.builder("contratos.filtro.existencia.falsos.positivos.estimados", this,
+                            e -> e.filtro == null ? 0 : e.filtro.bloom.tasaFalsosPositivosEstimada())
+                    .description("Tasa de falsos positivos estimada por la ocupación del filtro")
+                    .tag("tabla", nombre)
+                    .register(meterRegistry);
+        }
+
+        private static Counter contador(MeterRegistry meterRegistry, String tabla, String resultado) {
+            return Counter.builder("contratos.filtro.existencia.consultas")
+                    .description("Consultas de existencia por IdSolicitud según la respuesta del filtro")
+                    .tag("tabla", tabla)
+                    .tag("resultado", resultado)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.originacion.contratos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.originacion.contratos.exception.PagareGenerationException;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+// GENERAR_PAGARES: {"idSolicitud":..,"monto":..,"tasa":..,"plazo":..}. Si el cronograma ya existe
+// (reintento tras vencer la visibilidad) se da por completado.
+@Component
+@Slf4j
+public class GeneracionPagaresTrabajo implements ManejadorTrabajo {
+
+    public static final String TIPO = "GENERAR_PAGARES";
+
+    public record Carga(Long idSolicitud, BigDecimal monto, BigDecimal tasa, Short plazo) {
+    }
+
+    private final PagareService pagareService;
+    private final ObjectMapper objectMapper;
+
+    public GeneracionPagaresTrabajo(PagareService pagareService, ObjectMapper objectMapper) {
+        this.pagareService = pagareService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String tipo() {
+        return TIPO;
+    }
+
+    @Override
+    public void ejecutar(String carga) throws Exception {
+        Carga datos = objectMapper.readValue(carga, Carga.class);
+        if (pagareService.existenPagaresPorSolicitud(datos.idSolicitud())) {
+            log.info("Pagarés de la solicitud {} ya generados, trabajo completado", datos.idSolicitud());
+            return;
+        }
+        try {
+            pagareService.generarPagaresDesdeCuotasFallback(datos.idSolicitud(), datos.monto(), datos.tasa(), datos.plazo());
+        } catch (PagareGenerationException e) {
+            // Otra instancia pudo generarlos entre la comprobación y el alta
+            if (!pagareService.existenPagaresPorSolicitud(datos.idSolicitud())) {
+                throw e;
+            }
+        }
+    }
+}
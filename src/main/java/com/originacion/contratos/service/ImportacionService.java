@@ -0,0 +1,354 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.dto.RechazoImportacionDto;
+import com.originacion.contratos.dto.ResultadoImportacionDto;
+import com.originacion.contratos.enums.EstadoContrato;
+import com.originacion.contratos.enums.FormatoImportacion;
+import com.originacion.contratos.exception.BusinessLogicException;
+import com.originacion.contratos.model.RollupContrato;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de contratos y pagarés heredados. El archivo se copia tal cual con COPY a una tabla
+ * temporal de texto (ON COMMIT DROP) y desde ahí todo es por conjuntos: validación de tipos y reglas,
+ * tipado de las filas válidas, eliminación de repetidos por idSolicitud (gana la última fila) y un único
+ * INSERT ... ON CONFLICT DO NOTHING sobre la tabla real. Todo el archivo es una sola transacción: o entra
+ * lo válido o nada.
+ * La validación usa pg_input_is_valid, así que requiere PostgreSQL 16 o superior.
+ */
+@Service
+@Slf4j
+public class ImportacionService {
+
+    private static final String OPERACION = "IMPORTACION";
+
+    // Tamaño de los bloques que se envían al COPY
+    private static final int TAMANO_BLOQUE_COPY = 64 * 1024;
+
+    private static final String ESTADOS = Arrays.stream(EstadoContrato.values())
+            .map(e -> "'" + e.name() + "'")
+            .collect(Collectors.joining(", "));
+
+    private static final Destino CONTRATOS = new Destino(
+            FiltroSolicitudesService.Tabla.CONTRATOS,
+            List.of("idsolicitud", "rutaarchivo", "fechagenerado", "fechafirma", "estado", "condicionespecial"),
+            List.of("idSolicitud", "rutaArchivo", "fechaGenerado", "fechaFirma", "estado", "condicionEspecial"),
+            "idsolicitud integer, rutaarchivo text, fechagenerado timestamp, fechafirma timestamp, "
+                    + "estado text, condicionespecial text",
+            "CASE"
+                    + " WHEN idsolicitud IS NULL THEN 'falta idSolicitud'"
+                    + " WHEN NOT pg_input_is_valid(idsolicitud, 'integer') THEN 'idSolicitud no es un entero'"
+                    + " WHEN idsolicitud::integer <= 0 THEN 'idSolicitud debe ser positivo'"
+                    + " WHEN rutaarchivo IS NULL THEN 'falta rutaArchivo'"
+                    + " WHEN length(rutaarchivo) > 150 THEN 'rutaArchivo supera 150 caracteres'"
+                    + " WHEN fechagenerado IS NULL THEN 'falta fechaGenerado'"
+                    + " WHEN NOT pg_input_is_valid(fechagenerado, 'timestamp') THEN 'fechaGenerado no es una fecha válida'"
+                    + " WHEN fechafirma IS NOT NULL AND NOT pg_input_is_valid(fechafirma, 'timestamp')"
+                    + " THEN 'fechaFirma no es una fecha válida'"
+                    + " WHEN estado IS NULL OR estado NOT IN (" + ESTADOS + ") THEN 'estado desconocido'"
+                    + " WHEN estado = '" + EstadoContrato.FIRMADO.name() + "' AND fechafirma IS NULL"
+                    + " THEN 'un contrato FIRMADO requiere fechaFirma'"
+                    + " WHEN length(condicionespecial) > 120 THEN 'condicionEspecial supera 120 caracteres'"
+                    + " END",
+            "idsolicitud::integer, rutaarchivo, fechagenerado::timestamp, fechafirma::timestamp, estado, condicionespecial",
+            // Los rollups se incrementan en la misma sentencia, sólo por los contratos realmente insertados.
+            // Los CANCELADOS cuentan como generados pero no como cancelados: el archivo no trae la fecha
+            // de cancelación
+            "WITH insertados AS ("
+                    + " INSERT INTO gestion_contratos.contratos"
+                    + " (idsolicitud, rutaarchivo, fechagenerado, fechafirma, estado, condicionespecial, version)"
+                    + " SELECT DISTINCT ON (idsolicitud)"
+                    + " idsolicitud, rutaarchivo, fechagenerado, fechafirma, estado, condicionespecial, 1"
+                    + " FROM importacion_validas ORDER BY idsolicitud, fila DESC"
+                    + " ON CONFLICT (idsolicitud) DO NOTHING"
+                    + " RETURNING idsolicitud, fechagenerado, fechafirma, estado),"
+                    + " firmados AS ("
+                    + " SELECT fechafirma::date AS fecha,"
+                    + " greatest(0, extract(epoch FROM fechafirma - fechagenerado))::bigint AS segundos"
+                    + " FROM insertados WHERE estado = '" + EstadoContrato.FIRMADO.name() + "'),"
+                    + " rollups AS ("
+                    + " INSERT INTO gestion_contratos.rollups_contratos (fecha, metrica, franja, cantidad)"
+                    + " SELECT fecha, metrica, floor(random() * " + RollupContrato.FRANJAS + ")::smallint,"
+                    + " sum(cantidad)::bigint FROM ("
+                    + " SELECT fechagenerado::date AS fecha, '" + EstadisticasContratoService.GENERADOS + "' AS metrica,"
+                    + " 1::bigint AS cantidad FROM insertados"
+                    + " UNION ALL SELECT fecha, '" + EstadisticasContratoService.FIRMADOS + "', 1 FROM firmados"
+                    + " UNION ALL SELECT fecha, '" + EstadisticasContratoService.SEGUNDOS_FIRMA + "', segundos FROM firmados"
+                    + " UNION ALL SELECT fecha, " + EstadisticasContratoService.tramoFirmaSql("segundos") + ", 1 FROM firmados"
+                    + " ) m GROUP BY fecha, metrica"
+                    + " ON CONFLICT (fecha, metrica, franja) DO UPDATE SET cantidad = rollups_contratos.cantidad + EXCLUDED.cantidad)"
+                    + " SELECT count(*) FROM insertados");
+
+    private static final Destino PAGARES = new Destino(
+            FiltroSolicitudesService.Tabla.PAGARES,
+            List.of("idsolicitud", "numerocuota", "rutaarchivo", "fechagenerado", "activo"),
+            List.of("idSolicitud", "numeroCuota", "rutaArchivo", "fechaGenerado", "activo"),
+            "idsolicitud bigint, numerocuota integer, rutaarchivo text, fechagenerado timestamp, activo boolean",
+            "CASE"
+                    + " WHEN idsolicitud IS NULL THEN 'falta idSolicitud'"
+                    + " WHEN NOT pg_input_is_valid(idsolicitud, 'bigint') THEN 'idSolicitud no es un entero'"
+                    + " WHEN idsolicitud::bigint <= 0 THEN 'idSolicitud debe ser positivo'"
+                    + " WHEN numerocuota IS NULL THEN 'falta numeroCuota'"
+                    + " WHEN NOT pg_input_is_valid(numerocuota, 'integer') THEN 'numeroCuota no es un entero'"
+                    + " WHEN numerocuota::integer NOT BETWEEN 1 AND 999 THEN 'numeroCuota fuera de rango (1-999)'"
+                    + " WHEN rutaarchivo IS NULL THEN 'falta rutaArchivo'"
+                    + " WHEN length(rutaarchivo) > 150 THEN 'rutaArchivo supera 150 caracteres'"
+                    + " WHEN fechagenerado IS NULL THEN 'falta fechaGenerado'"
+                    + " WHEN NOT pg_input_is_valid(fechagenerado, 'timestamp') THEN 'fechaGenerado no es una fecha válida'"
+                    + " WHEN activo IS NOT NULL AND NOT pg_input_is_valid(activo, 'boolean') THEN 'activo no es booleano'"
+                    + " END",
+            "idsolicitud::bigint, numerocuota::integer, rutaarchivo, fechagenerado::timestamp, coalesce(activo::boolean, true)",
+            // Un cronograma se importa completo o no se toca: las solicitudes que ya tienen pagarés (en filas
+            // o compactos) se omiten enteras en lugar de completarse cuota a cuota
+            "WITH insertados AS ("
+                    + " INSERT INTO gestion_contratos.pagares"
+                    + " (idsolicitud, numerocuota, rutaarchivo, fechagenerado, activo, version)"
+                    + " SELECT DISTINCT ON (v.idsolicitud, v.numerocuota)"
+                    + " v.idsolicitud, v.numerocuota, v.rutaarchivo, v.fechagenerado, v.activo, 0"
+                    + " FROM importacion_validas v"
+                    + " WHERE NOT EXISTS (SELECT 1 FROM gestion_contratos.pagares p WHERE p.idsolicitud = v.idsolicitud)"
+                    + " AND NOT EXISTS (SELECT 1 FROM gestion_contratos.cronogramas c WHERE c.idsolicitud = v.idsolicitud)"
+                    + " ORDER BY v.idsolicitud, v.numerocuota, v.fila DESC"
+                    + " ON CONFLICT (idsolicitud, numerocuota) DO NOTHING"
+                    + " RETURNING idsolicitud)"
+                    + " SELECT count(*) FROM insertados");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FiltroSolicitudesService filtroSolicitudes;
+    private final InvalidacionesService invalidaciones;
+    private final MeterRegistry meterRegistry;
+    private final int maxRechazosInformados;
+
+    public ImportacionService(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              FiltroSolicitudesService filtroSolicitudes,
+                              InvalidacionesService invalidaciones,
+                              MeterRegistry meterRegistry,
+                              @Value("${importacion.max-rechazos-informados:100}") int maxRechazosInformados) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.filtroSolicitudes = filtroSolicitudes;
+        this.invalidaciones = invalidaciones;
+        this.meterRegistry = meterRegistry;
+        this.maxRechazosInformados = maxRechazosInformados;
+    }
+
+    public ResultadoImportacionDto importarContratos(InputStream datos, FormatoImportacion formato) {
+        return importar(CONTRATOS, datos, formato);
+    }
+
+    public ResultadoImportacionDto importarPagares(InputStream datos, FormatoImportacion formato) {
+        return importar(PAGARES, datos, formato);
+    }
+
+    private ResultadoImportacionDto importar(Destino destino, InputStream datos, FormatoImportacion formato) {
+        log.info("Importando {} desde {}", destino.tabla(), formato);
+        long inicio = System.nanoTime();
+
+        ResultadoImportacionDto resultado = transactionTemplate.execute(status -> {
+            crearTablasTemporales(destino);
+            long leidas = formato == FormatoImportacion.CSV
+                    ? copiar("COPY importacion_filas (" + String.join(", ", destino.columnas())
+                            + ") FROM STDIN WITH (FORMAT csv, HEADER true)", datos)
+                    : copiarNdjson(destino, datos);
+
+            jdbcTemplate.update("INSERT INTO importacion_rechazos (fila, motivo)"
+                    + " SELECT fila, motivo FROM (SELECT fila, " + destino.validacion() + " AS motivo"
+                    + " FROM importacion_filas) v WHERE motivo IS NOT NULL");
+            // Las conversiones van en la lista de selección, que sólo se evalúa para las filas que pasan el filtro
+            long validas = jdbcTemplate.update("INSERT INTO importacion_validas"
+                    + " SELECT fila, " + destino.tipado() + " FROM importacion_filas f"
+                    + " WHERE NOT EXISTS (SELECT 1 FROM importacion_rechazos r WHERE r.fila = f.fila)");
+
+            Long insertadas = jdbcTemplate.queryForObject(destino.fusion(), Long.class);
+            // Un único aviso para toda la carga en lugar de uno por fila: los filtros de existencia se
+            // reconstruyen al confirmar y las demás instancias reciben una invalidación total
+            filtroSolicitudes.reconstruirAlConfirmar();
+            invalidaciones.publicarTodo();
+
+            Long rechazadas = jdbcTemplate.queryForObject("SELECT count(*) FROM importacion_rechazos", Long.class);
+            List<RechazoImportacionDto> rechazos = jdbcTemplate.query(
+                    "SELECT fila, motivo FROM importacion_rechazos ORDER BY fila LIMIT ?",
+                    (rs, i) -> new RechazoImportacionDto(rs.getLong("fila"), rs.getString("motivo")),
+                    maxRechazosInformados);
+
+            return ResultadoImportacionDto.builder()
+                    .tabla(destino.tabla().name())
+                    .formato(formato.name())
+                    .leidas(leidas)
+                    .insertadas(insertadas)
+                    .duplicadas(validas - insertadas)
+                    .rechazadas(rechazadas)
+                    .rechazos(rechazos)
+                    .build();
+        });
+
+        long nanos = System.nanoTime() - inicio;
+        resultado.setMilisegundos(nanos / 1_000_000);
+        resultado.setFilasPorSegundo(nanos == 0 ? 0 : resultado.getLeidas() * 1_000_000_000L / nanos);
+        registrarMetricas(resultado, nanos);
+        log.info("Importación de {} terminada: {} leídas, {} insertadas, {} duplicadas, {} rechazadas en {} ms ({} filas/s)",
+                resultado.getTabla(), resultado.getLeidas(), resultado.getInsertadas(), resultado.getDuplicadas(),
+                resultado.getRechazadas(), resultado.getMilisegundos(), resultado.getFilasPorSegundo());
+        return resultado;
+    }
+
+    private void crearTablasTemporales(Destino destino) {
+        String columnasTexto = destino.columnas().stream()
+                .map(c -> c + " text")
+                .collect(Collectors.joining(", "));
+        jdbcTemplate.execute("CREATE TEMP TABLE importacion_filas (fila bigserial, " + columnasTexto + ") ON COMMIT DROP");
+        jdbcTemplate.execute("CREATE TEMP TABLE importacion_validas (fila bigint, " + destino.columnasTipadas()
+                + ") ON COMMIT DROP");
+        jdbcTemplate.execute("CREATE TEMP TABLE importacion_rechazos (fila bigint, motivo text) ON COMMIT DROP");
+    }
+
+    // CSV: el cuerpo de la petición va directo al COPY, sin pasar por memoria
+    private long copiar(String sql, InputStream datos) {
+        return ejecutarCopia(copia -> copia.copyIn(sql, datos, TAMANO_BLOQUE_COPY));
+    }
+
+    // NDJSON: cada línea se copia como texto con su número de línea y se convierte a columnas en la base;
+    // las líneas que no son JSON válido quedan como rechazos
+    private long copiarNdjson(Destino destino, InputStream datos) {
+        jdbcTemplate.execute("CREATE TEMP TABLE importacion_lineas (fila bigint, linea text) ON COMMIT DROP");
+        long leidas = ejecutarCopia(copia -> {
+            CopyIn copyIn = copia.copyIn("COPY importacion_lineas (fila, linea) FROM STDIN");
+            try {
+                BufferedReader lector = new BufferedReader(new InputStreamReader(datos, StandardCharsets.UTF_8));
+                ByteArrayOutputStream bloque = new ByteArrayOutputStream(TAMANO_BLOQUE_COPY + 1024);
+                StringBuilder fila = new StringBuilder();
+                long numero = 0;
+                String linea;
+                while ((linea = lector.readLine()) != null) {
+                    numero++;
+                    if (linea.isBlank()) {
+                        continue;
+                    }
+                    fila.setLength(0);
+                    fila.append(numero).append('\t');
+                    escaparTextoCopy(linea, fila);
+                    fila.append('\n');
+                    bloque.writeBytes(fila.toString().getBytes(StandardCharsets.UTF_8));
+                    if (bloque.size() >= TAMANO_BLOQUE_COPY) {
+                        copyIn.writeToCopy(bloque.toByteArray(), 0, bloque.size());
+                        bloque.reset();
+                    }
+                }
+                if (bloque.size() > 0) {
+                    copyIn.writeToCopy(bloque.toByteArray(), 0, bloque.size());
+                }
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+
+        jdbcTemplate.update("INSERT INTO importacion_rechazos (fila, motivo)"
+                + " SELECT fila, 'la línea no es JSON válido' FROM importacion_lineas"
+                + " WHERE NOT pg_input_is_valid(linea, 'jsonb')");
+        String campos = destino.camposJson().stream()
+                .map(c -> "j->>'" + c + "'")
+                .collect(Collectors.joining(", "));
+        jdbcTemplate.update("INSERT INTO importacion_filas (fila, " + String.join(", ", destino.columnas()) + ")"
+                + " SELECT fila, " + campos + " FROM (SELECT fila, linea::jsonb AS j FROM importacion_lineas"
+                + " WHERE pg_input_is_valid(linea, 'jsonb')) l");
+        return leidas;
+    }
+
+    // Formato texto de COPY: la barra invertida, el tabulador y los saltos de línea van escapados
+    static void escaparTextoCopy(String linea, StringBuilder destino) {
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            switch (c) {
+                case '\\' -> destino.append("\\\\");
+                case '\t' -> destino.append("\\t");
+                case '\r' -> destino.append("\\r");
+                case '\n' -> destino.append("\\n");
+                default -> destino.append(c);
+            }
+        }
+    }
+
+    private long ejecutarCopia(OperacionCopia operacion) {
+        try {
+            Long filas = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+                CopyManager copia = con.unwrap(PGConnection.class).getCopyAPI();
+                try {
+                    return operacion.ejecutar(copia);
+                } catch (IOException e) {
+                    throw new BusinessLogicException(OPERACION, "No se pudo leer el archivo: " + e.getMessage());
+                }
+            });
+            return filas == null ? 0 : filas;
+        } catch (DataAccessException e) {
+            // Errores de formato del archivo (columnas de más o de menos, comillas sin cerrar, ...);
+            // el mensaje de Postgres indica la línea
+            throw new BusinessLogicException(OPERACION, "El archivo no tiene el formato esperado: "
+                    + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+
+    private void registrarMetricas(ResultadoImportacionDto resultado, long nanos) {
+        Timer.builder("contratos.importacion")
+                .description("Duración de las importaciones masivas")
+                .tag("tabla", resultado.getTabla())
+                .tag("formato", resultado.getFormato())
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        contarFilas(resultado.getTabla(), "insertadas", resultado.getInsertadas());
+        contarFilas(resultado.getTabla(), "duplicadas", resultado.getDuplicadas());
+        contarFilas(resultado.getTabla(), "rechazadas", resultado.getRechazadas());
+    }
+
+    private void contarFilas(String tabla, String resultado, long cantidad) {
+        meterRegistry.counter("contratos.importacion.filas", "tabla", tabla, "resultado", resultado)
+                .increment(cantidad);
+    }
+
+    @FunctionalInterface
+    private interface OperacionCopia {
+        long ejecutar(CopyManager copia) throws SQLException, IOException;
+    }
+
+    /**
+     * Columnas del archivo (en el orden del CSV) y las sentencias propias de cada tabla de destino.
+     * La fusión devuelve el total de filas insertadas.
+     */
+    private record Destino(FiltroSolicitudesService.Tabla tabla,
+                           List<String> columnas,
+                           List<String> camposJson,
+                           String columnasTipadas,
+                           String validacion,
+                           String tipado,
+                           String fusion) {
+    }
+}
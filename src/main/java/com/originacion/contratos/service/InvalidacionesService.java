@@ -0,0 +1,390 @@
+package com.originacion.contratos.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Bus de invalidación entre instancias sobre LISTEN/NOTIFY de Postgres. Los cambios de contratos y
+ * pagarés se acumulan durante la transacción y se publican con pg_notify justo antes del commit, en
+ * pocos mensajes (varios eventos por mensaje); como NOTIFY es transaccional, sólo llegan si el commit
+ * se confirma. Cada instancia escucha el canal en una conexión propia y reparte los eventos de las
+ * demás a los OyenteInvalidaciones. Al (re)conectar se pide a los oyentes que descarten todo, porque
+ * lo confirmado mientras no se escuchaba no se recibe nunca.
+ */
+@Service
+@Slf4j
+public class InvalidacionesService {
+
+    public enum Entidad {
+        CONTRATO('C'),
+        PAGARE('P');
+
+        private final char codigo;
+
+        Entidad(char codigo) {
+            this.codigo = codigo;
+        }
+    }
+
+    public enum Cambio {
+        ALTA('+'),
+        MODIFICACION('~'),
+        BAJA('-');
+
+        private final char codigo;
+
+        Cambio(char codigo) {
+            this.codigo = codigo;
+        }
+    }
+
+    // Los pagarés se identifican por su solicitud: es la clave con la que se leen y se cachean
+    public record Evento(Entidad entidad, Cambio cambio, long idSolicitud, long version) {
+    }
+
+    // pg_notify admite cargas de hasta 8000 bytes; los mensajes son ASCII
+    static final int MAX_CARGA = 7800;
+    private static final String NOTIFICAR = "SELECT pg_notify(?, ?)";
+    // Carga que pide descartar todo el estado local
+    private static final String TODO = "*";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final EntityManager entityManager;
+    private final ObjectProvider<OyenteInvalidaciones> oyentes;
+    private final boolean habilitadas;
+    private final String canal;
+    private final int esperaMs;
+    private final long reintentoMs;
+    private final String instancia = UUID.randomUUID().toString().substring(0, 8);
+
+    private final Counter eventosPublicados;
+    private final Counter eventosRecibidos;
+    private final Counter notificaciones;
+    private final Counter reconexiones;
+    private final AtomicBoolean escuchando = new AtomicBoolean();
+
+    private volatile boolean detenido;
+    private Thread hilo;
+
+    public InvalidacionesService(JdbcTemplate jdbcTemplate,
+                                 DataSource dataSource,
+                                 EntityManager entityManager,
+                                 ObjectProvider<OyenteInvalidaciones> oyentes,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${invalidaciones.habilitadas:true}") boolean habilitadas,
+                                 @Value("${invalidaciones.canal:contratos_invalidaciones}") String canal,
+                                 @Value("${invalidaciones.espera-ms:5000}") int esperaMs,
+                                 @Value("${invalidaciones.reintento-ms:2000}") long reintentoMs) {
+        if (!canal.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Nombre de canal de invalidaciones inválido: " + canal);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.entityManager = entityManager;
+        this.oyentes = oyentes;
+        this.habilitadas = habilitadas;
+        this.canal = canal;
+        this.esperaMs = esperaMs;
+        this.reintentoMs = reintentoMs;
+
+        this.eventosPublicados = contador(meterRegistry, "publicados");
+        this.eventosRecibidos = contador(meterRegistry, "recibidos");
+        this.notificaciones = Counter.builder("contratos.invalidaciones.notificaciones")
+                .description("Mensajes pg_notify enviados (cada uno agrupa varios eventos)")
+                .register(meterRegistry);
+        this.reconexiones = Counter.builder("contratos.invalidaciones.reconexiones")
+                .description("Reconexiones de la escucha; cada una invalida todo el estado local")
+                .register(meterRegistry);
+        Gauge.builder("contratos.invalidaciones.escuchando", escuchando, e -> e.get() ? 1 : 0)
+                .description("1 si la instancia está escuchando el canal de invalidaciones")
+                .register(meterRegistry);
+    }
+
+    public void publicar(Entidad entidad, Cambio cambio, long idSolicitud, long version) {
+        publicar(entidad, cambio, idSolicitud, () -> version);
+    }
+
+    // La versión se lee justo antes del commit, tras el flush: un save() todavía no la ha incrementado
+    public void publicar(Entidad entidad, Cambio cambio, long idSolicitud, Supplier<Long> version) {
+        if (!habilitadas) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enviar(List.of(new Pendiente(entidad, cambio, idSolicitud, version)));
+            return;
+        }
+        lote().agregar(new Pendiente(entidad, cambio, idSolicitud, version));
+    }
+
+    // Cambios masivos (importación): un solo aviso para que las demás instancias descarten todo, en lugar
+    // de un evento por solicitud. Sustituye a los eventos sueltos de la misma transacción
+    public void publicarTodo() {
+        if (!habilitadas) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            notificar(instancia + '|' + TODO);
+            eventosPublicados.increment();
+            return;
+        }
+        lote().todo = true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (habilitadas) {
+            hilo = Thread.ofPlatform().name("invalidaciones").daemon().start(this::escuchar);
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        detenido = true;
+        if (hilo != null) {
+            hilo.interrupt();
+        }
+    }
+
+    private Lote lote() {
+        Lote lote = (Lote) TransactionSynchronizationManager.getResource(this);
+        if (lote == null) {
+            lote = new Lote();
+            TransactionSynchronizationManager.bindResource(this, lote);
+            TransactionSynchronizationManager.registerSynchronization(lote);
+        }
+        return lote;
+    }
+
+    private void enviar(Collection<Pendiente> pendientes) {
+        cargas(instancia, pendientes, MAX_CARGA).forEach(this::notificar);
+        eventosPublicados.increment(pendientes.size());
+    }
+
+    // Mensajes "instancia|evento,evento,..." de hasta maxCarga caracteres; la versión se lee aquí
+    static List<String> cargas(String instancia, Collection<Pendiente> pendientes, int maxCarga) {
+        List<String> cargas = new ArrayList<>();
+        StringBuilder carga = new StringBuilder(maxCarga + 64);
+        for (Pendiente pendiente : pendientes) {
+            Long version = pendiente.version().get();
+            int inicio = carga.length();
+            if (inicio == 0) {
+                carga.append(instancia).append('|');
+            } else {
+                carga.append(',');
+            }
+            carga.append(pendiente.entidad().codigo).append(pendiente.cambio().codigo)
+                 .append(pendiente.idSolicitud()).append(':').append(version == null ? 0 : version);
+            if (carga.length() > maxCarga) {
+                // No cabe: se envía lo anterior y el evento abre el siguiente mensaje
+                String evento = carga.substring(inicio + 1);
+                carga.setLength(inicio);
+                cargas.add(carga.toString());
+                carga.setLength(0);
+                carga.append(instancia).append('|').append(evento);
+            }
+        }
+        if (!carga.isEmpty()) {
+            cargas.add(carga.toString());
+        }
+        return cargas;
+    }
+
+    private void notificar(String carga) {
+        jdbcTemplate.query(NOTIFICAR, (ResultSetExtractor<Void>) rs -> null, canal, carga);
+        notificaciones.increment();
+    }
+
+    private void escuchar() {
+        while (!detenido) {
+            try (Connection conexion = dataSource.getConnection()) {
+                conexion.setAutoCommit(true);
+                PGConnection pg = conexion.unwrap(PGConnection.class);
+                ejecutar(conexion, "LISTEN " + canal);
+                escuchando.set(true);
+                log.info("Escuchando invalidaciones en el canal {} (instancia {})", canal, instancia);
+                // Lo confirmado antes de empezar a escuchar (arranque o caída) no va a llegar
+                invalidarTodo();
+                try {
+                    while (!detenido) {
+                        PGNotification[] recibidas = pg.getNotifications(esperaMs);
+                        if (recibidas == null || recibidas.length == 0) {
+                            // Sin tráfico: una consulta mínima detecta la conexión caída
+                            ejecutar(conexion, "SELECT 1");
+                        } else {
+                            despachar(recibidas);
+                        }
+                    }
+                } finally {
+                    escuchando.set(false);
+                    // La conexión vuelve al pool y no debe seguir suscrita
+                    try {
+                        ejecutar(conexion, "UNLISTEN *");
+                    } catch (SQLException ignorada) {
+                        // conexión rota: el pool la descarta
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (detenido) {
+                    break;
+                }
+                reconexiones.increment();
+                log.warn("Se perdió la escucha de invalidaciones: {}; reintento en {} ms", e.getMessage(), reintentoMs);
+                try {
+                    Thread.sleep(reintentoMs);
+                } catch (InterruptedException interrumpido) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    private void despachar(PGNotification[] recibidas) {
+        List<Evento> eventos = new ArrayList<>();
+        for (PGNotification notificacion : recibidas) {
+            String carga = notificacion.getParameter();
+            int separador = carga.indexOf('|');
+            if (separador < 0 || carga.startsWith(instancia + "|")) {
+                continue;
+            }
+            if (TODO.equals(carga.substring(separador + 1))) {
+                // Los eventos sueltos que lleguen con él quedan cubiertos
+                eventosRecibidos.increment();
+                invalidarTodo();
+                return;
+            }
+            for (String evento : carga.substring(separador + 1).split(",")) {
+                Evento leido = leer(evento);
+                if (leido != null) {
+                    eventos.add(leido);
+                }
+            }
+        }
+        if (eventos.isEmpty()) {
+            return;
+        }
+        eventosRecibidos.increment(eventos.size());
+        oyentes.orderedStream().forEach(oyente -> {
+            try {
+                oyente.invalidar(eventos);
+            } catch (RuntimeException e) {
+                log.warn("El oyente {} falló al aplicar {} invalidaciones: {}",
+                        oyente.getClass().getSimpleName(), eventos.size(), e.getMessage());
+            }
+        });
+    }
+
+    private void invalidarTodo() {
+        oyentes.orderedStream().forEach(oyente -> {
+            try {
+                oyente.invalidarTodo();
+            } catch (RuntimeException e) {
+                log.warn("El oyente {} falló al invalidar todo: {}", oyente.getClass().getSimpleName(), e.getMessage());
+            }
+        });
+    }
+
+    static Evento leer(String evento) {
+        try {
+            Entidad entidad = evento.charAt(0) == Entidad.CONTRATO.codigo ? Entidad.CONTRATO : Entidad.PAGARE;
+            Cambio cambio = switch (evento.charAt(1)) {
+                case '+' -> Cambio.ALTA;
+                case '-' -> Cambio.BAJA;
+                default -> Cambio.MODIFICACION;
+            };
+            int dosPuntos = evento.indexOf(':');
+            return new Evento(entidad, cambio, Long.parseLong(evento.substring(2, dosPuntos)),
+                    Long.parseLong(evento.substring(dosPuntos + 1)));
+        } catch (RuntimeException e) {
+            log.warn("Evento de invalidación ilegible: {}", evento);
+            return null;
+        }
+    }
+
+    private static void ejecutar(Connection conexion, String sql) throws SQLException {
+        try (Statement sentencia = conexion.createStatement()) {
+            sentencia.execute(sql);
+        }
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String sentido) {
+        return Counter.builder("contratos.invalidaciones.eventos")
+                .description("Eventos de invalidación publicados y recibidos de otras instancias")
+                .tag("sentido", sentido)
+                .register(meterRegistry);
+    }
+
+    record Pendiente(Entidad entidad, Cambio cambio, long idSolicitud, Supplier<Long> version) {
+    }
+
+    // Dos cambios de la misma fila en una transacción: vale el último, salvo que una modificación no
+    // borra que la fila es nueva
+    static Pendiente fusionar(Pendiente anterior, Pendiente nuevo) {
+        return anterior.cambio() == Cambio.ALTA && nuevo.cambio() == Cambio.MODIFICACION
+                ? new Pendiente(nuevo.entidad(), Cambio.ALTA, nuevo.idSolicitud(), nuevo.version())
+                : nuevo;
+    }
+
+    private record Clave(Entidad entidad, long idSolicitud) {
+    }
+
+    // Eventos de la transacción en curso; uno por entidad y solicitud (ver fusionar)
+    private final class Lote implements TransactionSynchronization {
+
+        private final Map<Clave, Pendiente> pendientes = new LinkedHashMap<>();
+        private boolean todo;
+
+        private void agregar(Pendiente pendiente) {
+            pendientes.merge(new Clave(pendiente.entidad(), pendiente.idSolicitud()), pendiente,
+                    InvalidacionesService::fusionar);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (todo) {
+                notificar(instancia + '|' + TODO);
+                eventosPublicados.increment();
+                return;
+            }
+            if (pendientes.isEmpty()) {
+                return;
+            }
+            entityManager.flush();
+            enviar(pendientes.values());
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(InvalidacionesService.this);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.originacion.contratos.service;
+
+// Ejecuta los trabajos de un tipo de la cola. Una excepción provoca un reintento con espera creciente.
+// Debe ser idempotente: un trabajo cuya visibilidad vence puede ejecutarse más de una vez.
+public interface ManejadorTrabajo {
+
+    String tipo();
+
+    void ejecutar(String carga) throws Exception;
+}
@@ -0,0 +1,14 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.enums.TipoOperacionDiferida;
+
+import java.time.LocalDateTime;
+
+// Mutación aceptada en modo asíncrono, tal como queda registrada en el diario local.
+record OperacionDiferida(String id, TipoOperacionDiferida tipo, Long entidadId, String argumento,
+                         LocalDateTime fechaEncolada) {
+
+    String claveEntidad() {
+        return tipo.getEntidad() + ":" + entidadId;
+    }
+}
@@ -0,0 +1,16 @@
+package com.originacion.contratos.service;
+
+import java.util.List;
+
+/**
+ * Estado en memoria de contratos o pagarés que debe reaccionar a los cambios confirmados por otras
+ * instancias. Se invoca desde el hilo de escucha de InvalidacionesService, así que debe ser rápido.
+ */
+public interface OyenteInvalidaciones {
+
+    // Cambios confirmados por otra instancia, en el orden en que llegaron
+    void invalidar(List<InvalidacionesService.Evento> eventos);
+
+    // Se pudieron perder notificaciones (reconexión): hay que descartar o recargar todo
+    void invalidarTodo();
+}
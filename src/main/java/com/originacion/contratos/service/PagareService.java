@@ -1,39 +1,84 @@
 package com.originacion.contratos.service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.originacion.contratos.dto.CuotaDto;
 import com.originacion.contratos.dto.PagareDto;
 import com.originacion.contratos.dto.PagareUpdateDto;
+import com.originacion.contratos.dto.ResultadoLoteDto;
+import com.originacion.contratos.enums.AlmacenamientoPagares;
 import com.originacion.contratos.exception.PagareGenerationException;
 import com.originacion.contratos.mapper.PagareMapper;
 import com.originacion.contratos.model.Pagare;
 import com.originacion.contratos.repository.PagareRepository;
+import com.originacion.contratos.util.Lotes;
+import com.originacion.contratos.util.SingleFlight;
+import com.originacion.contratos.util.TiempoLimite;
+import com.originacion.contratos.util.Trazas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.annotation.Observed;
 
 @Service
+@Observed(name = "contratos.servicio")
 public class PagareService {
 
     private final PagareRepository pagareRepository;
     private final PagareMapper pagareMapper;
+    private final TablaAmortizacion tablaAmortizacion;
+    private final FiltroSolicitudesService filtroSolicitudes;
+    private final InvalidacionesService invalidaciones;
+    private final CronogramaCompactoService cronogramaCompacto;
+    private final AlmacenamientoPagares almacenamiento;
+    private final SingleFlight<Long, List<PagareDto>> cronogramasEnVuelo;
+    private final ObservationRegistry observationRegistry;
+    private final int tamanoBloque;
 
     public PagareService(PagareRepository pagareRepository,
-                         PagareMapper pagareMapper) {
+                         PagareMapper pagareMapper,
+                         TablaAmortizacion tablaAmortizacion,
+                         FiltroSolicitudesService filtroSolicitudes,
+                         InvalidacionesService invalidaciones,
+                         CronogramaCompactoService cronogramaCompacto,
+                         MeterRegistry meterRegistry,
+                         ObservationRegistry observationRegistry,
+                         @Value("${lote.tamano-bloque:500}") int tamanoBloque,
+                         @Value("${pagares.almacenamiento:FILAS}") AlmacenamientoPagares almacenamiento) {
         this.pagareRepository = pagareRepository;
         this.pagareMapper    = pagareMapper;
+        this.tablaAmortizacion = tablaAmortizacion;
+        this.filtroSolicitudes = filtroSolicitudes;
+        this.invalidaciones = invalidaciones;
+        this.cronogramaCompacto = cronogramaCompacto;
+        this.almacenamiento = almacenamiento;
+        this.cronogramasEnVuelo = new SingleFlight<>("pagare.solicitud", meterRegistry);
+        this.observationRegistry = observationRegistry;
+        this.tamanoBloque = tamanoBloque;
     }
 
      //Obtiene un Pagaré por su ID.
     @Transactional
     public PagareDto getPagareById(Long id) {
         try {
+            if (CronogramaCompactoService.esIdCompacto(id)) {
+                return cronogramaCompacto.buscarPorId(id)
+                    .orElseThrow(() -> new PagareGenerationException("Pagaré no encontrado: " + id));
+            }
             Pagare pagare = pagareRepository.findById(id)
                 .orElseThrow(() -> new PagareGenerationException("Pagaré no encontrado: " + id));
             return pagareMapper.toDto(pagare);
@@ -58,16 +103,78 @@ public class PagareService {
     // }
 
     //Obtiene todos los pagarés de una solicitud, ordenados por número de cuota.
-    @Transactional
+    //Las lecturas concurrentes de la misma solicitud comparten una sola consulta (single-flight).
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<PagareDto> getPagaresBySolicitud(Long idSolicitud) {
+        Trazas.etiquetar(observationRegistry, "idSolicitud", idSolicitud);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return cargarCronograma(idSolicitud);
+        }
+        return cronogramasEnVuelo.ejecutar(idSolicitud, () -> cargarCronograma(idSolicitud));
+    }
+
+    private List<PagareDto> cargarCronograma(Long idSolicitud) {
         try {
             var pagares = pagareRepository.findByIdSolicitudOrderByNumeroCuota(idSolicitud);
-            return pagareMapper.toDtoList(pagares);
+            if (pagares.isEmpty()) {
+                // Sin filas: la solicitud puede estar en almacenamiento compacto (ya inmutable)
+                return cronogramaCompacto.buscarPorSolicitud(idSolicitud).orElse(List.of());
+            }
+            // Lista inmutable: el mismo resultado se entrega a todos los llamadores agrupados
+            return List.copyOf(pagareMapper.toDtoList(pagares));
         } catch (Exception e) {
             throw new PagareGenerationException("Error al obtener el cronograma de pagarés");
         }
     }
 
+    //Obtiene los cronogramas de varias solicitudes con una sentencia IN por bloque de IDs.
+    @Transactional(readOnly = true)
+    public ResultadoLoteDto<Long, List<PagareDto>> getPagaresBySolicitudes(List<Long> idsSolicitud) {
+        try {
+            List<Long> ids = Lotes.sinDuplicados(idsSolicitud);
+            Trazas.etiquetar(observationRegistry, "solicitudes", ids.size());
+            Map<Long, List<PagareDto>> porSolicitud = new LinkedHashMap<>();
+            for (List<Long> bloque : Lotes.particionar(ids, tamanoBloque)) {
+                TiempoLimite.verificar("búsqueda de pagarés por solicitudes");
+                for (Pagare pagare : pagareRepository.findByIdSolicitudInOrderByIdSolicitudAscNumeroCuotaAsc(bloque)) {
+                    porSolicitud.computeIfAbsent(pagare.getIdSolicitud(), k -> new ArrayList<>())
+                                .add(pagareMapper.toDto(pagare));
+                }
+            }
+            // Las que no tienen filas se buscan en el almacenamiento compacto, también por bloques
+            List<Long> sinFilas = ids.stream().filter(id -> !porSolicitud.containsKey(id)).toList();
+            for (List<Long> bloque : Lotes.particionar(sinFilas, tamanoBloque)) {
+                TiempoLimite.verificar("búsqueda de pagarés por solicitudes");
+                porSolicitud.putAll(cronogramaCompacto.buscarPorSolicitudes(bloque));
+            }
+
+            // Respetar el orden de la consulta y reportar las solicitudes sin pagarés
+            Map<Long, List<PagareDto>> encontrados = new LinkedHashMap<>();
+            List<Long> faltantes = new ArrayList<>();
+            for (Long id : ids) {
+                List<PagareDto> pagares = porSolicitud.get(id);
+                if (pagares == null) {
+                    faltantes.add(id);
+                } else {
+                    encontrados.put(id, pagares);
+                }
+            }
+            return new ResultadoLoteDto<>(encontrados, faltantes);
+        } catch (Exception e) {
+            throw new PagareGenerationException("Error al obtener los cronogramas de pagarés en lote");
+        }
+    }
+
+    //Cuotas con montos de un cronograma compacto; vacío si la solicitud se guardó por filas.
+    @Transactional(readOnly = true)
+    public List<CuotaDto> getCuotasBySolicitud(Long idSolicitud) {
+        try {
+            return cronogramaCompacto.buscarCuotas(idSolicitud).orElse(List.of());
+        } catch (Exception e) {
+            throw new PagareGenerationException("Error al obtener las cuotas de la solicitud " + idSolicitud);
+        }
+    }
+
      //Obtiene un Pagaré concreto de una solicitud según su número de cuota.
     @Transactional
     public PagareDto getPagareBySolicitudAndCuota(Long idSolicitud, Integer numeroCuota) {
@@ -75,6 +182,7 @@ public class PagareService {
             return pagareRepository
                 .findByIdSolicitudAndNumeroCuota(idSolicitud, numeroCuota)
                 .map(pagareMapper::toDto)
+                .or(() -> cronogramaCompacto.buscarCuota(idSolicitud, numeroCuota))
                 .orElseThrow(() -> 
                     new PagareGenerationException(
                         "No se encontró el pagaré para solicitud " 
@@ -95,12 +203,21 @@ public class PagareService {
             if (!id.equals(dto.getId())) {
                 throw new PagareGenerationException("El ID del path no coincide con el del body");
             }
+            if (CronogramaCompactoService.esIdCompacto(id)) {
+                // En el cronograma compacto la cuota es parte del ID: sólo se puede cambiar la ruta
+                PagareDto actual = cronogramaCompacto.buscarPorId(id)
+                    .orElseThrow(() -> new PagareGenerationException("Pagaré no encontrado: " + id));
+                if (!actual.getNumeroCuota().equals(dto.getNumeroCuota())) {
+                    throw new PagareGenerationException("No se puede cambiar el número de cuota de un pagaré compacto: " + id);
+                }
+                return publicarCambio(cronogramaCompacto.asignarRuta(id, dto.getRutaArchivo()));
+            }
 
             Pagare existing = pagareRepository.findById(id)
                 .orElseThrow(() -> new PagareGenerationException("Pagaré no encontrado: " + id));
 
             pagareMapper.updateEntity(existing, dto);
-            Pagare updated = pagareRepository.save(existing);
+            Pagare updated = publicarCambio(pagareRepository.save(existing));
             return pagareMapper.toDto(updated);
         } catch (PagareGenerationException e) {
             throw e;
@@ -109,10 +226,31 @@ public class PagareService {
         }
     }
 
+    //Asocia al pagaré un documento del almacén (rutaArchivo = sha256:<hash>)
+    @Transactional
+    public PagareDto asignarArchivo(Long id, String rutaArchivo) {
+        try {
+            if (CronogramaCompactoService.esIdCompacto(id)) {
+                return publicarCambio(cronogramaCompacto.asignarRuta(id, rutaArchivo));
+            }
+            Pagare existing = pagareRepository.findById(id)
+                .orElseThrow(() -> new PagareGenerationException("Pagaré no encontrado: " + id));
+            existing.setRutaArchivo(rutaArchivo);
+            return pagareMapper.toDto(publicarCambio(pagareRepository.save(existing)));
+        } catch (PagareGenerationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new PagareGenerationException("Error al asignar el archivo del pagaré: " + id);
+        }
+    }
+
     //Eliminación lógica: marca activo = false y retorna el DTO actualizado.
      @Transactional
     public PagareDto logicalDeletePagare(Long id) {
         try {
+            if (CronogramaCompactoService.esIdCompacto(id)) {
+                return publicarCambio(cronogramaCompacto.desactivar(id));
+            }
             Pagare existing = pagareRepository.findById(id)
                 .orElseThrow(() -> new PagareGenerationException("Pagaré no encontrado: " + id));
 
@@ -121,7 +259,7 @@ public class PagareService {
             }
 
             existing.setActivo(false);
-            Pagare saved = pagareRepository.save(existing);
+            Pagare saved = publicarCambio(pagareRepository.save(existing));
             return pagareMapper.toDto(saved);
         } catch (PagareGenerationException e) {
             throw e;
@@ -141,21 +279,57 @@ public class PagareService {
             BigDecimal tasaAnual,
             Short plazoMeses) {
         try {
-            if (pagareRepository.existsByIdSolicitud(idSolicitud)) {
+            Trazas.etiquetar(observationRegistry, "idSolicitud", idSolicitud);
+            Trazas.etiquetar(observationRegistry, "plazo", plazoMeses);
+            Trazas.etiquetar(observationRegistry, "almacenamiento", almacenamiento);
+            // Span propio para separar el cálculo de la tabla de las escrituras
+            List<CuotaDto> tabla = Observation.createNotStarted("pagares.amortizacion", observationRegistry)
+                    .highCardinalityKeyValue("plazo", String.valueOf(plazoMeses))
+                    .observe(() -> tablaAmortizacion.generar(montoSolicitado, tasaAnual, plazoMeses));
+
+            // Las comprobaciones cruzadas entre almacenamientos sólo valen con el alta de la solicitud serializada:
+            // dos instancias con distinto modo podrían ver ambas la otra tabla vacía e insertar las dos
+            cronogramaCompacto.bloquearSolicitud(idSolicitud);
+            if (almacenamiento == AlmacenamientoPagares.COMPACTO) {
+                // Una fila por solicitud; se rechaza si ya hay pagarés en cualquiera de los dos almacenamientos
+                if (pagareRepository.existsByIdSolicitud(idSolicitud)) {
+                    throw new PagareGenerationException("Ya existen pagarés para solicitud " + idSolicitud);
+                }
+                List<PagareDto> pagares = cronogramaCompacto.guardar(idSolicitud, montoSolicitado, tasaAnual, plazoMeses, tabla);
+                Trazas.etiquetar(observationRegistry, "filas", 1);
+                filtroSolicitudes.registrar(FiltroSolicitudesService.Tabla.PAGARES, idSolicitud);
+                invalidaciones.publicar(InvalidacionesService.Entidad.PAGARE, InvalidacionesService.Cambio.ALTA,
+                        idSolicitud, 0L);
+                return pagares;
+            }
+
+            if (cronogramaCompacto.existe(idSolicitud)) {
                 throw new PagareGenerationException("Ya existen pagarés para solicitud " + idSolicitud);
             }
 
-            List<CuotaDto> tabla = generarTablaDesdeParams(montoSolicitado, tasaAnual, plazoMeses);
+            Integer[] numeros = new Integer[tabla.size()];
+            String[] rutas = new String[tabla.size()];
+            for (int i = 0; i < tabla.size(); i++) {
+                numeros[i] = tabla.get(i).getNumeroCuota();
+                rutas[i] = generarRutaPagare(idSolicitud, numeros[i]);
+            }
 
-            List<Pagare> pagares = new ArrayList<>();
-            for (CuotaDto cuota : tabla) {
-                Pagare p = new Pagare();
-                p.setIdSolicitud(idSolicitud);
-                p.setNumeroCuota(cuota.getNumeroCuota());
-                p.setRutaArchivo(generarRutaPagare(idSolicitud, cuota.getNumeroCuota()));
-                p.setFechaGenerado(LocalDateTime.now());
-                pagares.add(pagareRepository.save(p));
+            // Una sola sentencia con ON CONFLICT: si otra petición ya generó el cronograma no se inserta nada
+            List<Pagare> pagares = new ArrayList<>(
+                    pagareRepository.insertarCuotasSiNoExisten(idSolicitud, numeros, rutas, LocalDateTime.now()));
+            if (pagares.isEmpty()) {
+                throw new PagareGenerationException("Ya existen pagarés para solicitud " + idSolicitud);
+            }
+            if (pagares.size() < tabla.size()) {
+                // Cronograma previo parcial o con otro plazo: se revierte lo insertado
+                throw new PagareGenerationException("Ya existen pagarés para solicitud " + idSolicitud
+                        + " (" + (tabla.size() - pagares.size()) + " cuotas en conflicto)");
             }
+            pagares.sort(Comparator.comparing(Pagare::getNumeroCuota));
+            Trazas.etiquetar(observationRegistry, "filas", pagares.size());
+            filtroSolicitudes.registrar(FiltroSolicitudesService.Tabla.PAGARES, idSolicitud);
+            invalidaciones.publicar(InvalidacionesService.Entidad.PAGARE, InvalidacionesService.Cambio.ALTA,
+                    idSolicitud, 0L);
             return pagareMapper.toDtoList(pagares);
         } catch (PagareGenerationException e) {
             throw e;
@@ -166,62 +340,28 @@ public class PagareService {
 
     // === Helpers privados ===
 
-    private List<CuotaDto> generarTablaDesdeParams(
-            BigDecimal principal,
-            BigDecimal tasaAnual,
-            Short plazoMeses) {
-
-        if (principal == null || principal.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new PagareGenerationException("El monto debe ser mayor a cero");
-        }
-        if (tasaAnual == null || tasaAnual.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new PagareGenerationException("La tasa debe ser mayor a cero");
-        }
-        if (plazoMeses == null || plazoMeses <= 0) {
-            throw new PagareGenerationException("El plazo debe ser mayor a cero");
-        }
+    // Las demás instancias reciben la solicitud del pagaré; la versión se lee al confirmar (tras el flush)
+    private Pagare publicarCambio(Pagare pagare) {
+        invalidaciones.publicar(InvalidacionesService.Entidad.PAGARE, InvalidacionesService.Cambio.MODIFICACION,
+                pagare.getIdSolicitud(), pagare::getVersion);
+        return pagare;
+    }
 
-        BigDecimal tasaMensual = tasaAnual
-            .divide(BigDecimal.valueOf(12), 10, RoundingMode.HALF_UP)
-            .divide(BigDecimal.valueOf(100), 10, RoundingMode.HALF_UP);
-
-        BigDecimal factor = BigDecimal.ONE.add(tasaMensual).pow(plazoMeses);
-        BigDecimal numerador = principal.multiply(tasaMensual).multiply(factor);
-        BigDecimal denominador = factor.subtract(BigDecimal.ONE);
-        BigDecimal cuotaMensual = numerador.divide(denominador, 2, RoundingMode.HALF_UP);
-
-        List<CuotaDto> tabla = new ArrayList<>();
-        BigDecimal saldo = principal;
-        LocalDate hoy = LocalDate.now();
-        for (int i = 1; i <= plazoMeses; i++) {
-            BigDecimal interes = saldo.multiply(tasaMensual).setScale(2, RoundingMode.HALF_UP);
-            BigDecimal capital = cuotaMensual.subtract(interes);
-            saldo = saldo.subtract(capital);
-            if (i == plazoMeses && saldo.compareTo(BigDecimal.ZERO) != 0) {
-                capital = capital.add(saldo);
-                cuotaMensual = interes.add(capital);
-                saldo = BigDecimal.ZERO;
-            }
-            tabla.add(CuotaDto.builder()
-                .numeroCuota(i)
-                .monto(cuotaMensual)
-                .interes(interes)
-                .saldoPendiente(saldo)
-                .fechaVencimiento(hoy.plusMonths(i))
-                .build()
-            );
-        }
-        return tabla;
+    private PagareDto publicarCambio(PagareDto pagare) {
+        invalidaciones.publicar(InvalidacionesService.Entidad.PAGARE, InvalidacionesService.Cambio.MODIFICACION,
+                pagare.getIdSolicitud(), pagare::getVersion);
+        return pagare;
     }
 
-    private String generarRutaPagare(Long idSolicitud, int numeroCuota) {
-        String ts = String.valueOf(System.currentTimeMillis());
-        return "/pagares/" + idSolicitud + "/pagare_" + numeroCuota + "_" + ts + ".pdf";
+    // Ruta lógica determinista: el mismo pagaré siempre apunta al mismo archivo
+    static String generarRutaPagare(Long idSolicitud, int numeroCuota) {
+        return "/pagares/" + idSolicitud + "/pagare_" + numeroCuota + ".pdf";
     }
 
     public boolean existenPagaresPorSolicitud(Long idSolicitud) {
         try {
-            return pagareRepository.existsByIdSolicitud(idSolicitud);
+            return filtroSolicitudes.existe(FiltroSolicitudesService.Tabla.PAGARES, idSolicitud,
+                    () -> pagareRepository.existsByIdSolicitud(idSolicitud) || cronogramaCompacto.existe(idSolicitud));
         } catch (Exception e) {
             throw new PagareGenerationException("Error al verificar existencia de pagarés");
         }
@@ -230,7 +370,11 @@ public class PagareService {
     @Transactional
     public void eliminarPagaresPorSolicitud(Long idSolicitud) {
         try {
-            pagareRepository.deleteByIdSolicitud(idSolicitud);
+            if (pagareRepository.deleteByIdSolicitud(idSolicitud) + cronogramaCompacto.eliminar(idSolicitud) > 0) {
+                filtroSolicitudes.eliminarAlConfirmar(FiltroSolicitudesService.Tabla.PAGARES, idSolicitud);
+                invalidaciones.publicar(InvalidacionesService.Entidad.PAGARE, InvalidacionesService.Cambio.BAJA,
+                        idSolicitud, 0L);
+            }
         } catch (Exception e) {
             throw new PagareGenerationException("Error al eliminar pagarés de la solicitud");
         }
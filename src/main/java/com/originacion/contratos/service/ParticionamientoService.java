@@ -0,0 +1,139 @@
+package com.originacion.contratos.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mantenimiento de las tablas particionadas por rango de IdSolicitud (db/particionamiento):
+ * crea los rangos futuros por adelantado y desacopla las particiones antiguas de contratos, pagarés y
+ * cronogramas, moviéndolas al esquema archivo_contratos. Sin transacción: DETACH ... CONCURRENTLY no puede
+ * ejecutarse dentro de un bloque transaccional.
+ */
+@Service
+@Slf4j
+public class ParticionamientoService {
+
+    private static final String ESQUEMA = "gestion_contratos";
+    private static final String ESQUEMA_ARCHIVO = "archivo_contratos";
+    // Con los mismos rangos de IdSolicitud: una solicitud se archiva completa
+    private static final List<String> TABLAS = List.of("contratos", "pagares", "cronogramas");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean habilitado;
+    private final long ancho;
+    private final int rangosAdelante;
+    private final int retencionMeses;
+    private final Counter creadas;
+    private final Counter archivadas;
+
+    public ParticionamientoService(JdbcTemplate jdbcTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${particionamiento.habilitado:false}") boolean habilitado,
+                                   @Value("${particionamiento.ancho-rango:100000}") long ancho,
+                                   @Value("${particionamiento.rangos-adelante:4}") int rangosAdelante,
+                                   @Value("${particionamiento.retencion-meses:0}") int retencionMeses) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.habilitado = habilitado;
+        this.ancho = ancho;
+        this.rangosAdelante = rangosAdelante;
+        this.retencionMeses = retencionMeses;
+        this.creadas = contador(meterRegistry, "creada");
+        this.archivadas = contador(meterRegistry, "archivada");
+    }
+
+    @Scheduled(cron = "${particionamiento.cron:0 15 * * * *}")
+    public void mantener() {
+        if (!habilitado) {
+            return;
+        }
+        for (String tabla : TABLAS) {
+            if (!particionada(tabla)) {
+                log.warn("{}.{} no está particionada (ver db/particionamiento); se omite", ESQUEMA, tabla);
+                continue;
+            }
+            Integer nuevas = jdbcTemplate.queryForObject(
+                    "SELECT " + ESQUEMA + ".asegurar_particiones(?, ?, ?)", Integer.class, tabla, ancho, rangosAdelante);
+            if (nuevas != null && nuevas > 0) {
+                creadas.increment(nuevas);
+                log.info("Creadas {} particiones nuevas de {}", nuevas, tabla);
+            }
+        }
+        if (retencionMeses > 0) {
+            archivarAntiguas(LocalDateTime.now().minusMonths(retencionMeses));
+        }
+    }
+
+    // Una partición se archiva cuando ya no es la del IdSolicitud máximo, todos sus contratos son
+    // anteriores al límite y ninguno sigue en DRAFT. Sus pagarés y cronogramas (mismo rango) se archivan con ella.
+    void archivarAntiguas(LocalDateTime limite) {
+        Long maxSolicitud = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(max(idsolicitud), 0) FROM " + ESQUEMA + ".contratos", Long.class);
+        long rangoVigente = maxSolicitud / ancho * ancho;
+
+        for (Long desde : rangos("contratos")) {
+            if (desde >= rangoVigente) {
+                break;
+            }
+            String particion = "contratos_p" + desde;
+            Map<String, Object> resumen = jdbcTemplate.queryForMap(
+                    "SELECT max(fechagenerado) AS ultima, count(*) FILTER (WHERE estado = 'DRAFT') AS borradores FROM "
+                            + ESQUEMA + "." + particion);
+            Timestamp ultima = (Timestamp) resumen.get("ultima");
+            long borradores = ((Number) resumen.get("borradores")).longValue();
+            if (borradores > 0 || (ultima != null && !ultima.toLocalDateTime().isBefore(limite))) {
+                break;
+            }
+            for (String tabla : TABLAS) {
+                desacoplar(tabla, tabla + "_p" + desde);
+            }
+            log.info("Archivado el rango de solicitudes [{}, {}) en {}", desde, desde + ancho, ESQUEMA_ARCHIVO);
+        }
+    }
+
+    private List<Long> rangos(String tabla) {
+        return jdbcTemplate.queryForList("""
+                SELECT substring(c.relname FROM '_p([0-9]+)$')::bigint AS desde
+                  FROM pg_inherits i
+                  JOIN pg_class c ON c.oid = i.inhrelid
+                  JOIN pg_class p ON p.oid = i.inhparent
+                  JOIN pg_namespace n ON n.oid = p.relnamespace
+                 WHERE n.nspname = ? AND p.relname = ?
+                   AND c.relname ~ '_p[0-9]+$'
+                 ORDER BY 1
+                """, Long.class, ESQUEMA, tabla);
+    }
+
+    private boolean particionada(String tabla) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_class WHERE oid = to_regclass(?) AND relkind = 'p')",
+                Boolean.class, ESQUEMA + "." + tabla));
+    }
+
+    private void desacoplar(String tabla, String particion) {
+        Boolean existe = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                ESQUEMA + "." + particion);
+        if (!Boolean.TRUE.equals(existe)) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + ESQUEMA + "." + tabla + " DETACH PARTITION " + ESQUEMA + "." + particion + " CONCURRENTLY");
+        jdbcTemplate.execute("ALTER TABLE " + ESQUEMA + "." + particion + " SET SCHEMA " + ESQUEMA_ARCHIVO);
+        archivadas.increment();
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("contratos.particiones")
+                .description("Particiones creadas o archivadas por el mantenimiento")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+}
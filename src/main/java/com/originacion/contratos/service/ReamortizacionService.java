@@ -0,0 +1,417 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.dto.CuotaDto;
+import com.originacion.contratos.dto.ReamortizacionDto;
+import com.originacion.contratos.dto.SolicitudReamortizacionDto;
+import com.originacion.contratos.enums.EstadoReamortizacion;
+import com.originacion.contratos.exception.BusinessLogicException;
+import com.originacion.contratos.exception.NotFoundException;
+import com.originacion.contratos.exception.PagareGenerationException;
+import com.originacion.contratos.model.Reamortizacion;
+import com.originacion.contratos.repository.ReamortizacionRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Re-amortización masiva por cambio de tasa sobre los cronogramas compactos (los únicos que guardan
+ * monto, tasa y plazo). Recorre las solicitudes con la tasa anterior en bloques por clave
+ * (idsolicitud > punto de control), recalcula cada bloque en paralelo en un ForkJoinPool propio y
+ * escribe el bloque con un batch UPDATE en la misma transacción que avanza el punto de control,
+ * así que un trabajo interrumpido se reanuda sin repetir ni saltar solicitudes. Los cronogramas que
+ * otra operación modificó mientras se recalculaba el bloque se releen bloqueados y se recalculan antes
+ * de avanzar el punto de control: ninguno queda atrás con la tasa anterior.
+ */
+@Service
+@Slf4j
+public class ReamortizacionService {
+
+    private static final String SELECCION_BLOQUE = """
+            SELECT idsolicitud, montosolicitado, plazomeses, datos, version
+              FROM gestion_contratos.cronogramas
+             WHERE tasaanual = ? AND idsolicitud > ?
+             ORDER BY idsolicitud
+             LIMIT ?
+            """;
+
+    // Los que otra operación modificó entre la lectura y el UPDATE, bloqueados hasta el commit del bloque
+    private static final String RELECTURA_CONFLICTOS = """
+            SELECT idsolicitud, montosolicitado, plazomeses, datos, version
+              FROM gestion_contratos.cronogramas
+             WHERE tasaanual = ? AND idsolicitud = ANY (CAST(? AS bigint[]))
+             ORDER BY idsolicitud
+               FOR UPDATE
+            """;
+
+    // datos nulo = el cronograma no cambia (sólo se actualiza la tasa)
+    private static final String ACTUALIZACION_CRONOGRAMA = """
+            UPDATE gestion_contratos.cronogramas
+               SET tasaanual = ?, datos = COALESCE(?, datos), version = version + 1
+             WHERE idsolicitud = ? AND version = ?
+            """;
+
+    // Sólo avanza si nadie más movió el punto de control (otra instancia o una pausa externa)
+    private static final String AVANCE_PUNTO_CONTROL = """
+            UPDATE gestion_contratos.reamortizaciones
+               SET ultimoidsolicitud = ?, procesadas = procesadas + ?, modificadas = modificadas + ?,
+                   conflictos = conflictos + ?, fechaactualizacion = ?
+             WHERE idreamortizacion = ? AND ultimoidsolicitud = ? AND estado = 'EN_CURSO'
+            """;
+
+    private record Fila(long idSolicitud, BigDecimal monto, short plazo, byte[] datos, long version) {
+    }
+
+    private record Recalculo(long idSolicitud, byte[] datos, long version) {
+    }
+
+    private static final class PuntoControlMovido extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    private final ReamortizacionRepository reamortizacionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TablaAmortizacion tablaAmortizacion;
+    private final InvalidacionesService invalidaciones;
+    private final int tamanoBloque;
+    private final ForkJoinPool calculo;
+    private final ExecutorService coordinadores = Executors.newCachedThreadPool(
+            Thread.ofPlatform().name("reamortizacion-", 0).daemon().factory());
+
+    private final Set<Long> enEjecucion = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pausasSolicitadas = ConcurrentHashMap.newKeySet();
+
+    private final Counter modificados;
+    private final Counter sinCambios;
+    private final Counter conflictos;
+    private final Timer tiempoBloque;
+
+    public ReamortizacionService(ReamortizacionRepository reamortizacionRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 TablaAmortizacion tablaAmortizacion,
+                                 InvalidacionesService invalidaciones,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${reamortizacion.tamano-bloque:1000}") int tamanoBloque,
+                                 @Value("${reamortizacion.paralelismo:0}") int paralelismo) {
+        this.reamortizacionRepository = reamortizacionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.tablaAmortizacion = tablaAmortizacion;
+        this.invalidaciones = invalidaciones;
+        this.tamanoBloque = tamanoBloque;
+        this.calculo = new ForkJoinPool(paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors());
+
+        this.modificados = contador(meterRegistry, "modificado");
+        this.sinCambios = contador(meterRegistry, "sin-cambios");
+        this.conflictos = contador(meterRegistry, "conflicto");
+        this.tiempoBloque = Timer.builder("contratos.reamortizacion.bloque")
+                .description("Tiempo por bloque: lectura, recálculo y escritura")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void cerrar() {
+        coordinadores.shutdownNow();
+        calculo.shutdownNow();
+    }
+
+    @Transactional
+    public ReamortizacionDto iniciar(SolicitudReamortizacionDto solicitud) {
+        if (solicitud.getTasaAnterior().compareTo(solicitud.getTasaNueva()) == 0) {
+            throw new BusinessLogicException("REAMORTIZAR", "La tasa nueva es igual a la anterior");
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        Reamortizacion trabajo = new Reamortizacion();
+        trabajo.setTasaAnterior(solicitud.getTasaAnterior());
+        trabajo.setTasaNueva(solicitud.getTasaNueva());
+        trabajo.setEstado(EstadoReamortizacion.EN_CURSO);
+        trabajo.setUltimoIdSolicitud(0L);
+        trabajo.setProcesadas(0L);
+        trabajo.setModificadas(0L);
+        trabajo.setConflictos(0L);
+        trabajo.setFechaInicio(ahora);
+        trabajo.setFechaActualizacion(ahora);
+        Reamortizacion guardado = reamortizacionRepository.save(trabajo);
+        log.info("Re-amortización {} creada: tasa {} -> {}", guardado.getId(), guardado.getTasaAnterior(), guardado.getTasaNueva());
+        lanzarAlConfirmar(guardado.getId());
+        return aDto(guardado);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ReamortizacionDto> consultar(Long id) {
+        return reamortizacionRepository.findById(id).map(ReamortizacionService::aDto);
+    }
+
+    @Transactional
+    public ReamortizacionDto pausar(Long id) {
+        Reamortizacion trabajo = buscar(id);
+        if (trabajo.getEstado() != EstadoReamortizacion.EN_CURSO) {
+            throw new BusinessLogicException("PAUSAR_REAMORTIZACION", "El trabajo no está en curso: " + trabajo.getEstado());
+        }
+        if (enEjecucion.contains(id)) {
+            // El coordinador se detiene al terminar el bloque actual y marca PAUSADA
+            pausasSolicitadas.add(id);
+        } else {
+            trabajo.setEstado(EstadoReamortizacion.PAUSADA);
+            trabajo.setFechaActualizacion(LocalDateTime.now());
+        }
+        return aDto(trabajo);
+    }
+
+    @Transactional
+    public ReamortizacionDto reanudar(Long id) {
+        Reamortizacion trabajo = buscar(id);
+        if (trabajo.getEstado() == EstadoReamortizacion.COMPLETADA) {
+            throw new BusinessLogicException("REANUDAR_REAMORTIZACION", "El trabajo ya está completado");
+        }
+        if (enEjecucion.contains(id)) {
+            pausasSolicitadas.remove(id);
+            return aDto(trabajo);
+        }
+        trabajo.setEstado(EstadoReamortizacion.EN_CURSO);
+        trabajo.setError(null);
+        trabajo.setFechaActualizacion(LocalDateTime.now());
+        log.info("Re-amortización {} reanudada desde la solicitud {}", id, trabajo.getUltimoIdSolicitud());
+        lanzarAlConfirmar(id);
+        return aDto(trabajo);
+    }
+
+    // Trabajos que quedaron EN_CURSO al detenerse la aplicación
+    @EventListener(ApplicationReadyEvent.class)
+    public void reanudarInterrumpidas() {
+        for (Reamortizacion trabajo : reamortizacionRepository.findByEstado(EstadoReamortizacion.EN_CURSO)) {
+            log.info("Reanudando re-amortización interrumpida {} desde la solicitud {}", trabajo.getId(), trabajo.getUltimoIdSolicitud());
+            lanzar(trabajo.getId());
+        }
+    }
+
+    private void lanzarAlConfirmar(Long id) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lanzar(id);
+            }
+        });
+    }
+
+    private void lanzar(Long id) {
+        if (enEjecucion.add(id)) {
+            coordinadores.execute(() -> {
+                try {
+                    ejecutar(id);
+                } finally {
+                    enEjecucion.remove(id);
+                    pausasSolicitadas.remove(id);
+                }
+            });
+        }
+    }
+
+    private void ejecutar(Long id) {
+        try {
+            while (true) {
+                Reamortizacion trabajo = reamortizacionRepository.findById(id).orElseThrow();
+                if (trabajo.getEstado() != EstadoReamortizacion.EN_CURSO) {
+                    return;
+                }
+                if (pausasSolicitadas.remove(id)) {
+                    finalizar(id, EstadoReamortizacion.PAUSADA, null);
+                    log.info("Re-amortización {} pausada en la solicitud {}", id, trabajo.getUltimoIdSolicitud());
+                    return;
+                }
+                if (!procesarBloque(trabajo)) {
+                    finalizar(id, EstadoReamortizacion.COMPLETADA, null);
+                    Reamortizacion fin = reamortizacionRepository.findById(id).orElseThrow();
+                    log.info("Re-amortización {} completada: {} procesadas, {} modificadas, {} conflictos, {} por segundo",
+                            id, fin.getProcesadas(), fin.getModificadas(), fin.getConflictos(), aDto(fin).getPorSegundo());
+                    return;
+                }
+            }
+        } catch (PuntoControlMovido e) {
+            // Pausado desde otra instancia o ejecutándose en otra: se revierte el bloque y se deja
+            log.info("Re-amortización {} detenida: el punto de control cambió fuera de esta instancia", id);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | ExecutionException e) {
+            log.error("Re-amortización {} fallida", id, e);
+            finalizar(id, EstadoReamortizacion.FALLIDA, e.getMessage());
+        }
+    }
+
+    // false cuando ya no quedan solicitudes con la tasa anterior después del punto de control
+    private boolean procesarBloque(Reamortizacion trabajo) throws InterruptedException, ExecutionException {
+        long inicio = System.nanoTime();
+        List<Fila> bloque = jdbcTemplate.query(SELECCION_BLOQUE, ReamortizacionService::fila,
+                trabajo.getTasaAnterior(), trabajo.getUltimoIdSolicitud(), tamanoBloque);
+        if (bloque.isEmpty()) {
+            return false;
+        }
+
+        BigDecimal tasaNueva = trabajo.getTasaNueva();
+        List<Recalculo> recalculos = calculo.submit(() -> bloque.parallelStream()
+                .map(fila -> recalcular(fila, tasaNueva))
+                .toList()).get();
+
+        long ultimo = bloque.get(bloque.size() - 1).idSolicitud();
+        int[] resultado = transactionTemplate.execute(status -> {
+            int[][] filas = jdbcTemplate.batchUpdate(ACTUALIZACION_CRONOGRAMA, recalculos, recalculos.size(), (ps, r) -> {
+                ps.setBigDecimal(1, tasaNueva);
+                ps.setBytes(2, r.datos());
+                ps.setLong(3, r.idSolicitud());
+                ps.setLong(4, r.version());
+            });
+            int modificadas = 0;
+            List<Long> enConflicto = new ArrayList<>();
+            int indice = 0;
+            for (int[] lote : filas) {
+                for (int actualizadas : lote) {
+                    Recalculo recalculo = recalculos.get(indice);
+                    if (actualizadas == 0) {
+                        enConflicto.add(recalculo.idSolicitud());
+                    } else {
+                        modificadas += aplicado(recalculo);
+                    }
+                    indice++;
+                }
+            }
+            if (!enConflicto.isEmpty()) {
+                // Con la fila bloqueada la versión releída ya no cambia antes del UPDATE. Las que dejaron de
+                // tener la tasa anterior (o se borraron) quedan fuera del trabajo
+                List<Fila> releidas = jdbcTemplate.query(RELECTURA_CONFLICTOS, ReamortizacionService::fila,
+                        trabajo.getTasaAnterior(), enConflicto.toArray(new Long[0]));
+                for (Fila fila : releidas) {
+                    Recalculo recalculo = recalcular(fila, tasaNueva);
+                    jdbcTemplate.update(ACTUALIZACION_CRONOGRAMA, tasaNueva, recalculo.datos(),
+                            recalculo.idSolicitud(), recalculo.version());
+                    modificadas += aplicado(recalculo);
+                }
+                log.debug("Re-amortización {}: {} cronogramas recalculados de nuevo por cambios concurrentes",
+                        trabajo.getId(), releidas.size());
+            }
+            int avance = jdbcTemplate.update(AVANCE_PUNTO_CONTROL, ultimo, bloque.size(), modificadas, enConflicto.size(),
+                    LocalDateTime.now(), trabajo.getId(), trabajo.getUltimoIdSolicitud());
+            if (avance == 0) {
+                throw new PuntoControlMovido();
+            }
+            return new int[]{modificadas, enConflicto.size()};
+        });
+
+        modificados.increment(resultado[0]);
+        conflictos.increment(resultado[1]);
+        sinCambios.increment(bloque.size() - resultado[0]);
+        tiempoBloque.record(Duration.ofNanos(System.nanoTime() - inicio));
+        log.debug("Re-amortización {}: bloque hasta la solicitud {} ({} filas, {} modificadas)",
+                trabajo.getId(), ultimo, bloque.size(), resultado[0]);
+        return true;
+    }
+
+    // 1 si cambiaron los montos. La tasa y la versión cambian aunque los montos queden iguales
+    private int aplicado(Recalculo recalculo) {
+        invalidaciones.publicar(InvalidacionesService.Entidad.PAGARE,
+                InvalidacionesService.Cambio.MODIFICACION, recalculo.idSolicitud(), recalculo.version() + 1);
+        return recalculo.datos() != null ? 1 : 0;
+    }
+
+    private static Fila fila(ResultSet rs, int fila) throws SQLException {
+        return new Fila(rs.getLong("idsolicitud"), rs.getBigDecimal("montosolicitado"), rs.getShort("plazomeses"),
+                rs.getBytes("datos"), rs.getLong("version"));
+    }
+
+    // Mismas fechas de vencimiento, cuotas inactivas y rutas; sólo cambian los montos
+    private Recalculo recalcular(Fila fila, BigDecimal tasaNueva) {
+        CodificadorCronograma.Contenido actual = CodificadorCronograma.decodificar(fila.datos());
+        List<CuotaDto> cuotas = cuotasConTasa(tablaAmortizacion, actual.cuotas(), fila.monto(), tasaNueva, fila.plazo());
+        byte[] datos = CodificadorCronograma.codificar(
+                new CodificadorCronograma.Contenido(cuotas, actual.inactivas(), actual.rutas()));
+        return new Recalculo(fila.idSolicitud(), Arrays.equals(datos, fila.datos()) ? null : datos, fila.version());
+    }
+
+    // Las fechas se copian de las cuotas guardadas: derivarlas de la primera con plusMonths no las
+    // reproduce (un cronograma del 31 de enero vence el 28 de febrero y seguiría el 28 de cada mes)
+    static List<CuotaDto> cuotasConTasa(TablaAmortizacion tablaAmortizacion, List<CuotaDto> actuales,
+                                        BigDecimal monto, BigDecimal tasaNueva, short plazo) {
+        if (actuales.size() != plazo) {
+            throw new PagareGenerationException("Cronograma con " + actuales.size() + " cuotas para un plazo de " + plazo);
+        }
+        List<CuotaDto> cuotas = tablaAmortizacion.generar(monto, tasaNueva, plazo);
+        for (int i = 0; i < cuotas.size(); i++) {
+            cuotas.get(i).setFechaVencimiento(actuales.get(i).getFechaVencimiento());
+        }
+        return cuotas;
+    }
+
+    private void finalizar(Long id, EstadoReamortizacion estado, String error) {
+        transactionTemplate.executeWithoutResult(status -> reamortizacionRepository.findById(id).ifPresent(trabajo -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            trabajo.setEstado(estado);
+            trabajo.setError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+            trabajo.setFechaActualizacion(ahora);
+            if (estado == EstadoReamortizacion.COMPLETADA) {
+                trabajo.setFechaFin(ahora);
+            }
+        }));
+    }
+
+    private Reamortizacion buscar(Long id) {
+        return reamortizacionRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException(id.toString(), "Reamortizacion"));
+    }
+
+    private static ReamortizacionDto aDto(Reamortizacion trabajo) {
+        LocalDateTime hasta = Objects.requireNonNullElse(trabajo.getFechaFin(), trabajo.getFechaActualizacion());
+        double segundos = Math.max(1, Duration.between(trabajo.getFechaInicio(), hasta).toMillis()) / 1000.0;
+        return ReamortizacionDto.builder()
+                .id(trabajo.getId())
+                .tasaAnterior(trabajo.getTasaAnterior())
+                .tasaNueva(trabajo.getTasaNueva())
+                .estado(trabajo.getEstado().name())
+                .ultimoIdSolicitud(trabajo.getUltimoIdSolicitud())
+                .procesadas(trabajo.getProcesadas())
+                .modificadas(trabajo.getModificadas())
+                .conflictos(trabajo.getConflictos())
+                .porSegundo(Math.round(trabajo.getProcesadas() / segundos * 10) / 10.0)
+                .error(trabajo.getError())
+                .fechaInicio(trabajo.getFechaInicio())
+                .fechaActualizacion(trabajo.getFechaActualizacion())
+                .fechaFin(trabajo.getFechaFin())
+                .build();
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("contratos.reamortizacion.cronogramas")
+                .description("Cronogramas recalculados por los trabajos de re-amortización")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,93 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.dto.CuotaDto;
+import com.originacion.contratos.dto.PagareDto;
+import com.originacion.contratos.dto.SolicitudDocumentosDto;
+import com.originacion.contratos.exception.NotFoundException;
+import com.originacion.contratos.mapper.ContratoMapper;
+import com.originacion.contratos.mapper.PagareMapper;
+import com.originacion.contratos.model.Contrato;
+import com.originacion.contratos.model.Pagare;
+import com.originacion.contratos.repository.ContratoRepository;
+import com.originacion.contratos.repository.PagareRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class SolicitudDocumentosService {
+
+    private final ContratoRepository contratoRepository;
+    private final PagareRepository pagareRepository;
+    private final ContratoMapper contratoMapper;
+    private final PagareMapper pagareMapper;
+    private final TablaAmortizacion tablaAmortizacion;
+    private final CronogramaCompactoService cronogramaCompacto;
+
+    public SolicitudDocumentosService(ContratoRepository contratoRepository,
+                                      PagareRepository pagareRepository,
+                                      ContratoMapper contratoMapper,
+                                      PagareMapper pagareMapper,
+                                      TablaAmortizacion tablaAmortizacion,
+                                      CronogramaCompactoService cronogramaCompacto) {
+        this.contratoRepository = contratoRepository;
+        this.pagareRepository = pagareRepository;
+        this.contratoMapper = contratoMapper;
+        this.pagareMapper = pagareMapper;
+        this.tablaAmortizacion = tablaAmortizacion;
+        this.cronogramaCompacto = cronogramaCompacto;
+    }
+
+    // Contrato y cronograma en una sola transacción de lectura (misma instantánea y conexión)
+    public SolicitudDocumentosDto obtenerDocumentos(Long idSolicitud, BigDecimal monto, BigDecimal tasa, Short plazo) {
+        log.debug("Obteniendo documentos de la solicitud: {}", idSolicitud);
+
+        // contratos.idsolicitud es integer: fuera de ese rango no puede haber contrato, pero sí pagarés (bigint)
+        Contrato contrato = idSolicitud < Integer.MIN_VALUE || idSolicitud > Integer.MAX_VALUE
+                ? null
+                : contratoRepository.findByIdSolicitud(idSolicitud.intValue()).orElse(null);
+        List<Pagare> pagares = pagareRepository.findByIdSolicitudOrderByNumeroCuota(idSolicitud);
+
+        if (pagares.isEmpty()) {
+            // Cronograma compacto: las cuotas guardadas ya traen montos, no hace falta recalcularlas
+            Optional<List<PagareDto>> compactos = cronogramaCompacto.buscarPorSolicitud(idSolicitud);
+            if (compactos.isPresent()) {
+                return SolicitudDocumentosDto.builder()
+                        .idSolicitud(idSolicitud)
+                        .contrato(contratoMapper.toDTO(contrato))
+                        .pagares(compactos.get())
+                        .cuotas(cronogramaCompacto.buscarCuotas(idSolicitud).orElse(null))
+                        .build();
+            }
+        }
+
+        if (contrato == null && pagares.isEmpty()) {
+            throw new NotFoundException(idSolicitud.toString(), "Documentos por solicitud");
+        }
+
+        List<PagareDto> pagareDtos = pagareMapper.toDtoList(pagares);
+        List<CuotaDto> cuotas = null;
+        if (monto != null && tasa != null && plazo != null) {
+            // Las cuotas vencen a partir de la fecha en que se generó el cronograma
+            LocalDate fechaInicio = pagares.isEmpty()
+                    ? LocalDate.now()
+                    : pagares.get(0).getFechaGenerado().toLocalDate();
+            cuotas = tablaAmortizacion.generar(monto, tasa, plazo, fechaInicio);
+        }
+
+        return SolicitudDocumentosDto.builder()
+                .idSolicitud(idSolicitud)
+                .contrato(contratoMapper.toDTO(contrato))
+                .pagares(pagareDtos)
+                .cuotas(cuotas)
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.originacion.contratos.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.originacion.contratos.dto.CuotaDto;
+import com.originacion.contratos.exception.PagareGenerationException;
+
+// Cálculo de la tabla de amortización (sistema francés, cuota fija) a partir de monto, tasa y plazo.
+@Component
+public class TablaAmortizacion {
+
+    public List<CuotaDto> generar(BigDecimal principal, BigDecimal tasaAnual, Short plazoMeses) {
+        return generar(principal, tasaAnual, plazoMeses, LocalDate.now());
+    }
+
+    // fechaInicio: las cuotas vencen mes a mes a partir de esta fecha
+    public List<CuotaDto> generar(BigDecimal principal, BigDecimal tasaAnual, Short plazoMeses, LocalDate fechaInicio) {
+
+        if (principal == null || principal.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new PagareGenerationException("El monto debe ser mayor a cero");
+        }
+        if (tasaAnual == null || tasaAnual.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new PagareGenerationException("La tasa debe ser mayor a cero");
+        }
+        if (plazoMeses == null || plazoMeses <= 0) {
+            throw new PagareGenerationException("El plazo debe ser mayor a cero");
+        }
+
+        BigDecimal tasaMensual = tasaAnual
+            .divide(BigDecimal.valueOf(12), 10, RoundingMode.HALF_UP)
+            .divide(BigDecimal.valueOf(100), 10, RoundingMode.HALF_UP);
+
+        BigDecimal factor = BigDecimal.ONE.add(tasaMensual).pow(plazoMeses);
+        BigDecimal numerador = principal.multiply(tasaMensual).multiply(factor);
+        BigDecimal denominador = factor.subtract(BigDecimal.ONE);
+        BigDecimal cuotaMensual = numerador.divide(denominador, 2, RoundingMode.HALF_UP);
+
+        List<CuotaDto> tabla = new ArrayList<>(plazoMeses);
+        BigDecimal saldo = principal;
+        for (int i = 1; i <= plazoMeses; i++) {
+            BigDecimal interes = saldo.multiply(tasaMensual).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal capital = cuotaMensual.subtract(interes);
+            saldo = saldo.subtract(capital);
+            if (i == plazoMeses && saldo.compareTo(BigDecimal.ZERO) != 0) {
+                capital = capital.add(saldo);
+                cuotaMensual = interes.add(capital);
+                saldo = BigDecimal.ZERO;
+            }
+            tabla.add(CuotaDto.builder()
+                .numeroCuota(i)
+                .monto(cuotaMensual)
+                .interes(interes)
+                .saldoPendiente(saldo)
+                .fechaVencimiento(fechaInicio.plusMonths(i))
+                .build()
+            );
+        }
+        return tabla;
+    }
+}
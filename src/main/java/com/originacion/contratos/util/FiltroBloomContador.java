@@ -0,0 +1,129 @@
+package com.originacion.contratos.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom con contadores de 4 bits (16 por long), para poder eliminar claves.
+ * Un contador saturado (15) ya no se incrementa ni se decrementa: sólo puede producir falsos
+ * positivos, nunca falsos negativos. Seguro para uso concurrente sin bloqueos.
+ */
+public class FiltroBloomContador {
+
+    private static final int BITS_CONTADOR = 4;
+    private static final long MAXIMO = 15;
+
+    private final AtomicLongArray palabras;
+    private final long contadores;
+    private final int funciones;
+    private final AtomicLong ocupados = new AtomicLong();
+    private final AtomicLong elementos = new AtomicLong();
+
+    public FiltroBloomContador(long elementosEsperados, double tasaFalsosPositivos) {
+        long n = Math.max(1, elementosEsperados);
+        long m = (long) Math.ceil(-n * Math.log(tasaFalsosPositivos) / (Math.log(2) * Math.log(2)));
+        this.contadores = Math.max(64, m);
+        this.funciones = Math.max(1, (int) Math.round((double) contadores / n * Math.log(2)));
+        this.palabras = new AtomicLongArray(Math.toIntExact((contadores + 15) / 16));
+    }
+
+    public void agregar(long clave) {
+        long h1 = mezclar(clave);
+        long h2 = mezclar(h1) | 1;
+        for (int i = 0; i < funciones; i++) {
+            incrementar(Math.floorMod(h1 + i * h2, contadores));
+        }
+        elementos.incrementAndGet();
+    }
+
+    // Sólo debe llamarse con claves agregadas antes a este mismo filtro; de lo contrario podría vaciar
+    // contadores de otras. Una clave que el filtro ya descarta no se resta (false)
+    public boolean eliminar(long clave) {
+        if (!puedeContener(clave)) {
+            return false;
+        }
+        long h1 = mezclar(clave);
+        long h2 = mezclar(h1) | 1;
+        for (int i = 0; i < funciones; i++) {
+            decrementar(Math.floorMod(h1 + i * h2, contadores));
+        }
+        elementos.decrementAndGet();
+        return true;
+    }
+
+    public boolean puedeContener(long clave) {
+        long h1 = mezclar(clave);
+        long h2 = mezclar(h1) | 1;
+        for (int i = 0; i < funciones; i++) {
+            if (leer(Math.floorMod(h1 + i * h2, contadores)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // (contadores ocupados / total) ^ funciones
+    public double tasaFalsosPositivosEstimada() {
+        return Math.pow((double) ocupados.get() / contadores, funciones);
+    }
+
+    public long memoriaBytes() {
+        return (long) palabras.length() * Long.BYTES;
+    }
+
+    public long elementos() {
+        return elementos.get();
+    }
+
+    private long leer(long posicion) {
+        return (palabras.get((int) (posicion >>> 4)) >>> desplazamiento(posicion)) & MAXIMO;
+    }
+
+    private void incrementar(long posicion) {
+        int indice = (int) (posicion >>> 4);
+        int desplazamiento = desplazamiento(posicion);
+        long actual;
+        long valor;
+        do {
+            actual = palabras.get(indice);
+            valor = (actual >>> desplazamiento) & MAXIMO;
+            if (valor == MAXIMO) {
+                return;
+            }
+        } while (!palabras.compareAndSet(indice, actual, actual + (1L << desplazamiento)));
+        if (valor == 0) {
+            ocupados.incrementAndGet();
+        }
+    }
+
+    private void decrementar(long posicion) {
+        int indice = (int) (posicion >>> 4);
+        int desplazamiento = desplazamiento(posicion);
+        long actual;
+        long valor;
+        do {
+            actual = palabras.get(indice);
+            valor = (actual >>> desplazamiento) & MAXIMO;
+            if (valor == MAXIMO || valor == 0) {
+                return;
+            }
+        } while (!palabras.compareAndSet(indice, actual, actual - (1L << desplazamiento)));
+        if (valor == 1) {
+            ocupados.decrementAndGet();
+        }
+    }
+
+    private static int desplazamiento(long posicion) {
+        return (int) (posicion & 15) * BITS_CONTADOR;
+    }
+
+    // fmix64 de MurmurHash3
+    private static long mezclar(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb93e185a873bL;
+        k ^= k >>> 33;
+        return k;
+    }
+}
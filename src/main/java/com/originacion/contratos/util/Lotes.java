@@ -0,0 +1,29 @@
+package com.originacion.contratos.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+public final class Lotes {
+
+    private Lotes() {
+    }
+
+    // Quita duplicados conservando el orden de llegada
+    public static <T> List<T> sinDuplicados(Collection<T> valores) {
+        return new ArrayList<>(new LinkedHashSet<>(valores));
+    }
+
+    // Divide la lista en bloques de tamaño máximo 'tamano' (vistas sobre la lista original)
+    public static <T> List<List<T>> particionar(List<T> valores, int tamano) {
+        if (tamano <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser mayor a cero");
+        }
+        List<List<T>> bloques = new ArrayList<>((valores.size() + tamano - 1) / tamano);
+        for (int i = 0; i < valores.size(); i += tamano) {
+            bloques.add(valores.subList(i, Math.min(i + tamano, valores.size())));
+        }
+        return bloques;
+    }
+}
@@ -0,0 +1,74 @@
+package com.originacion.contratos.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa llamadas concurrentes con la misma clave: solo la primera ejecuta la carga
+ * y las demás esperan y reciben el mismo resultado (o la misma excepción).
+ * No es una caché: en cuanto termina la llamada en vuelo, la clave se libera.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> enVuelo = new ConcurrentHashMap<>();
+    private final Counter ejecutadas;
+    private final Counter coalescidas;
+
+    public SingleFlight(String nombre, MeterRegistry meterRegistry) {
+        this.ejecutadas = Counter.builder("contratos.singleflight.llamadas")
+                .description("Llamadas de lectura agrupadas por single-flight")
+                .tag("nombre", nombre)
+                .tag("resultado", "ejecutada")
+                .register(meterRegistry);
+        this.coalescidas = Counter.builder("contratos.singleflight.llamadas")
+                .description("Llamadas de lectura agrupadas por single-flight")
+                .tag("nombre", nombre)
+                .tag("resultado", "coalescida")
+                .register(meterRegistry);
+    }
+
+    public V ejecutar(K clave, Supplier<V> carga) {
+        CompletableFuture<V> propia = new CompletableFuture<>();
+        CompletableFuture<V> existente = enVuelo.putIfAbsent(clave, propia);
+        if (existente != null) {
+            coalescidas.increment();
+            return esperar(existente);
+        }
+
+        ejecutadas.increment();
+        try {
+            V valor = carga.get();
+            propia.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            enVuelo.remove(clave, propia);
+        }
+    }
+
+    public int enVuelo() {
+        return enVuelo.size();
+    }
+
+    private V esperar(CompletableFuture<V> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.originacion.contratos.util;
+
+import com.originacion.contratos.exception.TiempoLimiteExcedidoException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instante límite de la petición HTTP en curso, fijado por TiempoLimiteFilter en el hilo que la atiende.
+ * Las transacciones, la obtención de conexiones y las llamadas Feign lo consultan para no seguir
+ * trabajando en algo que el cliente ya dejó de esperar. Fuera de una petición (tareas programadas,
+ * cola de trabajos) no hay límite y todo se comporta como antes.
+ */
+public final class TiempoLimite {
+
+    public static final long SIN_LIMITE = -1;
+
+    private static final ThreadLocal<Long> LIMITE_NANOS = new ThreadLocal<>();
+
+    private TiempoLimite() {
+    }
+
+    public static void establecer(long milisegundos) {
+        LIMITE_NANOS.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(milisegundos));
+    }
+
+    public static void limpiar() {
+        LIMITE_NANOS.remove();
+    }
+
+    // Milisegundos que quedan (0 si ya venció) o SIN_LIMITE si el hilo no tiene límite
+    public static long restanteMs() {
+        Long limite = LIMITE_NANOS.get();
+        if (limite == null) {
+            return SIN_LIMITE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime()));
+    }
+
+    public static boolean vencido() {
+        return restanteMs() == 0;
+    }
+
+    // Corta el trabajo en curso si el límite ya pasó; para los bucles que lanzan varias sentencias
+    public static void verificar(String operacion) {
+        if (vencido()) {
+            throw new TiempoLimiteExcedidoException(operacion);
+        }
+    }
+}
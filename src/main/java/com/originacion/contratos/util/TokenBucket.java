@@ -0,0 +1,44 @@
+package com.originacion.contratos.util;
+
+// Cubeta de fichas: 'capacidad' fichas como ráfaga máxima, repuestas a 'fichasPorSegundo'.
+public class TokenBucket {
+
+    private final double capacidad;
+    private final double fichasPorNano;
+    private double fichas;
+    private long ultimaRecarga;
+    private volatile long ultimoUso;
+
+    public TokenBucket(double capacidad, double fichasPorSegundo, long ahoraNanos) {
+        this.capacidad = capacidad;
+        this.fichasPorNano = fichasPorSegundo / 1_000_000_000d;
+        this.fichas = capacidad;
+        this.ultimaRecarga = ahoraNanos;
+        this.ultimoUso = ahoraNanos;
+    }
+
+    // Devuelve 0 si se concedió la ficha, o los nanosegundos que faltan para disponer de una
+    public synchronized long consumir(long ahoraNanos) {
+        recargar(ahoraNanos);
+        ultimoUso = ahoraNanos;
+        if (fichas >= 1) {
+            fichas -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - fichas) / fichasPorNano));
+    }
+
+    // Inactiva y llena: se puede descartar sin cambiar el comportamiento del limitador
+    public synchronized boolean inactivaDesde(long ahoraNanos, long inactividadNanos) {
+        recargar(ahoraNanos);
+        return fichas >= capacidad && ahoraNanos - ultimoUso >= inactividadNanos;
+    }
+
+    private void recargar(long ahoraNanos) {
+        long transcurrido = ahoraNanos - ultimaRecarga;
+        if (transcurrido > 0) {
+            fichas = Math.min(capacidad, fichas + transcurrido * fichasPorNano);
+            ultimaRecarga = ahoraNanos;
+        }
+    }
+}
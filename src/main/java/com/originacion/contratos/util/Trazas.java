@@ -0,0 +1,19 @@
+package com.originacion.contratos.util;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+public final class Trazas {
+
+    private Trazas() {
+    }
+
+    // Atributo de la observación en curso (el span del método más interno). Es de alta cardinalidad:
+    // va a la traza pero no a las etiquetas de las métricas. Sin observación activa no hace nada.
+    public static void etiquetar(ObservationRegistry registro, String clave, Object valor) {
+        Observation actual = registro.getCurrentObservation();
+        if (actual != null && valor != null) {
+            actual.highCardinalityKeyValue(clave, String.valueOf(valor));
+        }
+    }
+}
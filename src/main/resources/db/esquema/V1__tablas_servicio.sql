@@ -0,0 +1,78 @@
+-- Tablas propias del servicio además de contratos y pagarés: rollups diarios, índice del almacén de
+-- documentos, cronogramas compactos, re-amortizaciones y cola de trabajos. Con ddl-auto=update
+-- Hibernate las crea solo; con ddl-auto=validate (perfil arranque-rapido) o none (perfil particionado)
+-- deben existir antes de arrancar. Idempotente: se puede ejecutar sobre una base que ya las tenga.
+-- Los tipos coinciden con el mapeo JPA (model/*), que es lo que comprueba la validación de Hibernate.
+-- Uso: psql -d prestamosautomotrices -f src/main/resources/db/esquema/V1__tablas_servicio.sql
+
+\set ON_ERROR_STOP on
+
+BEGIN;
+
+CREATE SCHEMA IF NOT EXISTS gestion_contratos;
+
+-- Contador diario por métrica repartido en franjas (EstadisticasContratoService)
+CREATE TABLE IF NOT EXISTS gestion_contratos.rollups_contratos (
+    fecha    date        NOT NULL,
+    metrica  varchar(30) NOT NULL,
+    franja   smallint    NOT NULL,
+    cantidad bigint      NOT NULL,
+    PRIMARY KEY (fecha, metrica, franja)
+);
+
+-- Un documento por contenido distinto (AlmacenDocumentosService)
+CREATE TABLE IF NOT EXISTS gestion_contratos.documentos (
+    hash            varchar(64)  NOT NULL PRIMARY KEY,
+    tamano          bigint       NOT NULL,
+    tipocontenido   varchar(100) NOT NULL,
+    fechaalmacenado timestamp(6) NOT NULL
+);
+
+-- Cronograma completo de una solicitud en una fila (pagares.almacenamiento=COMPACTO).
+-- En bases particionadas, db/particionamiento/V4 la convierte en tabla particionada
+CREATE TABLE IF NOT EXISTS gestion_contratos.cronogramas (
+    idsolicitud     bigint        NOT NULL PRIMARY KEY,
+    montosolicitado numeric(14,2) NOT NULL,
+    tasaanual       numeric(7,4)  NOT NULL,
+    plazomeses      smallint      NOT NULL,
+    fechagenerado   timestamp(6)  NOT NULL,
+    datos           bytea         NOT NULL,
+    version         bigint
+);
+-- Recorrido por tasa de la re-amortización
+CREATE INDEX IF NOT EXISTS cronogramas_tasa_idx ON gestion_contratos.cronogramas (tasaanual, idsolicitud);
+
+-- Trabajos de re-amortización por cambio de tasa, con su punto de control
+CREATE TABLE IF NOT EXISTS gestion_contratos.reamortizaciones (
+    idreamortizacion   bigint       GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tasaanterior       numeric(7,4) NOT NULL,
+    tasanueva          numeric(7,4) NOT NULL,
+    estado             varchar(20)  NOT NULL,
+    ultimoidsolicitud  bigint       NOT NULL,
+    procesadas         bigint       NOT NULL,
+    modificadas        bigint       NOT NULL,
+    conflictos         bigint       NOT NULL,
+    error              varchar(500),
+    fechainicio        timestamp(6) NOT NULL,
+    fechaactualizacion timestamp(6) NOT NULL,
+    fechafin           timestamp(6)
+);
+
+-- Cola de trabajos en segundo plano compartida por las instancias (ColaTrabajosService)
+CREATE TABLE IF NOT EXISTS gestion_contratos.trabajos (
+    idtrabajo          bigint       GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tipo               varchar(40)  NOT NULL,
+    carga              text,
+    estado             varchar(20)  NOT NULL,
+    intentos           integer      NOT NULL,
+    maxintentos        integer      NOT NULL,
+    disponibledesde    timestamp(6) NOT NULL,
+    bloqueadopor       varchar(100),
+    error              varchar(500),
+    fechacreado        timestamp(6) NOT NULL,
+    fechaactualizacion timestamp(6) NOT NULL
+);
+-- Reclamo: SELECT ... WHERE tipo = ? AND estado IN (...) AND disponibledesde <= now() ... SKIP LOCKED
+CREATE INDEX IF NOT EXISTS trabajos_reclamo_idx ON gestion_contratos.trabajos (tipo, estado, disponibledesde);
+
+COMMIT;
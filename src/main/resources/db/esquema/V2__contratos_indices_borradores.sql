@@ -0,0 +1,17 @@
+-- Índices de la expiración de borradores (ExpiracionBorradoresService) sobre gestion_contratos.contratos:
+--   (estado, idcontrato)    recorrido por bloques de los DRAFT vencidos
+--   (estado, fechagenerado) MIN(fechagenerado) de los DRAFT para el indicador de retraso
+-- Con ddl-auto=update Hibernate los crea, pero bloqueando las escrituras mientras se construyen;
+-- en bases grandes conviene crearlos antes con este script, que no las bloquea.
+--
+-- Para tabla sin particionar. CONCURRENTLY no admite transacción: ejecutar tal cual, sin BEGIN.
+-- La migración particionada (db/particionamiento/V3) ya los crea.
+-- Uso: psql -d prestamosautomotrices -f src/main/resources/db/esquema/V2__contratos_indices_borradores.sql
+
+\set ON_ERROR_STOP on
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contratos_estado_id_idx
+    ON gestion_contratos.contratos (estado, idcontrato);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contratos_estado_fechagenerado_idx
+    ON gestion_contratos.contratos (estado, fechagenerado);
@@ -0,0 +1,37 @@
+-- Reparte los contadores diarios de gestion_contratos.rollups_contratos en franjas: la clave pasa de
+-- (fecha, metrica) a (fecha, metrica, franja). Las filas existentes quedan en la franja 0 y las
+-- lecturas suman todas las franjas, así que las series no cambian.
+-- Necesaria en bases creadas antes de las franjas: Hibernate (ddl-auto=update) no puede añadir una
+-- columna NOT NULL a una tabla con filas ni cambiar la clave primaria, y el alta de contadores usa
+-- ON CONFLICT (fecha, metrica, franja). Idempotente.
+-- Uso: psql -d prestamosautomotrices -f src/main/resources/db/esquema/V3__rollups_franjas.sql
+
+\set ON_ERROR_STOP on
+
+BEGIN;
+
+ALTER TABLE gestion_contratos.rollups_contratos
+    ADD COLUMN IF NOT EXISTS franja smallint NOT NULL DEFAULT 0;
+ALTER TABLE gestion_contratos.rollups_contratos ALTER COLUMN franja DROP DEFAULT;
+
+DO $$
+DECLARE
+    restriccion text;
+BEGIN
+    SELECT c.conname INTO restriccion
+      FROM pg_constraint c
+     WHERE c.conrelid = 'gestion_contratos.rollups_contratos'::regclass
+       AND c.contype = 'p'
+       AND NOT EXISTS (SELECT 1
+                         FROM pg_attribute a
+                        WHERE a.attrelid = c.conrelid
+                          AND a.attnum = ANY (c.conkey)
+                          AND a.attname = 'franja');
+    IF restriccion IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE gestion_contratos.rollups_contratos DROP CONSTRAINT %I', restriccion);
+        ALTER TABLE gestion_contratos.rollups_contratos ADD PRIMARY KEY (fecha, metrica, franja);
+    END IF;
+END
+$$;
+
+COMMIT;
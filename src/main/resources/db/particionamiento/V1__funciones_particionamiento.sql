@@ -0,0 +1,51 @@
+-- Funciones de mantenimiento de particiones por rango de IdSolicitud.
+-- Ejecutar una sola vez antes de V2/V3/V4:  psql -d prestamosautomotrices -f V1__funciones_particionamiento.sql
+
+CREATE SCHEMA IF NOT EXISTS gestion_contratos;
+CREATE SCHEMA IF NOT EXISTS archivo_contratos;
+
+-- Crea la partición [desde, desde + ancho) de p_tabla si no existe. Nombre: <tabla>_p<desde>
+CREATE OR REPLACE FUNCTION gestion_contratos.crear_particion(p_tabla text, p_desde bigint, p_ancho bigint)
+RETURNS text LANGUAGE plpgsql AS $$
+DECLARE
+    v_nombre text := format('%s_p%s', p_tabla, p_desde);
+BEGIN
+    IF to_regclass(format('gestion_contratos.%I', v_nombre)) IS NULL THEN
+        EXECUTE format('CREATE TABLE gestion_contratos.%I PARTITION OF gestion_contratos.%I FOR VALUES FROM (%s) TO (%s)',
+                       v_nombre, p_tabla, p_desde, p_desde + p_ancho);
+        RAISE NOTICE 'Partición creada: %', v_nombre;
+    END IF;
+    RETURN v_nombre;
+END;
+$$;
+
+-- Asegura particiones desde la primera hasta p_adelante rangos por encima del IdSolicitud máximo.
+-- Devuelve cuántas particiones se crearon.
+CREATE OR REPLACE FUNCTION gestion_contratos.asegurar_particiones(p_tabla text, p_ancho bigint, p_adelante int)
+RETURNS int LANGUAGE plpgsql AS $$
+DECLARE
+    v_max bigint;
+    v_desde bigint;
+    v_hasta bigint;
+    v_creadas int := 0;
+BEGIN
+    EXECUTE format('SELECT COALESCE(max(idsolicitud), 0) FROM gestion_contratos.%I', p_tabla) INTO v_max;
+    -- Las particiones ya archivadas (desacopladas) no se vuelven a crear: se parte de la menor vigente
+    SELECT COALESCE(min(substring(c.relname FROM '_p([0-9]+)$')::bigint), 0)
+      INTO v_desde
+      FROM pg_inherits i
+      JOIN pg_class c ON c.oid = i.inhrelid
+      JOIN pg_class p ON p.oid = i.inhparent
+      JOIN pg_namespace n ON n.oid = p.relnamespace
+     WHERE n.nspname = 'gestion_contratos' AND p.relname = p_tabla;
+    v_hasta := (v_max / p_ancho + 1 + p_adelante) * p_ancho;
+    WHILE v_desde < v_hasta LOOP
+        IF to_regclass(format('gestion_contratos.%I', format('%s_p%s', p_tabla, v_desde))) IS NULL THEN
+            PERFORM gestion_contratos.crear_particion(p_tabla, v_desde, p_ancho);
+            v_creadas := v_creadas + 1;
+        END IF;
+        v_desde := v_desde + p_ancho;
+    END LOOP;
+    RETURN v_creadas;
+END;
+$$;
@@ -0,0 +1,54 @@
+-- Convierte gestion_contratos.pagares en tabla particionada por rango de IdSolicitud.
+-- 100.000 solicitudes por partición (~3,6M filas con plazos de 36 meses). Todas las consultas
+-- filtran por IdSolicitud, así que el planificador poda a una sola partición.
+--
+-- La PK pasa a (IdPagare, IdSolicitud) porque Postgres exige la clave de partición en las
+-- restricciones únicas; IdPagare sigue saliendo de su secuencia, así que el mapeo JPA (@Id IdPagare,
+-- IDENTITY) no cambia. findById sin IdSolicitud recorre el índice de cada partición.
+--
+-- Detener la aplicación (o ponerla en sólo lectura) mientras corre la copia.
+
+BEGIN;
+
+ALTER TABLE gestion_contratos.pagares RENAME TO pagares_legado;
+
+CREATE SEQUENCE IF NOT EXISTS gestion_contratos.pagares_idpagare_seq AS bigint;
+SELECT setval('gestion_contratos.pagares_idpagare_seq',
+              COALESCE((SELECT max(idpagare) FROM gestion_contratos.pagares_legado), 0) + 1, false);
+
+CREATE TABLE gestion_contratos.pagares (
+    idpagare      bigint       NOT NULL DEFAULT nextval('gestion_contratos.pagares_idpagare_seq'),
+    idsolicitud   bigint       NOT NULL,
+    numerocuota   integer      NOT NULL,
+    rutaarchivo   varchar(150) NOT NULL,
+    fechagenerado timestamp(6) NOT NULL,
+    activo        boolean      NOT NULL,
+    version       bigint,
+    PRIMARY KEY (idpagare, idsolicitud)
+) PARTITION BY RANGE (idsolicitud);
+
+ALTER SEQUENCE gestion_contratos.pagares_idpagare_seq OWNED BY gestion_contratos.pagares.idpagare;
+
+-- Índices declarados en la tabla padre: se crean en cada partición
+-- Única: la usa el alta de cronogramas (ON CONFLICT (idsolicitud, numerocuota))
+CREATE UNIQUE INDEX pagares_idsolicitud_cuota_uk ON gestion_contratos.pagares (idsolicitud, numerocuota);
+
+-- Sin partición DEFAULT: impediría DETACH ... CONCURRENTLY al archivar. El mantenimiento programado
+-- crea los rangos futuros por adelantado (particionamiento.rangos-adelante).
+SELECT gestion_contratos.crear_particion('pagares', s * 100000, 100000)
+  FROM generate_series(0, (SELECT COALESCE(max(idsolicitud), 0) FROM gestion_contratos.pagares_legado) / 100000 + 4) AS s;
+
+-- Una fila por (IdSolicitud, NumeroCuota), con el mismo criterio que db/restricciones/V1: el pagaré
+-- activo más antiguo. Los duplicados quedan sólo en pagares_legado.
+INSERT INTO gestion_contratos.pagares (idpagare, idsolicitud, numerocuota, rutaarchivo, fechagenerado, activo, version)
+SELECT DISTINCT ON (idsolicitud, numerocuota)
+       idpagare, idsolicitud, numerocuota, rutaarchivo, fechagenerado, activo, version
+  FROM gestion_contratos.pagares_legado
+ ORDER BY idsolicitud, numerocuota, activo DESC, idpagare;
+
+COMMIT;
+
+ANALYZE gestion_contratos.pagares;
+
+-- Verificado el conteo, eliminar la tabla anterior:
+-- DROP TABLE gestion_contratos.pagares_legado;
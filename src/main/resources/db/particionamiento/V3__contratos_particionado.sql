@@ -0,0 +1,52 @@
+-- Convierte gestion_contratos.contratos en tabla particionada por rango de IdSolicitud.
+--
+-- Se particiona por IdSolicitud y no por FechaGenerado: la unicidad de IdSolicitud (un contrato por
+-- solicitud) sólo puede garantizarla Postgres si la clave de partición forma parte de la restricción,
+-- y con FechaGenerado habría que relajarla a (IdSolicitud, FechaGenerado). Los IdSolicitud crecen con
+-- el tiempo, así que los rangos bajos son también los contratos más antiguos; el archivado comprueba
+-- FechaGenerado antes de desacoplar cada partición. Los rangos coinciden con los de pagares para
+-- archivar una solicitud completa de una vez.
+
+BEGIN;
+
+ALTER TABLE gestion_contratos.contratos RENAME TO contratos_legado;
+
+CREATE SEQUENCE IF NOT EXISTS gestion_contratos.contratos_idcontrato_seq AS integer;
+SELECT setval('gestion_contratos.contratos_idcontrato_seq',
+              COALESCE((SELECT max(idcontrato) FROM gestion_contratos.contratos_legado), 0) + 1, false);
+
+CREATE TABLE gestion_contratos.contratos (
+    idcontrato        integer      NOT NULL DEFAULT nextval('gestion_contratos.contratos_idcontrato_seq'),
+    idsolicitud       integer      NOT NULL,
+    rutaarchivo       varchar(150) NOT NULL,
+    fechagenerado     timestamp(6) NOT NULL,
+    fechafirma        timestamp(6),
+    estado            varchar(20)  NOT NULL,
+    condicionespecial varchar(120),
+    version           bigint,
+    PRIMARY KEY (idcontrato, idsolicitud),
+    UNIQUE (idsolicitud)
+) PARTITION BY RANGE (idsolicitud);
+
+ALTER SEQUENCE gestion_contratos.contratos_idcontrato_seq OWNED BY gestion_contratos.contratos.idcontrato;
+
+CREATE INDEX contratos_estado_idx ON gestion_contratos.contratos (estado);
+CREATE INDEX contratos_fechagenerado_idx ON gestion_contratos.contratos (fechagenerado);
+-- Barrido y retraso de la expiración de borradores (ver db/esquema/V2)
+CREATE INDEX contratos_estado_id_idx ON gestion_contratos.contratos (estado, idcontrato);
+CREATE INDEX contratos_estado_fechagenerado_idx ON gestion_contratos.contratos (estado, fechagenerado);
+
+SELECT gestion_contratos.crear_particion('contratos', s * 100000, 100000)
+  FROM generate_series(0, (SELECT COALESCE(max(idsolicitud), 0) FROM gestion_contratos.contratos_legado) / 100000 + 4) AS s;
+
+INSERT INTO gestion_contratos.contratos
+       (idcontrato, idsolicitud, rutaarchivo, fechagenerado, fechafirma, estado, condicionespecial, version)
+SELECT idcontrato, idsolicitud, rutaarchivo, fechagenerado, fechafirma, estado, condicionespecial, version
+  FROM gestion_contratos.contratos_legado;
+
+COMMIT;
+
+ANALYZE gestion_contratos.contratos;
+
+-- Verificado el conteo, eliminar la tabla anterior:
+-- DROP TABLE gestion_contratos.contratos_legado;
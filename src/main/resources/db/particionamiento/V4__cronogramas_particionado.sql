@@ -0,0 +1,43 @@
+-- Convierte gestion_contratos.cronogramas (pagarés compactos, una fila por solicitud) en tabla
+-- particionada por rango de IdSolicitud, con los mismos rangos que contratos y pagarés para que el
+-- archivado desacople la solicitud completa. La PK ya es IdSolicitud, así que no cambia.
+--
+-- Requiere la tabla sin particionar de db/esquema/V1__tablas_servicio.sql (vacía o con datos) y las
+-- funciones de V1. Detener la aplicación (o ponerla en sólo lectura) mientras corre la copia.
+
+BEGIN;
+
+ALTER TABLE gestion_contratos.cronogramas RENAME TO cronogramas_legado;
+ALTER INDEX IF EXISTS gestion_contratos.cronogramas_tasa_idx RENAME TO cronogramas_legado_tasa_idx;
+
+CREATE TABLE gestion_contratos.cronogramas (
+    idsolicitud     bigint        NOT NULL,
+    montosolicitado numeric(14,2) NOT NULL,
+    tasaanual       numeric(7,4)  NOT NULL,
+    plazomeses      smallint      NOT NULL,
+    fechagenerado   timestamp(6)  NOT NULL,
+    datos           bytea         NOT NULL,
+    version         bigint,
+    PRIMARY KEY (idsolicitud)
+) PARTITION BY RANGE (idsolicitud);
+
+-- Recorrido por tasa de la re-amortización
+CREATE INDEX cronogramas_tasa_idx ON gestion_contratos.cronogramas (tasaanual, idsolicitud);
+
+-- Hasta el mayor IdSolicitud de contratos: los cronogramas nuevos caen en rangos ya creados
+SELECT gestion_contratos.crear_particion('cronogramas', s * 100000, 100000)
+  FROM generate_series(0, GREATEST((SELECT COALESCE(max(idsolicitud), 0) FROM gestion_contratos.cronogramas_legado),
+                                   (SELECT COALESCE(max(idsolicitud), 0) FROM gestion_contratos.contratos))
+                          / 100000 + 4) AS s;
+
+INSERT INTO gestion_contratos.cronogramas
+       (idsolicitud, montosolicitado, tasaanual, plazomeses, fechagenerado, datos, version)
+SELECT idsolicitud, montosolicitado, tasaanual, plazomeses, fechagenerado, datos, version
+  FROM gestion_contratos.cronogramas_legado;
+
+COMMIT;
+
+ANALYZE gestion_contratos.cronogramas;
+
+-- Verificado el conteo, eliminar la tabla anterior:
+-- DROP TABLE gestion_contratos.cronogramas_legado;
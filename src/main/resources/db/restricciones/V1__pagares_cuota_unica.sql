@@ -0,0 +1,62 @@
+-- Restricción única (IdSolicitud, NumeroCuota) de gestion_contratos.pagares, que necesita el alta de
+-- cronogramas (INSERT ... ON CONFLICT (idsolicitud, numerocuota) DO NOTHING). Sin ella cada alta
+-- falla con "there is no unique or exclusion constraint matching the ON CONFLICT specification".
+--
+-- No hay que confiar en ddl-auto=update para crearla: si la tabla ya tiene cuotas duplicadas,
+-- Hibernate registra el fallo y arranca igual. Este script descarta los duplicados y crea el índice;
+-- mientras falte, el servicio no arranca (VerificacionEsquemaConfig).
+-- De cada (IdSolicitud, NumeroCuota) se conserva el pagaré activo más antiguo (o el más antiguo si
+-- ninguno está activo); los descartados se guardan en pagares_duplicados para revisarlos.
+--
+-- Para tabla sin particionar. La migración particionada (db/particionamiento/V2) ya crea el índice.
+-- El bloqueo frena las escrituras de pagarés mientras corre; las lecturas siguen.
+-- Uso: psql -d prestamosautomotrices -f src/main/resources/db/restricciones/V1__pagares_cuota_unica.sql
+
+\set ON_ERROR_STOP on
+
+BEGIN;
+
+LOCK TABLE gestion_contratos.pagares IN SHARE ROW EXCLUSIVE MODE;
+
+CREATE TABLE IF NOT EXISTS gestion_contratos.pagares_duplicados (
+    idpagare        bigint       NOT NULL,
+    idsolicitud     bigint       NOT NULL,
+    numerocuota     integer      NOT NULL,
+    rutaarchivo     varchar(150),
+    fechagenerado   timestamp(6),
+    activo          boolean,
+    version         bigint,
+    fechadescartado timestamp(6) NOT NULL DEFAULT now()
+);
+
+WITH ordenados AS (
+    SELECT idpagare,
+           row_number() OVER (PARTITION BY idsolicitud, numerocuota ORDER BY activo DESC, idpagare) AS orden
+      FROM gestion_contratos.pagares
+), descartados AS (
+    DELETE FROM gestion_contratos.pagares p
+     USING ordenados o
+     WHERE p.idpagare = o.idpagare
+       AND o.orden > 1
+    RETURNING p.idpagare, p.idsolicitud, p.numerocuota, p.rutaarchivo, p.fechagenerado, p.activo, p.version
+)
+INSERT INTO gestion_contratos.pagares_duplicados
+       (idpagare, idsolicitud, numerocuota, rutaarchivo, fechagenerado, activo, version)
+SELECT idpagare, idsolicitud, numerocuota, rutaarchivo, fechagenerado, activo, version
+  FROM descartados;
+
+-- Como restricción (y no sólo índice) para que la validación de esquema de Hibernate la reconozca
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                    WHERE conname = 'pagares_idsolicitud_cuota_uk'
+                      AND conrelid = 'gestion_contratos.pagares'::regclass) THEN
+        ALTER TABLE gestion_contratos.pagares
+            ADD CONSTRAINT pagares_idsolicitud_cuota_uk UNIQUE (idsolicitud, numerocuota);
+    END IF;
+END
+$$;
+
+COMMIT;
+
+SELECT count(*) AS pagares_descartados FROM gestion_contratos.pagares_duplicados;
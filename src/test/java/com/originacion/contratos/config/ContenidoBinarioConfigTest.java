@@ -0,0 +1,70 @@
+package com.originacion.contratos.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.originacion.contratos.dto.CuotaDto;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContenidoBinarioConfigTest {
+
+    @Test
+    void reemplazaElConvertidorCborPorDefectoEnSuPosicion() {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        converters.add(new MappingJackson2HttpMessageConverter());
+        MappingJackson2CborHttpMessageConverter porDefecto = new MappingJackson2CborHttpMessageConverter();
+        converters.add(porDefecto);
+
+        new ContenidoBinarioConfig().extendMessageConverters(converters);
+
+        assertThat(converters).hasSize(2);
+        assertThat(converters.get(0)).isInstanceOf(MappingJackson2HttpMessageConverter.class);
+        assertThat(converters.get(1)).isInstanceOf(MappingJackson2CborHttpMessageConverter.class).isNotSameAs(porDefecto);
+        // El primero que puede escribir application/cbor es el compacto
+        HttpMessageConverter<?> elegido = converters.stream()
+                .filter(c -> c.canWrite(CuotaDto.class, MediaType.APPLICATION_CBOR))
+                .findFirst().orElseThrow();
+        assertThat(elegido).isSameAs(converters.get(1));
+        assertThat(elegido.canRead(CuotaDto.class, MediaType.APPLICATION_CBOR)).isFalse();
+    }
+
+    @Test
+    void agregaElConvertidorSiNoHabiaUnoCbor() {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>(List.of(new MappingJackson2HttpMessageConverter()));
+
+        new ContenidoBinarioConfig().extendMessageConverters(converters);
+
+        assertThat(converters).hasSize(2);
+        assertThat(converters.get(1)).isInstanceOf(MappingJackson2CborHttpMessageConverter.class);
+    }
+
+    @Test
+    void escribeLasFechasComoDiasEpoch() throws Exception {
+        ObjectMapper cbor = ContenidoBinarioConfig.cborMapper();
+        LocalDate vencimiento = LocalDate.of(2024, 2, 15);
+        CuotaDto cuota = CuotaDto.builder()
+                .numeroCuota(1)
+                .monto(new BigDecimal("100.00"))
+                .interes(new BigDecimal("10.00"))
+                .saldoPendiente(new BigDecimal("900.00"))
+                .fechaVencimiento(vencimiento)
+                .build();
+
+        JsonNode nodo = cbor.readTree(cbor.writeValueAsBytes(cuota));
+
+        assertThat(nodo.get("fechaVencimiento").isNumber()).isTrue();
+        assertThat(nodo.get("fechaVencimiento").asLong()).isEqualTo(vencimiento.toEpochDay());
+        assertThat(nodo.get("numeroCuota").asInt()).isEqualTo(1);
+    }
+}
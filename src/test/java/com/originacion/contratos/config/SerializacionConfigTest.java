@@ -0,0 +1,62 @@
+package com.originacion.contratos.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.originacion.contratos.dto.ContratoDTO;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SerializacionConfigTest {
+
+    private final ObjectMapper reflexion = mapper(false);
+    private final ObjectMapper escritoAMano = mapper(true);
+
+    @Test
+    void laPaginaDeContratosProduceElMismoJsonQueJackson() throws Exception {
+        ContratoDTO firmado = contrato(1, LocalDateTime.of(2024, 1, 16, 9, 0), "FIRMADO");
+        ContratoDTO borrador = contrato(2, null, "DRAFT");
+        borrador.setCondicionEspecial("Seguro todo riesgo incluido");
+        PageImpl<ContratoDTO> pagina = new PageImpl<>(List.of(firmado, borrador),
+                PageRequest.of(2, 2, Sort.by("idContrato").descending()), 9);
+
+        assertThat(escritoAMano.writeValueAsString(pagina)).isEqualTo(reflexion.writeValueAsString(pagina));
+    }
+
+    @Test
+    void unaPaginaVaciaSinOrdenProduceElMismoJsonQueJackson() throws Exception {
+        PageImpl<ContratoDTO> pagina = new PageImpl<>(List.of(), PageRequest.of(0, 10), 0);
+
+        assertThat(escritoAMano.writeValueAsString(pagina)).isEqualTo(reflexion.writeValueAsString(pagina));
+    }
+
+    private static ContratoDTO contrato(int id, LocalDateTime fechaFirma, String estado) {
+        ContratoDTO contrato = new ContratoDTO();
+        contrato.setIdContrato(id);
+        contrato.setIdSolicitud(100_000 + id);
+        contrato.setRutaArchivo("/contratos/" + id + ".pdf");
+        contrato.setFechaGenerado(LocalDateTime.of(2024, 1, 15, 10, 30));
+        contrato.setFechaFirma(fechaFirma);
+        contrato.setEstado(estado);
+        contrato.setVersion(1L);
+        return contrato;
+    }
+
+    // Misma configuración base que el ObjectMapper de Spring Boot
+    private static ObjectMapper mapper(boolean serializadoresRapidos) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (serializadoresRapidos) {
+            builder.modulesToInstall(SerializacionConfig.serializadores("test", false));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.originacion.contratos.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LimiteEscrituraFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // Dos fichas por cliente y reposición despreciable durante el test
+    private final LimiteEscrituraFilter filtro = new LimiteEscrituraFilter(registry, true, 2, 0.001, 20, 50,
+            List.of("batch-cartera"), 2);
+
+    @Test
+    void rotarUnIdentificadorDesconocidoNoDaFichasNuevas() throws Exception {
+        assertThat(escribir("10.0.0.1", "a")).isEqualTo(200);
+        assertThat(escribir("10.0.0.1", "b")).isEqualTo(200);
+        assertThat(escribir("10.0.0.1", "c")).isEqualTo(429);
+    }
+
+    @Test
+    void unClienteConocidoTieneCubetaPropia() throws Exception {
+        assertThat(escribir("10.0.0.1", null)).isEqualTo(200);
+        assertThat(escribir("10.0.0.1", null)).isEqualTo(200);
+        assertThat(escribir("10.0.0.1", "batch-cartera")).isEqualTo(200);
+        assertThat(escribir("10.0.0.1", null)).isEqualTo(429);
+    }
+
+    @Test
+    void pasadoElMaximoLosClientesNuevosCompartenUnaCubeta() throws Exception {
+        escribir("10.0.0.1", null);
+        escribir("10.0.0.2", null);
+
+        assertThat(escribir("10.0.0.3", null)).isEqualTo(200);
+        assertThat(escribir("10.0.0.4", null)).isEqualTo(200);
+        assertThat(escribir("10.0.0.5", null)).isEqualTo(429);
+        assertThat(registry.get("contratos.limite.escritura.clientes").gauge().value()).isEqualTo(2);
+    }
+
+    private int escribir(String ip, String cliente) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/api/pagares/7");
+        request.setRemoteAddr(ip);
+        if (cliente != null) {
+            request.addHeader(LimiteEscrituraFilter.CABECERA_CLIENTE, cliente);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, (req, res) -> { });
+        return response.getStatus();
+    }
+}
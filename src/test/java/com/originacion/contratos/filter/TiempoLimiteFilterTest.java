@@ -0,0 +1,181 @@
+package com.originacion.contratos.filter;
+
+import com.originacion.contratos.config.FeignTiempoLimiteConfig;
+import com.originacion.contratos.exception.TiempoLimiteExcedidoException;
+import com.originacion.contratos.util.TiempoLimite;
+
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TiempoLimiteFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TiempoLimiteFilter filtro = new TiempoLimiteFilter(registry, true, 10_000, 60_000, 50,
+            List.of("GET /api/contratos/exportar=0", "* /api/pagares/**=2000"));
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @AfterEach
+    void limpiar() {
+        TiempoLimite.limpiar();
+    }
+
+    @Test
+    void laCabeceraDelClienteFijaElLimiteVisibleDuranteLaPeticion() throws Exception {
+        MockHttpServletRequest request = peticion("GET", "/api/contratos/1");
+        request.addHeader(TiempoLimiteFilter.CABECERA, "3000");
+
+        long visto = atender(request);
+
+        assertThat(visto).isBetween(2_900L, 3_000L);
+        assertThat(TiempoLimite.restanteMs()).isEqualTo(TiempoLimite.SIN_LIMITE);
+    }
+
+    @Test
+    void laCabeceraSeAcotaAlMaximoConfigurado() throws Exception {
+        MockHttpServletRequest request = peticion("GET", "/api/contratos/1");
+        request.addHeader(TiempoLimiteFilter.CABECERA, "900000");
+
+        assertThat(atender(request)).isBetween(59_000L, 60_000L);
+    }
+
+    @Test
+    void sinCabeceraSeUsaElLimiteDeLaRutaOElPorDefecto() throws Exception {
+        assertThat(atender(peticion("DELETE", "/api/pagares/7"))).isBetween(1_900L, 2_000L);
+        assertThat(atender(peticion("GET", "/api/contratos/exportar"))).isEqualTo(TiempoLimite.SIN_LIMITE);
+        assertThat(atender(peticion("GET", "/api/contratos/1"))).isBetween(9_900L, 10_000L);
+    }
+
+    @Test
+    void conMenosPresupuestoDelMinimoSeRechazaSinAtender() throws Exception {
+        MockHttpServletRequest request = peticion("GET", "/api/contratos/1");
+        request.addHeader(TiempoLimiteFilter.CABECERA, "0");
+
+        filtro.doFilter(request, response, (req, res) -> {
+            throw new AssertionError("No debía atenderse");
+        });
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(registry.get("contratos.tiempo.limite.rechazadas").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void unaCabeceraInvalidaEsPeticionIncorrecta() throws Exception {
+        MockHttpServletRequest request = peticion("GET", "/api/contratos/1");
+        request.addHeader(TiempoLimiteFilter.CABECERA, "pronto");
+
+        filtro.doFilter(request, response, (req, res) -> {
+            throw new AssertionError("No debía atenderse");
+        });
+
+        assertThat(response.getStatus()).isEqualTo(400);
+    }
+
+    @Test
+    void unFalloConElLimiteVencidoSeContestaCon504() throws Exception {
+        MockHttpServletRequest request = peticion("GET", "/api/contratos/1");
+        request.addHeader(TiempoLimiteFilter.CABECERA, "60");
+
+        filtro.doFilter(request, response, (req, res) -> {
+            dormir(80);
+            TiempoLimite.verificar("consulta de contratos");
+        });
+
+        assertThat(response.getStatus()).isEqualTo(504);
+        assertThat(registry.get("contratos.tiempo.limite.excedidas").counter().count()).isEqualTo(1);
+        assertThat(TiempoLimite.restanteMs()).isEqualTo(TiempoLimite.SIN_LIMITE);
+    }
+
+    @Test
+    void unFalloAntesDeVencerSePropagaSinCambios() {
+        MockHttpServletRequest request = peticion("GET", "/api/contratos/1");
+
+        assertThatThrownBy(() -> filtro.doFilter(request, response, (req, res) -> {
+            throw new IllegalStateException("fallo propio");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(TiempoLimite.restanteMs()).isEqualTo(TiempoLimite.SIN_LIMITE);
+    }
+
+    @Test
+    void lasLlamadasFeignPropaganElRestanteAlServicioRemoto() throws Exception {
+        MockHttpServletRequest request = peticion("GET", "/api/contratos/1");
+        request.addHeader(TiempoLimiteFilter.CABECERA, "4000");
+        RequestTemplate plantilla = new RequestTemplate();
+
+        filtro.doFilter(request, response, (req, res) -> new FeignTiempoLimiteConfig().propagarTiempoLimite().apply(plantilla));
+
+        assertThat(plantilla.headers().get(TiempoLimiteFilter.CABECERA))
+                .singleElement()
+                .satisfies(valor -> assertThat(Long.parseLong(valor)).isBetween(3_900L, 4_000L));
+    }
+
+    @Test
+    void sinPresupuestoLaLlamadaFeignNoSeIntenta() throws Exception {
+        MockHttpServletRequest request = peticion("GET", "/api/contratos/1");
+        request.addHeader(TiempoLimiteFilter.CABECERA, "60");
+
+        filtro.doFilter(request, response, (req, res) -> {
+            dormir(20);
+            assertThatThrownBy(() -> acotado(50, (peticion, opciones) -> {
+                throw new AssertionError("No debía llamarse al cliente");
+            }).execute(cuotas(), new Request.Options()))
+                    .isInstanceOf(TiempoLimiteExcedidoException.class);
+        });
+    }
+
+    @Test
+    void elClienteConfiguradoRecibeLosTiemposAcotadosAlRestante() throws Exception {
+        MockHttpServletRequest request = peticion("GET", "/api/contratos/1");
+        request.addHeader(TiempoLimiteFilter.CABECERA, "4000");
+        AtomicReference<Request.Options> vistas = new AtomicReference<>();
+
+        filtro.doFilter(request, response, (req, res) -> acotado(50, (peticion, opciones) -> {
+            vistas.set(opciones);
+            return null;
+        }).execute(cuotas(), new Request.Options()));
+
+        assertThat(vistas.get().readTimeoutMillis()).isBetween(3_900, 4_000);
+        assertThat(vistas.get().connectTimeoutMillis()).isBetween(3_900, 4_000);
+    }
+
+    private static Client acotado(long minimoMs, Client configurado) {
+        return new FeignTiempoLimiteConfig().tiempoLimiteFeign(minimoMs).enrich(configurado);
+    }
+
+    private static Request cuotas() {
+        return Request.create(Request.HttpMethod.GET, "http://originacion/cuotas", Map.of(), null, null, null);
+    }
+
+    private long atender(MockHttpServletRequest request) throws Exception {
+        AtomicLong visto = new AtomicLong();
+        filtro.doFilter(request, new MockHttpServletResponse(), (req, res) -> visto.set(TiempoLimite.restanteMs()));
+        return visto.get();
+    }
+
+    private static void dormir(long milisegundos) {
+        try {
+            Thread.sleep(milisegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static MockHttpServletRequest peticion(String metodo, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, uri);
+        request.setRequestURI(uri);
+        return request;
+    }
+}
@@ -0,0 +1,119 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.dto.CuotaDto;
+import com.originacion.contratos.exception.PagareGenerationException;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CodificadorCronogramaTest {
+
+    @Test
+    void unCronogramaCompletoSobreviveAlCicloDeCodificacion() {
+        List<CuotaDto> cuotas = new TablaAmortizacion().generar(new BigDecimal("25000"), new BigDecimal("12"), (short) 360);
+        BitSet inactivas = new BitSet();
+        inactivas.set(1);
+        inactivas.set(180);
+        inactivas.set(360);
+        Map<Integer, String> rutas = new TreeMap<>(Map.of(
+                2, "sha256:" + "a".repeat(64),
+                360, "/pagares/reimpresión ñ/360.pdf"));
+
+        CodificadorCronograma.Contenido decodificado = ciclo(new CodificadorCronograma.Contenido(cuotas, inactivas, rutas));
+
+        assertThat(decodificado.cuotas()).hasSize(360);
+        for (int i = 0; i < cuotas.size(); i++) {
+            CuotaDto original = cuotas.get(i);
+            CuotaDto leida = decodificado.cuotas().get(i);
+            assertThat(leida.getNumeroCuota()).isEqualTo(i + 1);
+            assertThat(leida.getMonto()).isEqualByComparingTo(original.getMonto());
+            assertThat(leida.getInteres()).isEqualByComparingTo(original.getInteres());
+            assertThat(leida.getSaldoPendiente()).isEqualByComparingTo(original.getSaldoPendiente());
+            assertThat(leida.getFechaVencimiento()).isEqualTo(original.getFechaVencimiento());
+        }
+        assertThat(decodificado.inactivas()).isEqualTo(inactivas);
+        assertThat(decodificado.rutas()).isEqualTo(rutas);
+    }
+
+    @Test
+    void conservaDeltasNegativosValoresNegativosYFechasAnterioresAlEpoch() {
+        List<CuotaDto> cuotas = List.of(
+                cuota(1, "1000000.00", "0.01", "99999999.99", LocalDate.of(1969, 12, 1)),
+                cuota(2, "0.00", "-12.34", "0.00", LocalDate.of(1969, 11, 1)),
+                cuota(3, "-5.50", "12.35", "-0.01", LocalDate.of(2100, 1, 31)),
+                cuota(4, "5.50", "0.00", "42.00", LocalDate.of(1970, 1, 1)));
+
+        CodificadorCronograma.Contenido decodificado = ciclo(new CodificadorCronograma.Contenido(cuotas, new BitSet(), Map.of()));
+
+        assertThat(decodificado.cuotas()).isEqualTo(cuotas);
+    }
+
+    @Test
+    void sinInactivasNiRutasPropiasLasColeccionesQuedanVacias() {
+        List<CuotaDto> cuotas = List.of(cuota(1, "100.00", "1.00", "0.00", LocalDate.of(2024, 2, 29)));
+
+        CodificadorCronograma.Contenido decodificado = ciclo(new CodificadorCronograma.Contenido(cuotas, new BitSet(), Map.of()));
+
+        assertThat(decodificado.inactivas().isEmpty()).isTrue();
+        assertThat(decodificado.rutas()).isEmpty();
+    }
+
+    @Test
+    void redondeaAlCentavoAlCodificar() {
+        List<CuotaDto> cuotas = List.of(cuota(1, "10.005", "0.004", "1", LocalDate.of(2024, 1, 1)));
+
+        CuotaDto leida = ciclo(new CodificadorCronograma.Contenido(cuotas, new BitSet(), Map.of())).cuotas().get(0);
+
+        assertThat(leida.getMonto()).isEqualTo(new BigDecimal("10.01"));
+        assertThat(leida.getInteres()).isEqualTo(new BigDecimal("0.00"));
+        assertThat(leida.getSaldoPendiente()).isEqualTo(new BigDecimal("1.00"));
+    }
+
+    @Test
+    void rechazaUnFormatoDesconocido() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DeflaterOutputStream salida = new DeflaterOutputStream(bytes)) {
+            salida.write(new byte[]{2, 0});
+        }
+
+        assertThatThrownBy(() -> CodificadorCronograma.decodificar(bytes.toByteArray()))
+                .isInstanceOf(PagareGenerationException.class)
+                .hasMessageContaining("Formato de cronograma desconocido: 2");
+    }
+
+    @Test
+    void rechazaDatosTruncados() {
+        List<CuotaDto> cuotas = new TablaAmortizacion().generar(new BigDecimal("5000"), new BigDecimal("9.5"), (short) 24);
+        byte[] datos = CodificadorCronograma.codificar(new CodificadorCronograma.Contenido(cuotas, new BitSet(), Map.of()));
+        byte[] truncados = Arrays.copyOf(datos, datos.length / 2);
+
+        assertThatThrownBy(() -> CodificadorCronograma.decodificar(truncados))
+                .isInstanceOf(PagareGenerationException.class);
+    }
+
+    private static CodificadorCronograma.Contenido ciclo(CodificadorCronograma.Contenido contenido) {
+        return CodificadorCronograma.decodificar(CodificadorCronograma.codificar(contenido));
+    }
+
+    private static CuotaDto cuota(int numero, String monto, String interes, String saldo, LocalDate vencimiento) {
+        return CuotaDto.builder()
+                .numeroCuota(numero)
+                .monto(new BigDecimal(monto))
+                .interes(new BigDecimal(interes))
+                .saldoPendiente(new BigDecimal(saldo))
+                .fechaVencimiento(vencimiento)
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.originacion.contratos.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColaTrabajosServiceTest {
+
+    @Test
+    void laEsperaSeDuplicaEnCadaIntento() {
+        assertThat(ColaTrabajosService.esperaReintento(5, 1)).isEqualTo(5);
+        assertThat(ColaTrabajosService.esperaReintento(5, 2)).isEqualTo(10);
+        assertThat(ColaTrabajosService.esperaReintento(5, 3)).isEqualTo(20);
+        assertThat(ColaTrabajosService.esperaReintento(5, 6)).isEqualTo(160);
+    }
+
+    @Test
+    void laEsperaNoSuperaUnaHoraNiDesbordaConMuchosIntentos() {
+        assertThat(ColaTrabajosService.esperaReintento(5, 11)).isEqualTo(3600);
+        assertThat(ColaTrabajosService.esperaReintento(5, 1_000)).isEqualTo(3600);
+        assertThat(ColaTrabajosService.esperaReintento(Integer.MAX_VALUE, 64)).isEqualTo(3600);
+    }
+}
@@ -0,0 +1,135 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.enums.TipoOperacionDiferida;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiarioOperacionesTest {
+
+    private static final long MAX_BYTES = 1024;
+    private static final LocalDateTime ENCOLADA = LocalDateTime.of(2024, 5, 2, 9, 15, 30, 123_000_000);
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void alReabrirRecuperaLasPendientesEnOrdenDeEncolado() {
+        OperacionDiferida eliminar = operacion("a", TipoOperacionDiferida.ELIMINAR_CONTRATO, 10L, null);
+        OperacionDiferida condicion = operacion("b", TipoOperacionDiferida.ACTUALIZAR_CONDICION, 11L, "Seguro | incluido\nñ");
+        OperacionDiferida pagare = operacion("c", TipoOperacionDiferida.ELIMINAR_PAGARE, 12L, null);
+
+        DiarioOperaciones diario = new DiarioOperaciones(directorio, MAX_BYTES);
+        diario.registrar(eliminar);
+        diario.registrar(condicion);
+        diario.registrar(pagare);
+        diario.marcarProcesadas(List.of("a"));
+        diario.cerrar();
+
+        DiarioOperaciones reabierto = new DiarioOperaciones(directorio, MAX_BYTES);
+        assertThat(reabierto.leerPendientes()).containsExactly(condicion, pagare);
+        reabierto.cerrar();
+    }
+
+    @Test
+    void descartaUnaLineaCortadaPorUnaCaida() throws IOException {
+        DiarioOperaciones diario = new DiarioOperaciones(directorio, MAX_BYTES);
+        OperacionDiferida completa = operacion("a", TipoOperacionDiferida.ELIMINAR_CONTRATO, 10L, null);
+        diario.registrar(completa);
+        diario.cerrar();
+        Files.writeString(directorio.resolve("operaciones.log"), "E|b|ELIMINAR_PAGARE|12",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        DiarioOperaciones reabierto = new DiarioOperaciones(directorio, MAX_BYTES);
+        assertThat(reabierto.leerPendientes()).containsExactly(completa);
+        reabierto.cerrar();
+    }
+
+    @Test
+    void compactarVaciaElDiarioYLasNuevasEntradasSiguenRecuperandose() throws IOException {
+        DiarioOperaciones diario = new DiarioOperaciones(directorio, MAX_BYTES);
+        diario.registrar(operacion("a", TipoOperacionDiferida.ELIMINAR_CONTRATO, 10L, null));
+        diario.marcarProcesadas(List.of("a"));
+
+        diario.compactar(List.of());
+        assertThat(Files.size(directorio.resolve("operaciones.log"))).isZero();
+        assertThat(diario.leerPendientes()).isEmpty();
+
+        OperacionDiferida nueva = operacion("b", TipoOperacionDiferida.ELIMINAR_PAGARE, 12L, null);
+        diario.registrar(nueva);
+        diario.cerrar();
+
+        DiarioOperaciones reabierto = new DiarioOperaciones(directorio, MAX_BYTES);
+        assertThat(reabierto.leerPendientes()).containsExactly(nueva);
+        assertThat(Files.readString(directorio.resolve("operaciones.log"))).startsWith("E|b|");
+        reabierto.cerrar();
+    }
+
+    @Test
+    void porEncimaDelMaximoSeReescribeSoloConLasPendientes() throws IOException {
+        DiarioOperaciones diario = new DiarioOperaciones(directorio, MAX_BYTES);
+        for (int i = 0; i < 20; i++) {
+            diario.registrar(operacion("p" + i, TipoOperacionDiferida.ELIMINAR_PAGARE, (long) i, null));
+        }
+        List<String> procesadas = new ArrayList<>();
+        for (int i = 0; i < 18; i++) {
+            procesadas.add("p" + i);
+        }
+        diario.marcarProcesadas(procesadas);
+        List<OperacionDiferida> pendientes = List.of(
+                operacion("p18", TipoOperacionDiferida.ELIMINAR_PAGARE, 18L, null),
+                operacion("p19", TipoOperacionDiferida.ELIMINAR_PAGARE, 19L, null));
+        assertThat(Files.size(directorio.resolve("operaciones.log"))).isGreaterThan(MAX_BYTES);
+
+        diario.compactar(pendientes);
+        assertThat(Files.readAllLines(directorio.resolve("operaciones.log"))).hasSize(2);
+
+        // Las escrituras siguientes van al archivo nuevo
+        OperacionDiferida nueva = operacion("n", TipoOperacionDiferida.ELIMINAR_CONTRATO, 30L, "motivo");
+        diario.registrar(nueva);
+        diario.cerrar();
+
+        DiarioOperaciones reabierto = new DiarioOperaciones(directorio, MAX_BYTES);
+        assertThat(reabierto.leerPendientes()).containsExactly(pendientes.get(0), pendientes.get(1), nueva);
+        reabierto.cerrar();
+    }
+
+    @Test
+    void porDebajoDelMaximoNoSeReescribe() throws IOException {
+        DiarioOperaciones diario = new DiarioOperaciones(directorio, MAX_BYTES);
+        OperacionDiferida procesada = operacion("a", TipoOperacionDiferida.ELIMINAR_CONTRATO, 10L, null);
+        OperacionDiferida pendiente = operacion("b", TipoOperacionDiferida.ELIMINAR_PAGARE, 12L, null);
+        diario.registrar(procesada);
+        diario.registrar(pendiente);
+        diario.marcarProcesadas(List.of("a"));
+        long tamano = Files.size(directorio.resolve("operaciones.log"));
+
+        diario.compactar(List.of(pendiente));
+        assertThat(Files.size(directorio.resolve("operaciones.log"))).isEqualTo(tamano);
+        diario.cerrar();
+    }
+
+    @Test
+    void marcarSinIdsNoEscribeNada() throws IOException {
+        DiarioOperaciones diario = new DiarioOperaciones(directorio, MAX_BYTES);
+        diario.marcarProcesadas(List.of());
+        diario.cerrar();
+
+        assertThat(Files.size(directorio.resolve("operaciones.log"))).isZero();
+    }
+
+    private static OperacionDiferida operacion(String id, TipoOperacionDiferida tipo, Long entidadId, String argumento) {
+        return new OperacionDiferida(id, tipo, entidadId, argumento, ENCOLADA);
+    }
+}
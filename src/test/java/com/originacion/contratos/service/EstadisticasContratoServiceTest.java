@@ -0,0 +1,141 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.dto.PuntoSerieContratosDto;
+import com.originacion.contratos.enums.GranularidadSerie;
+import com.originacion.contratos.exception.BusinessLogicException;
+import com.originacion.contratos.model.Contrato;
+import com.originacion.contratos.model.RollupContrato;
+import com.originacion.contratos.repository.RollupContratoRepository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EstadisticasContratoServiceTest {
+
+    private static final LocalDate DIA = LocalDate.of(2024, 3, 10);
+
+    private final RollupContratoRepository rollupRepository = mock(RollupContratoRepository.class);
+    private final EstadisticasContratoService service = new EstadisticasContratoService(rollupRepository);
+
+    @Test
+    void registrarFirmadoClasificaElTiempoEnElTramoDeLimiteSuperiorInclusivo() {
+        firmar(LocalDateTime.of(2024, 3, 10, 8, 0), LocalDateTime.of(2024, 3, 10, 12, 0));
+        firmar(LocalDateTime.of(2024, 3, 10, 8, 0), LocalDateTime.of(2024, 3, 10, 12, 0, 1));
+        firmar(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 3, 10, 0, 0));
+
+        verify(rollupRepository).incrementar(eq(DIA), eq("FIRMA_HORAS_4"), anyShort(), eq(1L));
+        verify(rollupRepository).incrementar(eq(DIA), eq("FIRMA_HORAS_12"), anyShort(), eq(1L));
+        verify(rollupRepository).incrementar(eq(DIA), eq(EstadisticasContratoService.FIRMA_HORAS_MAS), anyShort(), eq(1L));
+        verify(rollupRepository).incrementar(eq(DIA), eq(EstadisticasContratoService.SEGUNDOS_FIRMA), anyShort(), eq(4 * 3600L));
+    }
+
+    @Test
+    void losPercentilesDevuelvenElLimiteDelTramoQueLosContiene() {
+        // 100 firmas: 50 en <= 1 h, 40 en <= 24 h, 9 en <= 168 h y 1 por encima de 720 h
+        rollups(
+                rollup(EstadisticasContratoService.FIRMADOS, 100),
+                rollup("FIRMA_HORAS_1", 50),
+                rollup("FIRMA_HORAS_24", 40),
+                rollup("FIRMA_HORAS_168", 9),
+                rollup(EstadisticasContratoService.FIRMA_HORAS_MAS, 1));
+
+        PuntoSerieContratosDto punto = serie(GranularidadSerie.DIA).get(0);
+
+        assertThat(punto.getHorasFirmaP50()).isEqualTo(1L);
+        assertThat(punto.getHorasFirmaP90()).isEqualTo(24L);
+        assertThat(punto.getHorasFirmaP99()).isEqualTo(168L);
+    }
+
+    @Test
+    void unPercentilEnElTramoAbiertoNoTieneLimite() {
+        rollups(
+                rollup("FIRMA_HORAS_720", 1),
+                rollup(EstadisticasContratoService.FIRMA_HORAS_MAS, 3));
+
+        PuntoSerieContratosDto punto = serie(GranularidadSerie.DIA).get(0);
+
+        assertThat(punto.getHorasFirmaP50()).isNull();
+        assertThat(punto.getHorasFirmaP99()).isNull();
+    }
+
+    @Test
+    void sinFirmasNoHayPercentilesNiPromedio() {
+        rollups(
+                rollup(EstadisticasContratoService.GENERADOS, 4),
+                rollup(EstadisticasContratoService.CANCELADOS, 1));
+
+        PuntoSerieContratosDto punto = serie(GranularidadSerie.DIA).get(0);
+
+        assertThat(punto.getHorasFirmaP50()).isNull();
+        assertThat(punto.getHorasFirmaPromedio()).isNull();
+        assertThat(punto.getTasaCancelacion()).isEqualTo(0.25);
+    }
+
+    @Test
+    void porMesSeSumanLosTramosDeTodosLosDias() {
+        RollupContrato primero = rollup("FIRMA_HORAS_4", 3);
+        RollupContrato segundo = rollup("FIRMA_HORAS_4", 2);
+        segundo.setFecha(DIA.plusDays(5));
+        RollupContrato tercero = rollup("FIRMA_HORAS_48", 5);
+        tercero.setFecha(DIA.plusDays(9));
+        rollups(primero, segundo, tercero);
+
+        List<PuntoSerieContratosDto> serie = serie(GranularidadSerie.MES);
+
+        assertThat(serie).hasSize(1);
+        assertThat(serie.get(0).getPeriodo()).isEqualTo(LocalDate.of(2024, 3, 1));
+        // 5 de 10 en <= 4 h: la mediana es exactamente el último del tramo
+        assertThat(serie.get(0).getHorasFirmaP50()).isEqualTo(4L);
+        assertThat(serie.get(0).getHorasFirmaP90()).isEqualTo(48L);
+    }
+
+    @Test
+    void laClasificacionSqlUsaLosMismosTramos() {
+        String sql = EstadisticasContratoService.tramoFirmaSql("s");
+
+        for (long limite : EstadisticasContratoService.TRAMOS_HORAS) {
+            assertThat(sql).contains("WHEN s <= " + limite * 3600 + " THEN 'FIRMA_HORAS_" + limite + "'");
+        }
+        assertThat(sql).endsWith("ELSE 'FIRMA_HORAS_MAS' END");
+    }
+
+    @Test
+    void rechazaRangosInvertidos() {
+        assertThatThrownBy(() -> service.obtenerSerie(DIA, DIA.minusDays(1), GranularidadSerie.DIA))
+                .isInstanceOf(BusinessLogicException.class);
+    }
+
+    private void firmar(LocalDateTime generado, LocalDateTime firmado) {
+        Contrato contrato = new Contrato();
+        contrato.setFechaGenerado(generado);
+        contrato.setFechaFirma(firmado);
+        service.registrarFirmado(contrato);
+    }
+
+    private void rollups(RollupContrato... rollups) {
+        when(rollupRepository.findByFechaBetweenOrderByFecha(DIA, DIA.plusDays(30))).thenReturn(List.of(rollups));
+    }
+
+    private List<PuntoSerieContratosDto> serie(GranularidadSerie granularidad) {
+        return service.obtenerSerie(DIA, DIA.plusDays(30), granularidad);
+    }
+
+    private static RollupContrato rollup(String metrica, long cantidad) {
+        RollupContrato rollup = new RollupContrato();
+        rollup.setFecha(DIA);
+        rollup.setMetrica(metrica);
+        rollup.setCantidad(cantidad);
+        return rollup;
+    }
+}
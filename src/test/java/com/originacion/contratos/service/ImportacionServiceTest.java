@@ -0,0 +1,32 @@
+package com.originacion.contratos.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportacionServiceTest {
+
+    @Test
+    void losSeparadoresDeCopySeEscapan() {
+        assertThat(escapar("a\tb\nc\rd")).isEqualTo("a\\tb\\nc\\rd");
+    }
+
+    @Test
+    void laBarraInvertidaSeDuplicaParaQueElJsonLlegueIntacto() {
+        // Un \t dentro de una cadena JSON son dos caracteres y así debe leerlos Postgres
+        assertThat(escapar("{\"ruta\":\"C:\\\\pagares\\tx\"}")).isEqualTo("{\"ruta\":\"C:\\\\\\\\pagares\\\\tx\"}");
+    }
+
+    @Test
+    void elRestoDelTextoPasaSinCambios() {
+        assertThat(escapar("{\"estado\":\"FIRMADO\",\"condicion\":\"Año 2024, cuota ñ €\"}"))
+                .isEqualTo("{\"estado\":\"FIRMADO\",\"condicion\":\"Año 2024, cuota ñ €\"}");
+        assertThat(escapar("")).isEmpty();
+    }
+
+    private static String escapar(String linea) {
+        StringBuilder destino = new StringBuilder();
+        ImportacionService.escaparTextoCopy(linea, destino);
+        return destino.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.service.InvalidacionesService.Cambio;
+import com.originacion.contratos.service.InvalidacionesService.Entidad;
+import com.originacion.contratos.service.InvalidacionesService.Evento;
+import com.originacion.contratos.service.InvalidacionesService.Pendiente;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvalidacionesServiceTest {
+
+    @Test
+    void losEventosQueCabenVanEnUnSoloMensaje() {
+        List<String> cargas = InvalidacionesService.cargas("ab12cd34", List.of(
+                pendiente(Entidad.CONTRATO, Cambio.ALTA, 5, 1L),
+                pendiente(Entidad.PAGARE, Cambio.MODIFICACION, 7, null)), InvalidacionesService.MAX_CARGA);
+
+        assertThat(cargas).containsExactly("ab12cd34|C+5:1,P~7:0");
+    }
+
+    @Test
+    void losEventosQueNoCabenAbrenOtroMensajeSinPerderNiPartirNinguno() {
+        List<Pendiente> pendientes = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            pendientes.add(pendiente(Entidad.PAGARE, Cambio.BAJA, 1_000_000 + id, id));
+        }
+
+        List<String> cargas = InvalidacionesService.cargas("ab12cd34", pendientes, 60);
+
+        assertThat(cargas).hasSizeGreaterThan(1)
+                .allSatisfy(carga -> assertThat(carga).startsWith("ab12cd34|").hasSizeLessThanOrEqualTo(60));
+        List<Evento> leidos = cargas.stream()
+                .flatMap(carga -> Arrays.stream(carga.substring(carga.indexOf('|') + 1).split(",")))
+                .map(InvalidacionesService::leer)
+                .toList();
+        assertThat(leidos).hasSize(50).doesNotContainNull();
+        assertThat(leidos.get(0)).isEqualTo(new Evento(Entidad.PAGARE, Cambio.BAJA, 1_000_001, 1));
+        assertThat(leidos.get(49)).isEqualTo(new Evento(Entidad.PAGARE, Cambio.BAJA, 1_000_050, 50));
+    }
+
+    @Test
+    void leerInterpretaEntidadCambioSolicitudYVersion() {
+        assertThat(InvalidacionesService.leer("C+12:0")).isEqualTo(new Evento(Entidad.CONTRATO, Cambio.ALTA, 12, 0));
+        assertThat(InvalidacionesService.leer("P-42:3")).isEqualTo(new Evento(Entidad.PAGARE, Cambio.BAJA, 42, 3));
+        assertThat(InvalidacionesService.leer("C~9:7")).isEqualTo(new Evento(Entidad.CONTRATO, Cambio.MODIFICACION, 9, 7));
+    }
+
+    @Test
+    void unEventoIlegibleSeDescarta() {
+        assertThat(InvalidacionesService.leer("C+12")).isNull();
+        assertThat(InvalidacionesService.leer("P-x:1")).isNull();
+        assertThat(InvalidacionesService.leer("")).isNull();
+    }
+
+    @Test
+    void unaModificacionTrasElAltaSigueSiendoAltaConLaVersionNueva() {
+        Pendiente fusionado = InvalidacionesService.fusionar(
+                pendiente(Entidad.CONTRATO, Cambio.ALTA, 5, 0L),
+                pendiente(Entidad.CONTRATO, Cambio.MODIFICACION, 5, 2L));
+
+        assertThat(fusionado.cambio()).isEqualTo(Cambio.ALTA);
+        assertThat(fusionado.version().get()).isEqualTo(2L);
+    }
+
+    @Test
+    void enLosDemasCasosValeElUltimoCambio() {
+        Pendiente baja = pendiente(Entidad.PAGARE, Cambio.BAJA, 5, 1L);
+        Pendiente alta = pendiente(Entidad.PAGARE, Cambio.ALTA, 5, 0L);
+
+        assertThat(InvalidacionesService.fusionar(pendiente(Entidad.PAGARE, Cambio.ALTA, 5, 0L), baja)).isSameAs(baja);
+        assertThat(InvalidacionesService.fusionar(pendiente(Entidad.PAGARE, Cambio.MODIFICACION, 5, 0L), baja)).isSameAs(baja);
+        assertThat(InvalidacionesService.fusionar(baja, alta)).isSameAs(alta);
+    }
+
+    private static Pendiente pendiente(Entidad entidad, Cambio cambio, long idSolicitud, Long version) {
+        return new Pendiente(entidad, cambio, idSolicitud, () -> version);
+    }
+}
@@ -0,0 +1,58 @@
+package com.originacion.contratos.service;
+
+import com.originacion.contratos.dto.CuotaDto;
+import com.originacion.contratos.exception.PagareGenerationException;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReamortizacionServiceTest {
+
+    private static final BigDecimal MONTO = new BigDecimal("25000");
+    private final TablaAmortizacion tablaAmortizacion = new TablaAmortizacion();
+
+    @Test
+    void unCronogramaDeFinDeMesConservaSusFechas() {
+        List<CuotaDto> actuales = tablaAmortizacion.generar(MONTO, new BigDecimal("12"), (short) 12);
+        for (int i = 0; i < actuales.size(); i++) {
+            actuales.get(i).setFechaVencimiento(YearMonth.of(2024, 1).plusMonths(i).atEndOfMonth());
+        }
+
+        List<CuotaDto> cuotas = ReamortizacionService.cuotasConTasa(tablaAmortizacion, actuales, MONTO,
+                new BigDecimal("9.5"), (short) 12);
+
+        assertThat(cuotas).extracting(CuotaDto::getFechaVencimiento)
+                .containsExactlyElementsOf(actuales.stream().map(CuotaDto::getFechaVencimiento).toList())
+                .startsWith(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 31));
+    }
+
+    @Test
+    void losMontosSonLosDeLaTasaNueva() {
+        List<CuotaDto> actuales = tablaAmortizacion.generar(MONTO, new BigDecimal("12"), (short) 24);
+        List<CuotaDto> esperadas = tablaAmortizacion.generar(MONTO, new BigDecimal("9.5"), (short) 24);
+
+        List<CuotaDto> cuotas = ReamortizacionService.cuotasConTasa(tablaAmortizacion, actuales, MONTO,
+                new BigDecimal("9.5"), (short) 24);
+
+        assertThat(cuotas).extracting(CuotaDto::getMonto)
+                .containsExactlyElementsOf(esperadas.stream().map(CuotaDto::getMonto).toList());
+        assertThat(cuotas).extracting(CuotaDto::getSaldoPendiente)
+                .containsExactlyElementsOf(esperadas.stream().map(CuotaDto::getSaldoPendiente).toList());
+    }
+
+    @Test
+    void unCronogramaQueNoCoincideConElPlazoSeRechaza() {
+        List<CuotaDto> actuales = tablaAmortizacion.generar(MONTO, new BigDecimal("12"), (short) 12);
+
+        assertThatThrownBy(() -> ReamortizacionService.cuotasConTasa(tablaAmortizacion, actuales, MONTO,
+                new BigDecimal("9.5"), (short) 24))
+                .isInstanceOf(PagareGenerationException.class);
+    }
+}
@@ -0,0 +1,108 @@
+package com.originacion.contratos.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FiltroBloomContadorTest {
+
+    @Test
+    void nuncaDescartaUnaClaveAgregada() {
+        FiltroBloomContador filtro = new FiltroBloomContador(10_000, 0.01);
+        for (long id = 1; id <= 10_000; id++) {
+            filtro.agregar(id * 7919);
+        }
+
+        for (long id = 1; id <= 10_000; id++) {
+            assertThat(filtro.puedeContener(id * 7919)).isTrue();
+        }
+        assertThat(filtro.elementos()).isEqualTo(10_000);
+    }
+
+    @Test
+    void laTasaDeFalsosPositivosQuedaCercaDeLaObjetivo() {
+        FiltroBloomContador filtro = new FiltroBloomContador(10_000, 0.01);
+        for (long id = 0; id < 10_000; id++) {
+            filtro.agregar(id);
+        }
+
+        int falsosPositivos = 0;
+        for (long id = 1_000_000; id < 1_100_000; id++) {
+            if (filtro.puedeContener(id)) {
+                falsosPositivos++;
+            }
+        }
+        assertThat(falsosPositivos / 100_000.0).isLessThan(0.02);
+        assertThat(filtro.tasaFalsosPositivosEstimada()).isBetween(0.002, 0.02);
+    }
+
+    @Test
+    void eliminarUnaClaveNoProduceFalsosNegativosEnLasDemas() {
+        FiltroBloomContador filtro = new FiltroBloomContador(5_000, 0.01);
+        for (long id = 0; id < 5_000; id++) {
+            filtro.agregar(id);
+        }
+
+        for (long id = 0; id < 5_000; id += 2) {
+            assertThat(filtro.eliminar(id)).isTrue();
+        }
+
+        for (long id = 1; id < 5_000; id += 2) {
+            assertThat(filtro.puedeContener(id)).isTrue();
+        }
+        assertThat(filtro.elementos()).isEqualTo(2_500);
+    }
+
+    @Test
+    void eliminarTodasLasClavesVaciaElFiltro() {
+        FiltroBloomContador filtro = new FiltroBloomContador(1_000, 0.01);
+        for (long id = 0; id < 1_000; id++) {
+            filtro.agregar(id);
+        }
+        for (long id = 0; id < 1_000; id++) {
+            filtro.eliminar(id);
+        }
+
+        for (long id = 0; id < 1_000; id++) {
+            assertThat(filtro.puedeContener(id)).isFalse();
+        }
+        assertThat(filtro.elementos()).isZero();
+        assertThat(filtro.tasaFalsosPositivosEstimada()).isZero();
+    }
+
+    @Test
+    void unaClaveQueElFiltroDescartaNoSeResta() {
+        FiltroBloomContador filtro = new FiltroBloomContador(1_000, 0.01);
+        filtro.agregar(42);
+        long ausente = 43;
+        while (filtro.puedeContener(ausente)) {
+            ausente++;
+        }
+
+        assertThat(filtro.eliminar(ausente)).isFalse();
+        assertThat(filtro.puedeContener(42)).isTrue();
+        assertThat(filtro.elementos()).isEqualTo(1);
+    }
+
+    @Test
+    void losContadoresSaturadosNoSeDecrementan() {
+        FiltroBloomContador filtro = new FiltroBloomContador(1, 0.5);
+        for (int i = 0; i < 20; i++) {
+            filtro.agregar(42);
+        }
+        // Sus contadores quedan fijos en 15: un saturado puede contar otras claves y no se sabe cuántas
+        for (int i = 0; i < 20; i++) {
+            filtro.eliminar(42);
+        }
+
+        assertThat(filtro.puedeContener(42)).isTrue();
+    }
+
+    @Test
+    void laMemoriaEsDeCuatroBitsPorContador() {
+        FiltroBloomContador filtro = new FiltroBloomContador(1_000_000, 0.01);
+
+        // ~9,6 millones de contadores de 4 bits
+        assertThat(filtro.memoriaBytes()).isBetween(4_700_000L, 4_900_000L);
+    }
+}
@@ -0,0 +1,117 @@
+package com.originacion.contratos.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int LLAMADAS = 8;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>("prueba", registry);
+    private final ExecutorService hilos = Executors.newFixedThreadPool(LLAMADAS);
+
+    @AfterEach
+    void cerrar() {
+        hilos.shutdownNow();
+    }
+
+    @Test
+    void lasLlamadasConcurrentesConLaMismaClaveEjecutanUnaSolaCarga() throws Exception {
+        AtomicInteger cargas = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        List<Future<String>> resultados = lanzar(() -> {
+            cargas.incrementAndGet();
+            esperar(liberar);
+            return "contrato";
+        });
+        esperarCoalescidas(LLAMADAS - 1);
+        liberar.countDown();
+
+        for (Future<String> resultado : resultados) {
+            assertThat(resultado.get(5, TimeUnit.SECONDS)).isEqualTo("contrato");
+        }
+        assertThat(cargas).hasValue(1);
+        assertThat(contador("ejecutada")).isEqualTo(1);
+        assertThat(singleFlight.enVuelo()).isZero();
+    }
+
+    @Test
+    void laExcepcionDeLaCargaLlegaATodasLasLlamadasAgrupadas() throws Exception {
+        IllegalStateException fallo = new IllegalStateException("base no disponible");
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        List<Future<String>> resultados = lanzar(() -> {
+            esperar(liberar);
+            throw fallo;
+        });
+        esperarCoalescidas(LLAMADAS - 1);
+        liberar.countDown();
+
+        for (Future<String> resultado : resultados) {
+            assertThatThrownBy(() -> resultado.get(5, TimeUnit.SECONDS)).hasCause(fallo);
+        }
+        assertThat(singleFlight.enVuelo()).isZero();
+    }
+
+    @Test
+    void laClaveSeLiberaAlTerminarYNoSeCacheaElResultado() {
+        AtomicInteger cargas = new AtomicInteger();
+
+        singleFlight.ejecutar(1L, () -> "v" + cargas.incrementAndGet());
+        String segunda = singleFlight.ejecutar(1L, () -> "v" + cargas.incrementAndGet());
+
+        assertThat(segunda).isEqualTo("v2");
+        assertThat(contador("coalescida")).isZero();
+    }
+
+    @Test
+    void lasClavesDistintasNoSeAgrupan() {
+        assertThat(singleFlight.ejecutar(1L, () -> singleFlight.ejecutar(2L, () -> "interna"))).isEqualTo("interna");
+        assertThat(contador("ejecutada")).isEqualTo(2);
+    }
+
+    private List<Future<String>> lanzar(Supplier<String> carga) {
+        List<Future<String>> resultados = new ArrayList<>();
+        for (int i = 0; i < LLAMADAS; i++) {
+            resultados.add(hilos.submit(() -> singleFlight.ejecutar(7L, carga)));
+        }
+        return resultados;
+    }
+
+    // Todas menos la que ejecuta deben estar esperando antes de liberar la carga
+    private void esperarCoalescidas(int esperadas) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (contador("coalescida") < esperadas && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+        assertThat(contador("coalescida")).isEqualTo(esperadas);
+    }
+
+    private double contador(String resultado) {
+        return registry.get("contratos.singleflight.llamadas").tag("resultado", resultado).counter().count();
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.originacion.contratos.util;
+
+import com.originacion.contratos.exception.TiempoLimiteExcedidoException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TiempoLimiteTest {
+
+    @AfterEach
+    void limpiar() {
+        TiempoLimite.limpiar();
+    }
+
+    @Test
+    void sinLimiteEstablecidoNadaVence() {
+        assertThat(TiempoLimite.restanteMs()).isEqualTo(TiempoLimite.SIN_LIMITE);
+        assertThat(TiempoLimite.vencido()).isFalse();
+        assertThatCode(() -> TiempoLimite.verificar("consulta")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void elRestanteDescuentaElTiempoTranscurrido() throws InterruptedException {
+        TiempoLimite.establecer(10_000);
+        assertThat(TiempoLimite.restanteMs()).isBetween(9_000L, 10_000L);
+
+        Thread.sleep(50);
+
+        assertThat(TiempoLimite.restanteMs()).isLessThanOrEqualTo(9_950L);
+        assertThat(TiempoLimite.vencido()).isFalse();
+    }
+
+    @Test
+    void unLimiteVencidoQuedaEnCeroYCortaElTrabajo() throws InterruptedException {
+        TiempoLimite.establecer(1);
+        Thread.sleep(5);
+
+        assertThat(TiempoLimite.restanteMs()).isZero();
+        assertThat(TiempoLimite.vencido()).isTrue();
+        assertThatThrownBy(() -> TiempoLimite.verificar("importación de contratos"))
+                .isInstanceOf(TiempoLimiteExcedidoException.class)
+                .hasMessageContaining("importación de contratos");
+    }
+
+    @Test
+    void elLimiteEsDelHiloQueAtiendeLaPeticion() {
+        TiempoLimite.establecer(1);
+
+        // Otro hilo (planificador, cola de trabajos) no hereda el límite
+        long enOtroHilo = CompletableFuture.supplyAsync(TiempoLimite::restanteMs).join();
+
+        assertThat(enOtroHilo).isEqualTo(TiempoLimite.SIN_LIMITE);
+    }
+
+    @Test
+    void limpiarQuitaElLimite() {
+        TiempoLimite.establecer(1);
+        TiempoLimite.limpiar();
+
+        assertThat(TiempoLimite.restanteMs()).isEqualTo(TiempoLimite.SIN_LIMITE);
+    }
+}
@@ -0,0 +1,82 @@
+package com.originacion.contratos.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+    private static final long INICIO = 1_000 * SEGUNDO;
+
+    @Test
+    void empiezaLlenaYConcedeLaRafagaCompleta() {
+        TokenBucket cubeta = new TokenBucket(5, 1, INICIO);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(cubeta.consumir(INICIO)).isZero();
+        }
+        assertThat(cubeta.consumir(INICIO)).isEqualTo(SEGUNDO);
+    }
+
+    @Test
+    void laEsperaIndicadaEsLaQueFaltaParaLaSiguienteFicha() {
+        TokenBucket cubeta = new TokenBucket(1, 4, INICIO);
+        cubeta.consumir(INICIO);
+
+        // 4 fichas por segundo: una cada 250 ms, ya transcurrieron 100
+        long espera = cubeta.consumir(INICIO + TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertThat(espera).isEqualTo(TimeUnit.MILLISECONDS.toNanos(150));
+        assertThat(cubeta.consumir(INICIO + TimeUnit.MILLISECONDS.toNanos(100) + espera)).isZero();
+    }
+
+    @Test
+    void recargaProporcionalAlTiempoSinSuperarLaCapacidad() {
+        TokenBucket cubeta = new TokenBucket(3, 2, INICIO);
+        for (int i = 0; i < 3; i++) {
+            cubeta.consumir(INICIO);
+        }
+
+        // Un segundo repone 2 fichas
+        long despues = INICIO + SEGUNDO;
+        assertThat(cubeta.consumir(despues)).isZero();
+        assertThat(cubeta.consumir(despues)).isZero();
+        assertThat(cubeta.consumir(despues)).isPositive();
+
+        // Una hora después sólo hay 'capacidad' fichas
+        long mucho = despues + TimeUnit.HOURS.toNanos(1);
+        for (int i = 0; i < 3; i++) {
+            assertThat(cubeta.consumir(mucho)).isZero();
+        }
+        assertThat(cubeta.consumir(mucho)).isPositive();
+    }
+
+    @Test
+    void unRelojQueRetrocedeNoRepone() {
+        TokenBucket cubeta = new TokenBucket(1, 1, INICIO);
+        cubeta.consumir(INICIO);
+
+        assertThat(cubeta.consumir(INICIO - SEGUNDO)).isPositive();
+        assertThat(cubeta.consumir(INICIO + SEGUNDO)).isZero();
+    }
+
+    @Test
+    void soloEstaInactivaSiEstaLlenaYSinUsoDuranteElPlazo() {
+        TokenBucket cubeta = new TokenBucket(2, 1, INICIO);
+        long inactividad = 10 * SEGUNDO;
+
+        cubeta.consumir(INICIO);
+        cubeta.consumir(INICIO);
+        // Llena de nuevo a los 2 s, pero usada hace menos del plazo
+        assertThat(cubeta.inactivaDesde(INICIO + 5 * SEGUNDO, inactividad)).isFalse();
+        assertThat(cubeta.inactivaDesde(INICIO + inactividad, inactividad)).isTrue();
+
+        // Pasado el plazo pero aún sin recuperar la ficha gastada: descartarla regalaría una ficha
+        TokenBucket lenta = new TokenBucket(100, 0.01, INICIO);
+        lenta.consumir(INICIO);
+        assertThat(lenta.inactivaDesde(INICIO + inactividad, inactividad)).isFalse();
+    }
+}